@@ -0,0 +1,50 @@
+#!/usr/bin/env bash
+# Measures time-to-first-request and resident memory for each packaged variant.
+#
+#   mvn -Pcds package -DskipTests          # jar + target/application (CDS archive)
+#   mvn -Pnative native:compile -DskipTests # optional, needs a GraalVM JDK
+#   scripts/measure-startup.sh [runs]
+#
+# Time-to-first-request is measured from process launch until POST /receipts/process succeeds.
+# RSS is read from /proc after a short warm-up burst of requests.
+set -euo pipefail
+
+RUNS=${1:-3}
+PORT=${PORT:-8080}
+TARGET="$(cd "$(dirname "$0")/.." && pwd)/target"
+JAR="$TARGET/receipt-processor-0.0.1-SNAPSHOT.jar"
+RECEIPT='{"retailer":"Target","purchaseDate":"2022-01-01","purchaseTime":"13:01","total":"35.35","items":[{"shortDescription":"Mountain Dew 12PK","price":"6.49"}]}'
+
+now_ms() { date +%s%3N; }
+
+post_receipt() {
+    curl -sf -o /dev/null -X POST "http://localhost:$PORT/receipts/process" \
+        -H 'Content-Type: application/json' -d "$RECEIPT"
+}
+
+measure() {
+    local name=$1; shift
+    local total_ms=0 rss_kb=0
+    for ((run = 1; run <= RUNS; run++)); do
+        local start; start=$(now_ms)
+        "$@" --server.port="$PORT" > /dev/null 2>&1 &
+        local pid=$!
+        until post_receipt; do
+            kill -0 "$pid" 2> /dev/null || { echo "$name: process exited during startup" >&2; return 1; }
+            sleep 0.02
+        done
+        total_ms=$((total_ms + $(now_ms) - start))
+        for ((i = 0; i < 200; i++)); do post_receipt; done
+        rss_kb=$(awk '/VmRSS/ {print $2}' "/proc/$pid/status")
+        kill "$pid"; wait "$pid" 2> /dev/null || true
+    done
+    printf '%-8s time-to-first-request %6d ms   RSS %6d MB\n' "$name" $((total_ms / RUNS)) $((rss_kb / 1024))
+}
+
+measure jar java -jar "$JAR"
+if [[ -f "$TARGET/application/application.jsa" ]]; then
+    measure cds java -XX:SharedArchiveFile="$TARGET/application/application.jsa" -jar "$TARGET/application/receipt-processor-0.0.1-SNAPSHOT.jar"
+fi
+if [[ -x "$TARGET/receipt-processor" ]]; then
+    measure native "$TARGET/receipt-processor"
+fi
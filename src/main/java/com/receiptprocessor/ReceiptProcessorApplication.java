@@ -2,8 +2,14 @@ package com.receiptprocessor;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.context.annotation.ImportRuntimeHints;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+import com.receiptprocessor.json.ReceiptJsonHints;
 
 @SpringBootApplication
+@EnableScheduling
+@ImportRuntimeHints(ReceiptJsonHints.class)
 public class ReceiptProcessorApplication {
 
 	public static void main(String[] args) {
@@ -0,0 +1,81 @@
+package com.receiptprocessor.admission;
+
+/**
+ * A concurrency limit adjusted by additive increase, multiplicative decrease (AIMD) from observed latency.
+ * - A request that finishes within its latency target while the limit is actually in use raises the limit
+ *   by {@code 1/limit}, i.e. by about one per round of requests.
+ * - A request over its target (or failing with a 5xx) multiplies the limit by the backoff ratio, at most once
+ *   per target interval, so a burst of slow completions counts as one congestion signal.
+ * The limit stays between the configured minimum and maximum.
+ */
+public class AdaptiveLimit {
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final double backoffRatio;
+    private double limit;
+    private int inFlight;
+    private long lastDecreaseNanos;
+
+    public AdaptiveLimit(int initialLimit, int minLimit, int maxLimit, double backoffRatio) {
+        if (minLimit < 1 || maxLimit < minLimit || backoffRatio <= 0 || backoffRatio >= 1) {
+            throw new IllegalArgumentException("Invalid limit settings: min " + minLimit + ", max " + maxLimit
+                    + ", backoff " + backoffRatio);
+        }
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.backoffRatio = backoffRatio;
+        this.limit = Math.max(minLimit, Math.min(maxLimit, initialLimit));
+        this.lastDecreaseNanos = System.nanoTime();
+    }
+
+    /**
+     * Admits a request if fewer than {@code share} of the limit are in flight. At least one request is always
+     * admitted when none is in flight, so a low share never starves a priority completely.
+     *
+     * @param share The fraction of the limit available to the request, 0 to 1.
+     * @return True if admitted; the caller must then call {@link #release} exactly once.
+     */
+    public synchronized boolean tryAcquire(double share) {
+        if (inFlight >= Math.max(1, (int) (limit * share))) {
+            return false;
+        }
+        inFlight++;
+        return true;
+    }
+
+    /**
+     * Releases an admitted request and adjusts the limit from its outcome.
+     *
+     * @param latencyNanos The request latency.
+     * @param targetNanos  The latency target for the request.
+     * @param failed       True if the request failed in a way that signals overload.
+     */
+    public synchronized void release(long latencyNanos, long targetNanos, boolean failed) {
+        inFlight--;
+        long now = System.nanoTime();
+        if (failed || latencyNanos > targetNanos) {
+            if (now - lastDecreaseNanos >= targetNanos) {
+                limit = Math.max(minLimit, limit * backoffRatio);
+                lastDecreaseNanos = now;
+            }
+        } else if ((inFlight + 1) * 2 >= limit) { // Only grow while at least half the limit was in use
+            limit = Math.min(maxLimit, limit + 1 / limit);
+        }
+    }
+
+    /**
+     * Releases an admitted request that was not run, without adjusting the limit.
+     */
+    public synchronized void cancel() {
+        inFlight--;
+    }
+
+    public synchronized double getLimit() {
+        return limit;
+    }
+
+    public synchronized int getInFlight() {
+        return inFlight;
+    }
+}
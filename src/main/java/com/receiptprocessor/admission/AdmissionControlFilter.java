@@ -0,0 +1,215 @@
+package com.receiptprocessor.admission;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * Admission control for /receipts: sheds load with a fast 503 instead of letting every request queue.
+ * - Each endpoint has its own {@link AdaptiveLimit}, adjusted from that endpoint's latency against the target of
+ *   its priority.
+ * - A shared limit covers all endpoints. Critical requests (single-receipt ingest, point lookups) may use all of
+ *   it, normal ones three quarters and low-priority ones (sorts, analytics, score batches) half, so when latency
+ *   climbs the heavy reads are shed first.
+ * - Shed requests get a 503 with Retry-After and are counted in {@code receipts.admission.shed}; the current
+ *   limits are exported as {@code receipts.admission.limit}.
+ * The analytics event stream and change feed polls wait on purpose and are not limited. Disabled with {@code receipts.admission.enabled=false}.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 1)
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+@ConditionalOnProperty(prefix = "receipts.admission", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class AdmissionControlFilter extends OncePerRequestFilter {
+
+    private static final Logger log = LoggerFactory.getLogger(AdmissionControlFilter.class);
+
+    public enum Priority {
+        CRITICAL(1.0),
+        NORMAL(0.75),
+        LOW(0.5);
+
+        private final double share;
+
+        Priority(double share) {
+            this.share = share;
+        }
+    }
+
+    public enum Endpoint {
+        INGEST(Priority.CRITICAL),
+        POINTS(Priority.CRITICAL),
+        SORT(Priority.LOW),
+        ANALYTICS(Priority.LOW),
+        SCORE(Priority.LOW),
+        OTHER(Priority.NORMAL);
+
+        private final Priority priority;
+
+        Endpoint(Priority priority) {
+            this.priority = priority;
+        }
+
+        public Priority getPriority() {
+            return priority;
+        }
+
+        /**
+         * Classifies a /receipts request.
+         *
+         * @param method The HTTP method.
+         * @param uri    The request URI.
+         * @return The endpoint, or null if the request is not limited.
+         */
+        public static Endpoint of(String method, String uri) {
+            if (!uri.startsWith("/receipts") || uri.equals("/receipts/analytics/stream") || uri.equals("/receipts/changes")) {
+                return null;
+            }
+            boolean get = "GET".equals(method);
+            if ("POST".equals(method) && uri.equals("/receipts/process")) {
+                return INGEST;
+            }
+            if ("POST".equals(method) && uri.equals("/receipts/score")) {
+                return SCORE;
+            }
+            if (get && uri.equals("/receipts/sort")) {
+                return SORT;
+            }
+            if (get && uri.equals("/receipts/analytics")) {
+                return ANALYTICS;
+            }
+            if (get && uri.endsWith("/points") && uri.indexOf('/', "/receipts/".length()) == uri.length() - "/points".length()) {
+                return POINTS;
+            }
+            return OTHER;
+        }
+    }
+
+    private final AdaptiveLimit global;
+    private final Map<Endpoint, AdaptiveLimit> limits = new EnumMap<>(Endpoint.class);
+    private final Map<Priority, Long> targetNanos = new EnumMap<>(Priority.class);
+    private final long retryAfterSeconds;
+    private final ObjectMapper objectMapper;
+    private final MeterRegistry meterRegistry;
+
+    /**
+     * @param initialLimit      Starting concurrency limit of each endpoint.
+     * @param minLimit          Lowest limit the endpoints and the shared limit shrink to.
+     * @param maxLimit          Highest limit; also the starting shared limit.
+     * @param backoffRatio      Factor applied to a limit when latency exceeds the target.
+     * @param criticalTargetMs  Latency target of critical requests.
+     * @param normalTargetMs    Latency target of normal requests.
+     * @param lowTargetMs       Latency target of low-priority requests.
+     * @param retryAfterSeconds Retry-After sent with shed requests.
+     * @param objectMapper      Mapper for the error body.
+     * @param meterRegistry     Registry for the limit gauges and shed counters.
+     */
+    public AdmissionControlFilter(@Value("${receipts.admission.initial-limit:64}") int initialLimit,
+                                  @Value("${receipts.admission.min-limit:4}") int minLimit,
+                                  @Value("${receipts.admission.max-limit:200}") int maxLimit,
+                                  @Value("${receipts.admission.backoff-ratio:0.9}") double backoffRatio,
+                                  @Value("${receipts.admission.target-ms.critical:100}") long criticalTargetMs,
+                                  @Value("${receipts.admission.target-ms.normal:500}") long normalTargetMs,
+                                  @Value("${receipts.admission.target-ms.low:2000}") long lowTargetMs,
+                                  @Value("${receipts.admission.retry-after-seconds:1}") long retryAfterSeconds,
+                                  ObjectMapper objectMapper, MeterRegistry meterRegistry) {
+        this.global = new AdaptiveLimit(maxLimit, minLimit, maxLimit, backoffRatio);
+        for (Endpoint endpoint : Endpoint.values()) {
+            limits.put(endpoint, new AdaptiveLimit(initialLimit, minLimit, maxLimit, backoffRatio));
+        }
+        targetNanos.put(Priority.CRITICAL, TimeUnit.MILLISECONDS.toNanos(criticalTargetMs));
+        targetNanos.put(Priority.NORMAL, TimeUnit.MILLISECONDS.toNanos(normalTargetMs));
+        targetNanos.put(Priority.LOW, TimeUnit.MILLISECONDS.toNanos(lowTargetMs));
+        this.retryAfterSeconds = retryAfterSeconds;
+        this.objectMapper = objectMapper;
+        this.meterRegistry = meterRegistry;
+
+        meterRegistry.gauge("receipts.admission.limit", Tags.of("endpoint", "all"), global, AdaptiveLimit::getLimit);
+        limits.forEach((endpoint, limit) -> meterRegistry.gauge("receipts.admission.limit",
+                Tags.of("endpoint", endpoint.name().toLowerCase(Locale.ROOT)), limit, AdaptiveLimit::getLimit));
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return Endpoint.of(request.getMethod(), request.getRequestURI()) == null;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        Endpoint endpoint = Endpoint.of(request.getMethod(), request.getRequestURI());
+        AdaptiveLimit limit = limits.get(endpoint);
+        if (!global.tryAcquire(endpoint.priority.share)) {
+            shed(endpoint, response);
+            return;
+        }
+        if (!limit.tryAcquire(1.0)) {
+            global.cancel();
+            shed(endpoint, response);
+            return;
+        }
+
+        long start = System.nanoTime();
+        boolean failed = true;
+        try {
+            filterChain.doFilter(request, response);
+            failed = response.getStatus() >= 500;
+        } finally {
+            long latency = System.nanoTime() - start;
+            long target = targetNanos.get(endpoint.priority);
+            limit.release(latency, target, failed);
+            global.release(latency, target, failed);
+        }
+    }
+
+    /**
+     * Returns the current limit of an endpoint.
+     *
+     * @param endpoint The endpoint, or null for the shared limit.
+     * @return The limit.
+     */
+    public double getLimit(Endpoint endpoint) {
+        return endpoint == null ? global.getLimit() : limits.get(endpoint).getLimit();
+    }
+
+    private void shed(Endpoint endpoint, HttpServletResponse response) throws IOException {
+        meterRegistry.counter("receipts.admission.shed",
+                "endpoint", endpoint.name().toLowerCase(Locale.ROOT),
+                "priority", endpoint.priority.name().toLowerCase(Locale.ROOT)).increment();
+        log.debug("Shed {} request: endpoint limit {}, shared limit {}", endpoint, limits.get(endpoint).getLimit(), global.getLimit());
+
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("timestamp", LocalDateTime.now());
+        body.put("message", "Server is busy. Retry after " + retryAfterSeconds + " s.");
+        body.put("status", HttpStatus.SERVICE_UNAVAILABLE.value());
+        response.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, Long.toString(retryAfterSeconds));
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        objectMapper.writeValue(response.getOutputStream(), body);
+    }
+}
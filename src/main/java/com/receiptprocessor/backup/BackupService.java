@@ -0,0 +1,413 @@
+package com.receiptprocessor.backup;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+import java.util.zip.ZipException;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.util.MinimalPrettyPrinter;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.receiptprocessor.metrics.ValidationMetrics;
+import com.receiptprocessor.model.Receipt;
+import com.receiptprocessor.repository.ReceiptRepository;
+
+import io.micrometer.core.annotation.Timed;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Streams the whole store to and from backup files for migrations and nightly backups.
+ * - The store is read in chunks straight from its entries; chunks are encoded in parallel and written in order,
+ *   with only a bounded window of chunks in memory, so the full list is never materialized.
+ * - {@link Format#NDJSON} writes one {"id", "receipt"} object per line. Each chunk is its own gzip member;
+ *   concatenated members form a regular gzip file, so the output also works with zcat and friends.
+ * - {@link Format#COLUMNAR} writes dictionary-encoded, gzip-compressed row groups (see {@link ColumnarCodec})
+ *   behind a magic header, each prefixed with its length and terminated by a zero length.
+ * - Imports decode and restore chunks in parallel through {@link ReceiptRepository#restoreReceipt}, so indexes,
+ *   caches and metrics follow. Receipts are validated like ingested ones; existing IDs are skipped. An import is
+ *   not transactional: receipts restored before a malformed chunk stay in the store.
+ * - Files are only read from and written to the configured backup directory; exports go to a temporary file that
+ *   is renamed when complete.
+ */
+@Service
+public class BackupService {
+
+    private static final Logger log = LoggerFactory.getLogger(BackupService.class);
+
+    private static final byte[] COLUMNAR_MAGIC = "RCOL1".getBytes(StandardCharsets.US_ASCII);
+
+    public enum Format {
+        NDJSON,
+        COLUMNAR;
+
+        /**
+         * Parses a format name, case-insensitive.
+         *
+         * @throws IllegalArgumentException if the format is not supported.
+         */
+        public static Format of(String name) {
+            try {
+                return Format.valueOf(name.trim().toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException | NullPointerException e) {
+                throw new IllegalArgumentException("Invalid backup format: " + name + ". Use 'ndjson' or 'columnar'.");
+            }
+        }
+    }
+
+    /**
+     * Outcome of restoring one chunk.
+     */
+    private record Restored(int restored, int skipped, int rejected) {
+    }
+
+    private final ReceiptRepository receiptRepository;
+    private final ObjectMapper objectMapper;
+    private final ValidationMetrics validationMetrics;
+    private final Path directory;
+    private final int chunkSize;
+    private final int parallelism;
+    private final ExecutorService workers;
+
+    public BackupService(ReceiptRepository receiptRepository, ObjectMapper objectMapper, ValidationMetrics validationMetrics,
+                         @Value("${receipts.backup.dir:backups}") String directory,
+                         @Value("${receipts.backup.chunk-size:5000}") int chunkSize,
+                         @Value("${receipts.backup.threads:4}") int parallelism) {
+        this.receiptRepository = receiptRepository;
+        this.objectMapper = objectMapper;
+        this.validationMetrics = validationMetrics;
+        this.directory = Paths.get(directory).toAbsolutePath().normalize();
+        this.chunkSize = chunkSize;
+        this.parallelism = parallelism;
+        this.workers = Executors.newFixedThreadPool(parallelism);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        workers.shutdownNow();
+    }
+
+    /**
+     * Writes every stored receipt to a backup file.
+     *
+     * @param fileName The file name inside the backup directory.
+     * @param format   The file format.
+     * @return The file, the number of receipts and bytes written, and the throughput.
+     * @throws IllegalArgumentException if the file name is not a plain name.
+     * @throws UncheckedIOException     if the file cannot be written.
+     */
+    @Timed(value = "receipts.backup.export", description = "Time to export the store to a backup file")
+    public Map<String, Object> exportTo(String fileName, Format format) {
+        Path target = resolve(fileName);
+        long start = System.nanoTime();
+        int receipts = 0;
+        try {
+            Files.createDirectories(directory);
+            Path temporary = Files.createTempFile(directory, fileName, ".tmp");
+            try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(temporary), 256 * 1024)) {
+                DataOutputStream data = new DataOutputStream(out);
+                if (format == Format.COLUMNAR) {
+                    data.write(COLUMNAR_MAGIC);
+                }
+                Deque<Future<byte[]>> window = new ArrayDeque<>();
+                List<Map.Entry<String, Receipt>> chunk = new ArrayList<>(chunkSize);
+                for (Map.Entry<String, Receipt> entry : receiptRepository.getAllReceipts().entrySet()) {
+                    chunk.add(entry);
+                    receipts++;
+                    if (chunk.size() == chunkSize) {
+                        submit(window, encoder(chunk, format), data, format);
+                        chunk = new ArrayList<>(chunkSize);
+                    }
+                }
+                if (!chunk.isEmpty()) {
+                    submit(window, encoder(chunk, format), data, format);
+                }
+                while (!window.isEmpty()) {
+                    write(window.poll(), data, format);
+                }
+                if (format == Format.COLUMNAR) {
+                    data.writeInt(0);
+                }
+                data.flush();
+            } catch (IOException | RuntimeException e) {
+                Files.deleteIfExists(temporary);
+                throw e;
+            }
+            Files.move(temporary, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            Map<String, Object> result = summary(target, format, receipts, Files.size(target), start);
+            log.info("Exported {}", result);
+            return result;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to export to " + fileName, e);
+        }
+    }
+
+    /**
+     * Loads receipts from a backup file into the store.
+     *
+     * @param fileName The file name inside the backup directory.
+     * @param format   The file format.
+     * @return The file, the number of receipts restored, skipped (ID already stored) and rejected (invalid),
+     *         the bytes read, and the throughput.
+     * @throws IllegalArgumentException if the file name is not a plain name, the file does not exist or is not
+     *                                  in the given format.
+     * @throws UncheckedIOException     if the file cannot be read.
+     */
+    @Timed(value = "receipts.backup.import", description = "Time to import a backup file into the store")
+    public Map<String, Object> importFrom(String fileName, Format format) {
+        Path source = resolve(fileName);
+        long start = System.nanoTime();
+        Deque<Future<Restored>> window = new ArrayDeque<>();
+        int[] totals = new int[3];
+        try (InputStream in = Files.newInputStream(source)) {
+            if (format == Format.NDJSON) {
+                readNdjson(in, window, totals);
+            } else {
+                readColumnar(in, window, totals);
+            }
+            while (!window.isEmpty()) {
+                add(totals, await(window.poll()));
+            }
+            Map<String, Object> result = summary(source, format, totals[0], Files.size(source), start);
+            result.put("skipped", totals[1]);
+            result.put("rejected", totals[2]);
+            log.info("Imported {}", result);
+            return result;
+        } catch (NoSuchFileException e) {
+            throw new IllegalArgumentException("Backup file not found: " + fileName);
+        } catch (ZipException e) {
+            throw new IllegalArgumentException("Not a gzip-compressed NDJSON backup file.");
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to import from " + fileName, e);
+        } finally {
+            window.forEach(future -> future.cancel(true));
+        }
+    }
+
+    private void readNdjson(InputStream in, Deque<Future<Restored>> window, int[] totals) throws IOException {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(new GZIPInputStream(in, 64 * 1024), StandardCharsets.UTF_8));
+        List<String> lines = new ArrayList<>(chunkSize);
+        for (String line = reader.readLine(); line != null; line = reader.readLine()) {
+            if (!line.isBlank()) {
+                lines.add(line);
+            }
+            if (lines.size() == chunkSize) {
+                List<String> chunk = lines;
+                restore(window, totals, () -> restoreAll(parseLines(chunk)));
+                lines = new ArrayList<>(chunkSize);
+            }
+        }
+        if (!lines.isEmpty()) {
+            List<String> chunk = lines;
+            restore(window, totals, () -> restoreAll(parseLines(chunk)));
+        }
+    }
+
+    private void readColumnar(InputStream in, Deque<Future<Restored>> window, int[] totals) throws IOException {
+        DataInputStream data = new DataInputStream(new BufferedInputStream(in, 256 * 1024));
+        byte[] magic = new byte[COLUMNAR_MAGIC.length];
+        try {
+            data.readFully(magic);
+            if (!Arrays.equals(magic, COLUMNAR_MAGIC)) {
+                throw new IllegalArgumentException("Not a columnar backup file.");
+            }
+            for (int length = data.readInt(); length > 0; length = data.readInt()) {
+                byte[] rowGroup = new byte[length];
+                data.readFully(rowGroup);
+                restore(window, totals, () -> restoreAll(ColumnarCodec.decode(rowGroup)));
+            }
+        } catch (EOFException e) {
+            throw new IllegalArgumentException("Truncated columnar backup file.");
+        }
+    }
+
+    private Callable<byte[]> encoder(List<Map.Entry<String, Receipt>> chunk, Format format) {
+        return format == Format.COLUMNAR ? () -> ColumnarCodec.encode(chunk) : () -> encodeNdjson(chunk);
+    }
+
+    /**
+     * Submits an encode task, first writing out the oldest one if the window is full.
+     */
+    private void submit(Deque<Future<byte[]>> window, Callable<byte[]> task, DataOutputStream out, Format format)
+            throws IOException {
+        if (window.size() >= parallelism) {
+            write(window.poll(), out, format);
+        }
+        window.add(workers.submit(task));
+    }
+
+    private void write(Future<byte[]> chunk, DataOutputStream out, Format format) throws IOException {
+        byte[] bytes = await(chunk);
+        if (format == Format.COLUMNAR) {
+            out.writeInt(bytes.length);
+        }
+        out.write(bytes);
+    }
+
+    /**
+     * Submits a restore task, first waiting for the oldest one if the window is full.
+     */
+    private void restore(Deque<Future<Restored>> window, int[] totals, Callable<Restored> task) {
+        if (window.size() >= parallelism) {
+            add(totals, await(window.poll()));
+        }
+        window.add(workers.submit(task));
+    }
+
+    private byte[] encodeNdjson(List<Map.Entry<String, Receipt>> chunk) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(chunk.size() * 128);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(bytes, 64 * 1024);
+             JsonGenerator generator = objectMapper.getFactory().createGenerator(gzip)) {
+            generator.setPrettyPrinter(new MinimalPrettyPrinter("")); // Lines are separated explicitly, also across chunks
+            for (Map.Entry<String, Receipt> entry : chunk) {
+                generator.writeStartObject();
+                generator.writeStringField("id", entry.getKey());
+                generator.writeFieldName("receipt");
+                generator.writeObject(entry.getValue());
+                generator.writeEndObject();
+                generator.writeRaw('\n');
+            }
+        }
+        return bytes.toByteArray();
+    }
+
+    private List<Map.Entry<String, Receipt>> parseLines(List<String> lines) {
+        List<Map.Entry<String, Receipt>> entries = new ArrayList<>(lines.size());
+        for (String line : lines) {
+            try (JsonParser parser = objectMapper.getFactory().createParser(line)) {
+                if (parser.nextToken() != JsonToken.START_OBJECT) {
+                    throw new IllegalArgumentException("Invalid backup line: expected an object.");
+                }
+                String id = null;
+                Receipt receipt = null;
+                for (String field = parser.nextFieldName(); field != null; field = parser.nextFieldName()) {
+                    parser.nextToken();
+                    switch (field) {
+                        case "id" -> id = parser.getValueAsString();
+                        case "receipt" -> receipt = parser.readValueAs(Receipt.class);
+                        default -> parser.skipChildren();
+                    }
+                }
+                if (id == null || receipt == null) {
+                    throw new IllegalArgumentException("Invalid backup line: missing id or receipt.");
+                }
+                entries.add(Map.entry(id, receipt));
+            } catch (IOException e) {
+                throw new IllegalArgumentException("Invalid backup line: " + e.getMessage());
+            }
+        }
+        return entries;
+    }
+
+    private Restored restoreAll(List<Map.Entry<String, Receipt>> entries) {
+        int restored = 0;
+        int skipped = 0;
+        int rejected = 0;
+        for (Map.Entry<String, Receipt> entry : entries) {
+            Receipt receipt = entry.getValue();
+            try {
+                receipt.validatePrices();
+                receipt.validatePurchaseDate();
+            } catch (IllegalArgumentException e) {
+                validationMetrics.recordFailure(e);
+                rejected++;
+                continue;
+            }
+            if (receiptRepository.restoreReceipt(entry.getKey(), receipt)) {
+                restored++;
+            } else {
+                skipped++;
+            }
+        }
+        return new Restored(restored, skipped, rejected);
+    }
+
+    private static void add(int[] totals, Restored restored) {
+        totals[0] += restored.restored();
+        totals[1] += restored.skipped();
+        totals[2] += restored.rejected();
+    }
+
+    private static <T> T await(Future<T> future) {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for a backup chunk", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException io) {
+                throw new UncheckedIOException(io);
+            }
+            if (e.getCause() instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    /**
+     * Resolves a file name inside the backup directory.
+     *
+     * @throws IllegalArgumentException if the name is empty or points outside the directory.
+     */
+    private Path resolve(String fileName) {
+        if (fileName == null || fileName.isBlank()) {
+            throw new IllegalArgumentException("Missing backup file name.");
+        }
+        Path path = directory.resolve(fileName).normalize();
+        if (!directory.equals(path.getParent())) {
+            throw new IllegalArgumentException("Invalid backup file name: " + fileName + ". Use a plain file name.");
+        }
+        return path;
+    }
+
+    private static Map<String, Object> summary(Path file, Format format, int receipts, long bytes, long startNanos) {
+        long nanos = Math.max(1, System.nanoTime() - startNanos);
+        double seconds = nanos / 1e9;
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("file", file.getFileName().toString());
+        result.put("format", format.name().toLowerCase(Locale.ROOT));
+        result.put("receipts", receipts);
+        result.put("bytes", bytes);
+        result.put("millis", nanos / 1_000_000);
+        result.put("receiptsPerSecond", Math.round(receipts / seconds));
+        result.put("megabytesPerSecond", Math.round(bytes / seconds / 1e6 * 100) / 100.0);
+        return result;
+    }
+}
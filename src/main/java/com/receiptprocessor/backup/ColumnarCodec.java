@@ -0,0 +1,231 @@
+package com.receiptprocessor.backup;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Function;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import com.receiptprocessor.model.Item;
+import com.receiptprocessor.model.Receipt;
+
+/**
+ * Encodes a chunk of receipts as one columnar row group, in the spirit of a Parquet row group.
+ * - Every field is stored as its own column, so similar values sit together and compress well.
+ * - IDs are stored as 16 raw bytes when every ID of the chunk is a UUID, as strings otherwise.
+ * - The other columns are dictionary-encoded: the distinct values of the chunk, then one varint index per row.
+ *   Retailers, dates, times, prices and tags repeat a lot, so most rows cost a byte or two.
+ * - Items and tags are flattened into their own columns, with a per-receipt count column (-1 for null).
+ * - The row group is gzip-compressed as a whole, so row groups can be encoded and decoded independently.
+ */
+final class ColumnarCodec {
+
+    private ColumnarCodec() {
+    }
+
+    static byte[] encode(List<Map.Entry<String, Receipt>> entries) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(entries.size() * 64);
+        try (DataOutputStream out = new DataOutputStream(new GZIPOutputStream(bytes, 64 * 1024))) {
+            List<Receipt> receipts = entries.stream().map(Map.Entry::getValue).toList();
+            out.writeInt(entries.size());
+            writeIds(out, entries);
+            writeColumn(out, receipts, Receipt::getRetailer);
+            writeColumn(out, receipts, Receipt::getPurchaseDate);
+            writeColumn(out, receipts, Receipt::getPurchaseTime);
+            writeColumn(out, receipts, Receipt::getTotal);
+            writeColumn(out, receipts, Receipt::getAccountId);
+
+            List<Item> items = new ArrayList<>();
+            List<String> tags = new ArrayList<>();
+            for (Receipt receipt : receipts) {
+                writeVarint(out, receipt.getItems() == null ? -1 : receipt.getItems().size());
+                if (receipt.getItems() != null) {
+                    items.addAll(receipt.getItems());
+                }
+                writeVarint(out, receipt.getTags().size());
+                tags.addAll(receipt.getTags());
+            }
+            writeColumn(out, items, Item::getShortDescription);
+            writeColumn(out, items, Item::getPrice);
+            writeColumn(out, tags, Function.identity());
+        }
+        return bytes.toByteArray();
+    }
+
+    static List<Map.Entry<String, Receipt>> decode(byte[] rowGroup) throws IOException {
+        try (DataInputStream in = new DataInputStream(new GZIPInputStream(new ByteArrayInputStream(rowGroup), 64 * 1024))) {
+            int count = in.readInt();
+            String[] ids = readIds(in, count);
+            String[] retailers = readColumn(in, count);
+            String[] dates = readColumn(in, count);
+            String[] times = readColumn(in, count);
+            String[] totals = readColumn(in, count);
+            String[] accounts = readColumn(in, count);
+
+            int[] itemCounts = new int[count];
+            int[] tagCounts = new int[count];
+            int itemTotal = 0;
+            int tagTotal = 0;
+            for (int i = 0; i < count; i++) {
+                itemCounts[i] = readVarint(in);
+                tagCounts[i] = readVarint(in);
+                itemTotal += Math.max(0, itemCounts[i]);
+                tagTotal += tagCounts[i];
+            }
+            String[] descriptions = readColumn(in, itemTotal);
+            String[] prices = readColumn(in, itemTotal);
+            String[] tags = readColumn(in, tagTotal);
+
+            List<Map.Entry<String, Receipt>> entries = new ArrayList<>(count);
+            int item = 0;
+            int tag = 0;
+            for (int i = 0; i < count; i++) {
+                List<Item> receiptItems = null;
+                if (itemCounts[i] >= 0) {
+                    receiptItems = new ArrayList<>(itemCounts[i]);
+                    for (int j = 0; j < itemCounts[i]; j++, item++) {
+                        receiptItems.add(new Item(descriptions[item], prices[item]));
+                    }
+                }
+                List<String> receiptTags = new ArrayList<>(tagCounts[i]);
+                for (int j = 0; j < tagCounts[i]; j++, tag++) {
+                    receiptTags.add(tags[tag]);
+                }
+                Receipt receipt = new Receipt(receiptItems, receiptTags);
+                receipt.setRetailer(retailers[i]);
+                receipt.setPurchaseDate(dates[i]);
+                receipt.setPurchaseTime(times[i]);
+                receipt.setTotal(totals[i]);
+                receipt.setAccountId(accounts[i]);
+                entries.add(Map.entry(ids[i], receipt));
+            }
+            return entries;
+        }
+    }
+
+    private static <T> void writeColumn(DataOutputStream out, List<T> rows, Function<T, String> field) throws IOException {
+        Map<String, Integer> dictionary = new HashMap<>();
+        List<String> values = new ArrayList<>();
+        int[] indexes = new int[rows.size()];
+        for (int i = 0; i < rows.size(); i++) {
+            String value = field.apply(rows.get(i));
+            if (value == null) {
+                indexes[i] = -1;
+                continue;
+            }
+            Integer index = dictionary.get(value);
+            if (index == null) {
+                index = values.size();
+                dictionary.put(value, index);
+                values.add(value);
+            }
+            indexes[i] = index;
+        }
+        writeVarint(out, values.size());
+        for (String value : values) {
+            writeString(out, value);
+        }
+        for (int index : indexes) {
+            writeVarint(out, index);
+        }
+    }
+
+    private static String[] readColumn(DataInputStream in, int rows) throws IOException {
+        String[] dictionary = new String[readVarint(in)];
+        for (int i = 0; i < dictionary.length; i++) {
+            dictionary[i] = readString(in);
+        }
+        String[] values = new String[rows];
+        for (int i = 0; i < rows; i++) {
+            int index = readVarint(in);
+            values[i] = index < 0 ? null : dictionary[index];
+        }
+        return values;
+    }
+
+    private static void writeIds(DataOutputStream out, List<Map.Entry<String, Receipt>> entries) throws IOException {
+        List<UUID> uuids = new ArrayList<>(entries.size());
+        for (Map.Entry<String, Receipt> entry : entries) {
+            UUID uuid = parseUuid(entry.getKey());
+            if (uuid == null) {
+                out.writeBoolean(false);
+                for (Map.Entry<String, Receipt> plain : entries) {
+                    writeString(out, plain.getKey());
+                }
+                return;
+            }
+            uuids.add(uuid);
+        }
+        out.writeBoolean(true);
+        for (UUID uuid : uuids) {
+            out.writeLong(uuid.getMostSignificantBits());
+            out.writeLong(uuid.getLeastSignificantBits());
+        }
+    }
+
+    private static String[] readIds(DataInputStream in, int count) throws IOException {
+        boolean uuids = in.readBoolean();
+        String[] ids = new String[count];
+        for (int i = 0; i < count; i++) {
+            ids[i] = uuids ? new UUID(in.readLong(), in.readLong()).toString() : readString(in);
+        }
+        return ids;
+    }
+
+    /**
+     * Parses a UUID in its canonical lower-case form, so that it is written back unchanged.
+     */
+    private static UUID parseUuid(String id) {
+        try {
+            UUID uuid = UUID.fromString(id);
+            return uuid.toString().equals(id) ? uuid : null;
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        writeVarint(out, bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        byte[] bytes = new byte[readVarint(in)];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Writes an int of at least -1 as an unsigned LEB128 varint of {@code value + 1}.
+     */
+    private static void writeVarint(DataOutputStream out, int value) throws IOException {
+        long v = value + 1L;
+        while (v >= 0x80) {
+            out.writeByte((int) (v & 0x7F) | 0x80);
+            v >>>= 7;
+        }
+        out.writeByte((int) v);
+    }
+
+    private static int readVarint(DataInputStream in) throws IOException {
+        long value = 0;
+        for (int shift = 0; shift < 35; shift += 7) {
+            int b = in.readUnsignedByte();
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return (int) (value - 1);
+            }
+        }
+        throw new IOException("Malformed varint");
+    }
+}
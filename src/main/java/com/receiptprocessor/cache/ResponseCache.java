@@ -0,0 +1,142 @@
+package com.receiptprocessor.cache;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.stereotype.Component;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.receiptprocessor.format.WireFormat;
+import com.receiptprocessor.timing.RequestTimings;
+
+@Component
+public class ResponseCache {
+
+    private final Map<WireFormat, ObjectMapper> mappers = new EnumMap<>(WireFormat.class);
+    private final int maxEntries;
+    private final ConcurrentHashMap<String, Entry> entries = new ConcurrentHashMap<>();
+    private final AtomicLong clock = new AtomicLong();
+
+    /**
+     * A serialized response body together with the store version it was computed at.
+     *
+     * @param version The store version the body reflects.
+     * @param etag    The strong entity tag for the body.
+     * @param format  The wire format of the body.
+     * @param body    The serialized body.
+     */
+    public record CachedResponse(long version, String etag, WireFormat format, byte[] body) {
+    }
+
+    /**
+     * A cached response with the tick of its last use, for least-recently-used eviction.
+     */
+    private static final class Entry {
+        private final CachedResponse response;
+        private volatile long lastUsed;
+
+        private Entry(CachedResponse response, long lastUsed) {
+            this.response = response;
+            this.lastUsed = lastUsed;
+        }
+    }
+
+    public ResponseCache(Jackson2ObjectMapperBuilder objectMapperBuilder, @Value("${receipts.cache.max-entries:256}") int maxEntries) {
+        for (WireFormat format : WireFormat.values()) {
+            mappers.put(format, format.createMapper(objectMapperBuilder));
+        }
+        this.maxEntries = maxEntries;
+    }
+
+    /**
+     * Builds the strong entity tag for a response key at a given store version.
+     * The tag only depends on the key, the format and the version, so conditional requests can be answered
+     * without computing or serializing the body.
+     *
+     * @param key     The response key, e.g. "sort:total".
+     * @param format  The wire format of the response.
+     * @param version The store version.
+     * @return The quoted entity tag.
+     */
+    public String etag(String key, WireFormat format, long version) {
+        return "\"" + Long.toHexString(version) + "-" + Integer.toHexString(cacheKey(key, format).hashCode()) + "\"";
+    }
+
+    /**
+     * Returns the serialized response for a key, computing and caching it if the cached
+     * entry is missing or was computed at an older store version.
+     *
+     * @param key     The response key, e.g. "sort:total".
+     * @param format  The wire format to serialize to.
+     * @param version The store version read before computing the body.
+     * @param body    Supplies the response body when it has to be recomputed.
+     * @return The cached or freshly serialized response.
+     */
+    public CachedResponse get(String key, WireFormat format, long version, Supplier<Object> body) {
+        String cacheKey = cacheKey(key, format);
+        Entry cached = entries.get(cacheKey);
+        if (cached != null && cached.response.version() == version) {
+            cached.lastUsed = clock.incrementAndGet();
+            return cached.response;
+        }
+
+        CachedResponse response = encode(key, format, version, body);
+        if (entries.size() >= maxEntries && !entries.containsKey(cacheKey)) {
+            evict(version);
+        }
+        entries.merge(cacheKey, new Entry(response, clock.incrementAndGet()),
+                (current, fresh) -> fresh.response.version() >= current.response.version() ? fresh : current);
+        return response;
+    }
+
+    /**
+     * Serializes a response without caching it, for bodies that are cheap to compute but too many to cache,
+     * such as single-receipt lookups. The ETag is the same as for a cached response.
+     *
+     * @param key     The response key, e.g. "points:&lt;id&gt;".
+     * @param format  The wire format to serialize to.
+     * @param version The store version read before computing the body.
+     * @param body    Supplies the response body.
+     * @return The serialized response.
+     */
+    public CachedResponse encode(String key, WireFormat format, long version, Supplier<Object> body) {
+        Object value = body.get();
+        try (RequestTimings.Stage stage = RequestTimings.stage("serialize")) {
+            return new CachedResponse(version, etag(key, format, version), format, mappers.get(format).writeValueAsBytes(value));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to serialize response for " + key, e);
+        }
+    }
+
+    private String cacheKey(String key, WireFormat format) {
+        return format == WireFormat.JSON ? key : key + "|" + format.name();
+    }
+
+    /**
+     * Drops entries computed before the given version; if that does not free any space, drops the least
+     * recently used entries, so a burst of one-off keys cannot flush the frequently read ones.
+     *
+     * @param version The current store version.
+     */
+    private void evict(long version) {
+        entries.values().removeIf(entry -> entry.response.version() < version);
+        while (entries.size() >= maxEntries) {
+            Map.Entry<String, Entry> oldest = null;
+            for (Map.Entry<String, Entry> entry : entries.entrySet()) {
+                if (oldest == null || entry.getValue().lastUsed < oldest.getValue().lastUsed) {
+                    oldest = entry;
+                }
+            }
+            if (oldest == null) {
+                return;
+            }
+            entries.remove(oldest.getKey(), oldest.getValue());
+        }
+    }
+}
@@ -0,0 +1,323 @@
+package com.receiptprocessor.changefeed;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.receiptprocessor.event.ReceiptChangedEvent;
+import com.receiptprocessor.exception.ChangeOffsetExpiredException;
+import com.receiptprocessor.model.Receipt;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Change data capture: an append-only log of every write to the store, read by offset for incremental sync.
+ * - Each {@link ReceiptChangedEvent} gets the next offset (starting at 1) and is kept in a fixed-size ring, so the
+ *   writer only pays for a copy of the receipt's fields and one slot assignment.
+ * - Consumers read batches from an offset and resume from the batch's {@code nextOffset}. A poll with a wait is
+ *   parked until a change arrives or the wait elapses; parked polls are completed off the writing thread.
+ * - With a spill file, changes are also written to disk in the background, so consumers that fall further behind
+ *   than the ring can still catch up. Offsets older than the ring and the spill file get a
+ *   {@link ChangeOffsetExpiredException}, as do offsets from before a restart; each run has its own feed ID.
+ */
+@Service
+public class ChangeFeedService {
+
+    private static final Logger log = LoggerFactory.getLogger(ChangeFeedService.class);
+
+    /** Most changes returned in one batch. */
+    public static final int MAX_BATCH = 1000;
+
+    /**
+     * One write to the store.
+     *
+     * @param offset    Position in the feed.
+     * @param type      The kind of change.
+     * @param id        The receipt ID.
+     * @param timestamp When the change was recorded, in epoch milliseconds.
+     * @param receipt   The receipt after the change, or null for removals.
+     */
+    public record Change(long offset, ReceiptChangedEvent.Type type, String id, long timestamp, Receipt receipt) {
+
+        public Map<String, Object> toMap() {
+            Map<String, Object> map = new LinkedHashMap<>();
+            map.put("offset", offset);
+            map.put("type", type.name());
+            map.put("id", id);
+            map.put("timestamp", timestamp);
+            if (receipt != null) {
+                map.put("receipt", receipt);
+            }
+            return map;
+        }
+    }
+
+    /**
+     * A batch of consecutive changes.
+     *
+     * @param feedId       Identifies this run of the feed; offsets are only meaningful within one feed ID.
+     * @param changes      The changes, oldest first.
+     * @param nextOffset   The offset to read from next.
+     * @param latestOffset The offset of the most recent change, 0 if there is none yet.
+     */
+    public record Batch(String feedId, List<Change> changes, long nextOffset, long latestOffset) {
+
+        public Map<String, Object> toMap() {
+            Map<String, Object> map = new LinkedHashMap<>();
+            map.put("feedId", feedId);
+            map.put("changes", changes.stream().map(Change::toMap).toList());
+            map.put("nextOffset", nextOffset);
+            map.put("latestOffset", latestOffset);
+            return map;
+        }
+    }
+
+    private record Waiter(long from, int limit, CompletableFuture<Batch> future) {
+    }
+
+    private final String feedId = UUID.randomUUID().toString();
+    private final Change[] ring;
+    private final int mask;
+    private final Object lock = new Object();
+    private long nextOffset = 1; // Guarded by lock
+    private final long maxWaitMs;
+    private final Queue<Waiter> waiters = new ConcurrentLinkedQueue<>();
+    private final AtomicBoolean waking = new AtomicBoolean();
+    private final ExecutorService notifier = Executors.newSingleThreadExecutor();
+    private final SpillLog spill;
+    private volatile long spilledThrough;
+    private final Counter spillResets;
+    private Clock clock = Clock.systemUTC();
+
+    /**
+     * @param objectMapper  Mapper for the spill file.
+     * @param meterRegistry Registry for the feed metrics.
+     * @param capacity      Number of changes kept in memory, rounded up to a power of two.
+     * @param spillFile     File changes are spilled to; blank disables spilling.
+     * @param spillMaxBytes Upper bound on the spill file's size on disk.
+     * @param maxWaitMs     Longest a poll may wait for changes.
+     */
+    public ChangeFeedService(ObjectMapper objectMapper, MeterRegistry meterRegistry,
+                             @Value("${receipts.changes.capacity:65536}") int capacity,
+                             @Value("${receipts.changes.spill-file:}") String spillFile,
+                             @Value("${receipts.changes.spill-max-bytes:268435456}") long spillMaxBytes,
+                             @Value("${receipts.changes.max-wait-ms:20000}") long maxWaitMs) throws IOException {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("receipts.changes.capacity must be positive: " + capacity);
+        }
+        this.ring = new Change[capacity == 1 ? 1 : Integer.highestOneBit(capacity - 1) << 1];
+        this.mask = ring.length - 1;
+        this.maxWaitMs = maxWaitMs;
+        this.spill = spillFile == null || spillFile.isBlank() ? null : new SpillLog(Path.of(spillFile), spillMaxBytes, objectMapper);
+
+        this.spillResets = meterRegistry.counter("receipts.changes.spill.resets");
+        meterRegistry.gauge("receipts.changes.offset", this, ChangeFeedService::getLatestOffset);
+        meterRegistry.gauge("receipts.changes.waiting", waiters, Queue::size);
+    }
+
+    /**
+     * Appends a store change to the feed. Runs on the writing thread, so it only copies and assigns a slot.
+     *
+     * @param event The store change.
+     */
+    @EventListener
+    public void onReceiptChanged(ReceiptChangedEvent event) {
+        Receipt receipt = event.type() == ReceiptChangedEvent.Type.REMOVED ? null : event.receipt().copy();
+        long timestamp = clock.millis();
+        synchronized (lock) {
+            long offset = nextOffset++;
+            ring[(int) (offset & mask)] = new Change(offset, event.type(), event.id(), timestamp, receipt);
+        }
+        wake();
+    }
+
+    /**
+     * Reads the changes from an offset on, without waiting.
+     *
+     * @param from  The first offset to read, typically the previous batch's {@code nextOffset}; 0 starts at the
+     *              oldest change still held.
+     * @param limit The most changes to return.
+     * @return The batch, empty if there are no changes from that offset yet.
+     * @throws IllegalArgumentException     if the offset is negative or the limit is not between 1 and {@link #MAX_BATCH}.
+     * @throws ChangeOffsetExpiredException if the offset is no longer held or was never issued by this feed.
+     */
+    public Batch read(long from, int limit) {
+        if (from < 0) {
+            throw new IllegalArgumentException("Invalid offset: " + from + ". Offsets start at 1, or use 0 for the oldest change.");
+        }
+        if (limit < 1 || limit > MAX_BATCH) {
+            throw new IllegalArgumentException("Invalid limit: " + limit + ". Use 1 to " + MAX_BATCH + ".");
+        }
+        long spillFirst = spill == null ? 0 : spill.firstOffset();
+        long start;
+        long latest;
+        synchronized (lock) {
+            latest = nextOffset - 1;
+            long ringFirst = Math.max(1, nextOffset - ring.length);
+            long oldest = spillFirst > 0 ? Math.min(spillFirst, ringFirst) : ringFirst;
+            start = from == 0 ? oldest : from;
+            if (start > nextOffset || start < oldest) {
+                throw expired(from, oldest, latest);
+            }
+            if (start >= ringFirst) {
+                int count = (int) Math.min(limit, nextOffset - start);
+                List<Change> changes = new ArrayList<>(count);
+                for (long offset = start; offset < start + count; offset++) {
+                    changes.add(ring[(int) (offset & mask)]);
+                }
+                return new Batch(feedId, changes, start + count, latest);
+            }
+        }
+
+        List<Change> changes;
+        try {
+            changes = spill.read(start, limit);
+        } catch (IOException e) {
+            log.warn("Could not read changes from {} in the spill file", start, e);
+            changes = List.of();
+        }
+        if (changes.isEmpty()) {
+            throw expired(from, spill.firstOffset(), latest); // Rolled away or lost since the check above
+        }
+        return new Batch(feedId, changes, changes.get(changes.size() - 1).offset() + 1, latest);
+    }
+
+    /**
+     * Reads the changes from an offset on, waiting up to {@code waitMs} for the first one if there are none yet.
+     *
+     * @param from   The first offset to read; see {@link #read}.
+     * @param limit  The most changes to return.
+     * @param waitMs How long to wait for changes; 0 returns right away.
+     * @return The batch, completed as soon as there are changes or with an empty batch after the wait.
+     * @throws IllegalArgumentException     if an argument is out of range.
+     * @throws ChangeOffsetExpiredException if the offset is no longer held or was never issued by this feed.
+     */
+    public CompletableFuture<Batch> poll(long from, int limit, long waitMs) {
+        if (waitMs < 0 || waitMs > maxWaitMs) {
+            throw new IllegalArgumentException("Invalid waitMs: " + waitMs + ". Use 0 to " + maxWaitMs + ".");
+        }
+        Batch batch = read(from, limit);
+        if (!batch.changes().isEmpty() || waitMs == 0) {
+            return CompletableFuture.completedFuture(batch);
+        }
+        Waiter waiter = new Waiter(batch.nextOffset(), limit, new CompletableFuture<>());
+        waiters.add(waiter);
+        waiter.future().completeOnTimeout(batch, waitMs, TimeUnit.MILLISECONDS)
+                .whenComplete((result, error) -> waiters.remove(waiter));
+        wake(); // A change may have arrived between the read and the registration
+        return waiter.future();
+    }
+
+    /**
+     * Returns the offset of the most recent change.
+     *
+     * @return The offset, 0 if nothing has changed yet.
+     */
+    public long getLatestOffset() {
+        synchronized (lock) {
+            return nextOffset - 1;
+        }
+    }
+
+    public String getFeedId() {
+        return feedId;
+    }
+
+    /**
+     * Writes the changes recorded since the last run to the spill file.
+     * If the ring overtook the spill file in between, the spill file starts over from the oldest change in the ring,
+     * so it never has holes.
+     */
+    @Scheduled(fixedDelayString = "${receipts.changes.spill-interval-ms:200}")
+    public void spill() {
+        if (spill == null) {
+            return;
+        }
+        List<Change> pending;
+        boolean lost;
+        synchronized (lock) {
+            long ringFirst = Math.max(1, nextOffset - ring.length);
+            long start = Math.max(spilledThrough + 1, ringFirst);
+            lost = start > spilledThrough + 1;
+            pending = new ArrayList<>((int) (nextOffset - start));
+            for (long offset = start; offset < nextOffset; offset++) {
+                pending.add(ring[(int) (offset & mask)]);
+            }
+        }
+        if (pending.isEmpty()) {
+            return;
+        }
+        try {
+            if (lost) {
+                log.warn("Change feed spill fell behind; restarting the spill file at offset {}", pending.get(0).offset());
+                spillResets.increment();
+                spill.reset();
+            }
+            spill.append(pending);
+        } catch (IOException e) {
+            log.warn("Could not spill changes {} to {}; restarting the spill file", pending.get(0).offset(),
+                    pending.get(pending.size() - 1).offset(), e);
+            spillResets.increment();
+            spill.reset();
+        }
+        spilledThrough = pending.get(pending.size() - 1).offset();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        notifier.shutdownNow();
+        if (spill != null) {
+            spill.reset();
+        }
+    }
+
+    private void wake() {
+        if (!waiters.isEmpty() && waking.compareAndSet(false, true)) {
+            notifier.execute(this::completeWaiters);
+        }
+    }
+
+    private void completeWaiters() {
+        waking.set(false); // Changes appended from here on schedule another run
+        for (Waiter waiter : waiters) {
+            if (waiter.future().isDone()) {
+                continue;
+            }
+            try {
+                Batch batch = read(waiter.from(), waiter.limit());
+                if (!batch.changes().isEmpty()) {
+                    waiter.future().complete(batch);
+                }
+            } catch (RuntimeException e) {
+                waiter.future().completeExceptionally(e);
+            }
+        }
+    }
+
+    private ChangeOffsetExpiredException expired(long from, long oldest, long latest) {
+        return new ChangeOffsetExpiredException("Offset " + from + " is not in change feed " + feedId + ", which holds offsets "
+                + oldest + " to " + latest + ". Resynchronize from a full export and resume from offset " + (latest + 1) + ".");
+    }
+}
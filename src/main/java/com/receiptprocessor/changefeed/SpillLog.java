@@ -0,0 +1,171 @@
+package com.receiptprocessor.changefeed;
+
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.receiptprocessor.changefeed.ChangeFeedService.Change;
+import com.receiptprocessor.event.ReceiptChangedEvent;
+import com.receiptprocessor.model.Receipt;
+
+/**
+ * The on-disk part of the change feed: consecutive changes as NDJSON, one change per line.
+ * - Changes go to two segment files in turn. Once the active segment reaches half the size bound, the older one is
+ *   deleted and writing continues in its place, so the newest changes are always kept and disk use stays bounded.
+ * - The byte position of every {@value #INDEX_INTERVAL}th change is kept in memory, so a read seeks close to its
+ *   offset and scans at most that many lines.
+ * Segments from an earlier run are deleted on startup; their offsets do not belong to this feed.
+ */
+final class SpillLog {
+
+    private static final Logger log = LoggerFactory.getLogger(SpillLog.class);
+
+    static final int INDEX_INTERVAL = 128;
+
+    private static final class Segment {
+        private final Path path;
+        private final long firstOffset;
+        private final OutputStream out;
+        private final List<Long> positions = new ArrayList<>();
+        private long lastOffset;
+        private long size;
+
+        private Segment(Path path, long firstOffset) throws IOException {
+            this.path = path;
+            this.firstOffset = firstOffset;
+            this.lastOffset = firstOffset - 1;
+            this.out = new BufferedOutputStream(Files.newOutputStream(path), 64 * 1024);
+        }
+    }
+
+    private final Path[] paths;
+    private final long segmentBytes;
+    private final ObjectMapper objectMapper;
+    private Segment previous;
+    private Segment active;
+
+    SpillLog(Path path, long maxBytes, ObjectMapper objectMapper) throws IOException {
+        this.paths = new Path[] {path, path.resolveSibling(path.getFileName() + ".1")};
+        this.segmentBytes = Math.max(1, maxBytes / 2);
+        this.objectMapper = objectMapper;
+        if (path.toAbsolutePath().getParent() != null) {
+            Files.createDirectories(path.toAbsolutePath().getParent());
+        }
+        for (Path segment : paths) {
+            Files.deleteIfExists(segment);
+        }
+    }
+
+    /**
+     * Appends consecutive changes, continuing from the last one written.
+     */
+    synchronized void append(List<Change> changes) throws IOException {
+        for (Change change : changes) {
+            if (active == null || active.size >= segmentBytes) {
+                roll(change.offset());
+            }
+            if ((change.offset() - active.firstOffset) % INDEX_INTERVAL == 0) {
+                active.positions.add(active.size);
+            }
+            byte[] line = objectMapper.writeValueAsBytes(change.toMap());
+            active.out.write(line);
+            active.out.write('\n');
+            active.size += line.length + 1;
+            active.lastOffset = change.offset();
+        }
+        if (active != null) {
+            active.out.flush();
+        }
+    }
+
+    /**
+     * Returns up to {@code limit} changes from an offset on, all from the same segment.
+     *
+     * @return The changes, empty if the offset is not on disk.
+     */
+    synchronized List<Change> read(long from, int limit) throws IOException {
+        Segment segment = previous != null && from <= previous.lastOffset ? previous : active;
+        if (segment == null || from < segment.firstOffset || from > segment.lastOffset) {
+            return List.of();
+        }
+        int block = (int) ((from - segment.firstOffset) / INDEX_INTERVAL);
+        long offset = segment.firstOffset + (long) block * INDEX_INTERVAL;
+        List<Change> changes = new ArrayList<>(limit);
+        try (InputStream in = Files.newInputStream(segment.path)) {
+            in.skipNBytes(segment.positions.get(block));
+            BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+            for (String line; changes.size() < limit && offset <= segment.lastOffset && (line = reader.readLine()) != null; offset++) {
+                if (offset >= from) {
+                    changes.add(parse(line));
+                }
+            }
+        }
+        return changes;
+    }
+
+    /**
+     * Returns the oldest offset on disk.
+     *
+     * @return The offset, 0 if nothing has been spilled.
+     */
+    synchronized long firstOffset() {
+        Segment oldest = previous != null ? previous : active;
+        return oldest == null || oldest.lastOffset < oldest.firstOffset ? 0 : oldest.firstOffset;
+    }
+
+    /**
+     * Deletes both segments; the next append starts a new file.
+     */
+    synchronized void reset() {
+        close(previous);
+        close(active);
+        previous = null;
+        active = null;
+    }
+
+    private void roll(long firstOffset) throws IOException {
+        Path path = paths[0];
+        if (active != null) {
+            close(previous);
+            path = previous == null ? paths[1] : previous.path;
+            active.out.flush();
+            previous = active;
+        }
+        active = new Segment(path, firstOffset);
+    }
+
+    private void close(Segment segment) {
+        if (segment == null) {
+            return;
+        }
+        try {
+            segment.out.close();
+            Files.deleteIfExists(segment.path);
+        } catch (IOException e) {
+            log.warn("Could not delete change feed segment {}", segment.path, e);
+        }
+    }
+
+    private Change parse(String line) throws IOException {
+        JsonNode node = objectMapper.readTree(line);
+        JsonNode receipt = node.get("receipt");
+        return new Change(node.get("offset").asLong(),
+                ReceiptChangedEvent.Type.valueOf(node.get("type").asText()),
+                node.get("id").asText(),
+                node.get("timestamp").asLong(),
+                receipt == null ? null : objectMapper.treeToValue(receipt, Receipt.class));
+    }
+}
@@ -0,0 +1,112 @@
+package com.receiptprocessor.cotroller;
+
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.receiptprocessor.backup.BackupService;
+import com.receiptprocessor.tenant.TenantPartition;
+import com.receiptprocessor.tenant.TenantRegistry;
+import com.receiptprocessor.timing.SlowRequestLog;
+
+@RestController
+@RequestMapping("/admin")
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+public class AdminController {
+
+    private final SlowRequestLog slowRequestLog;
+    private final BackupService backupService;
+    private final TenantRegistry tenantRegistry;
+
+    /**
+     * Constructor-based dependency injection.
+     *
+     * @param slowRequestLog Ring of recent slow requests with their stage breakdown.
+     * @param backupService  Streaming export and import of the whole store.
+     * @param tenantRegistry Tenant partitions with their quotas.
+     */
+    public AdminController(SlowRequestLog slowRequestLog, BackupService backupService, TenantRegistry tenantRegistry) {
+        this.slowRequestLog = slowRequestLog;
+        this.backupService = backupService;
+        this.tenantRegistry = tenantRegistry;
+    }
+
+    /**
+     * Lists the most recent requests that exceeded the slow-request threshold, newest first.
+     *
+     * @return The captured slow requests with per-stage timings.
+     */
+    @GetMapping("/slow-requests")
+    public ResponseEntity<List<SlowRequestLog.SlowRequest>> getSlowRequests() {
+        return ResponseEntity.ok(slowRequestLog.getSlowRequests());
+    }
+
+    /**
+     * Writes every stored receipt to a file in the backup directory.
+     *
+     * @param file   The file name, e.g. "receipts-2025-01-01.ndjson.gz".
+     * @param format "ndjson" (gzip-compressed NDJSON, the default) or "columnar".
+     * @return The number of receipts and bytes written and the throughput, or a 400 for an invalid name or format.
+     */
+    @PostMapping("/export")
+    public ResponseEntity<Map<String, Object>> exportReceipts(@RequestParam String file,
+                                                              @RequestParam(defaultValue = "ndjson") String format) {
+        return ResponseEntity.ok(backupService.exportTo(file, BackupService.Format.of(format)));
+    }
+
+    /**
+     * Loads receipts from a file in the backup directory. Receipts whose IDs are already stored are skipped.
+     *
+     * @param file   The file name.
+     * @param format "ndjson" (the default) or "columnar".
+     * @return The number of receipts restored, skipped and rejected and the throughput, or a 400 if the file is
+     *         missing or malformed.
+     */
+    @PostMapping("/import")
+    public ResponseEntity<Map<String, Object>> importReceipts(@RequestParam String file,
+                                                              @RequestParam(defaultValue = "ndjson") String format) {
+        return ResponseEntity.ok(backupService.importFrom(file, BackupService.Format.of(format)));
+    }
+
+    /**
+     * Lists the tenant partitions with their usage against their memory quota and concurrency budget.
+     *
+     * @return One entry per tenant, ordered by tenant ID.
+     */
+    @GetMapping("/tenants")
+    public ResponseEntity<List<Map<String, Object>>> getTenants() {
+        return ResponseEntity.ok(tenantRegistry.getAll().stream().map(TenantPartition::toMap).toList());
+    }
+
+    /**
+     * Removes every receipt of a tenant, releasing its memory quota, e.g. for a tenant stuck at its quota.
+     *
+     * @param tenantId The tenant ID.
+     * @return The tenant's usage with the number of receipts removed, a 404 for an unknown tenant, or a 400 for an
+     *         invalid tenant ID.
+     */
+    @DeleteMapping("/tenants/{tenantId}/receipts")
+    public ResponseEntity<Map<String, Object>> purgeTenant(@PathVariable String tenantId) {
+        Map<String, Object> purged = tenantRegistry.purge(tenantId);
+        return purged == null ? ResponseEntity.notFound().build() : ResponseEntity.ok(purged);
+    }
+
+    /**
+     * Analytics across the shared store and every tenant, merged from each one's aggregates.
+     *
+     * @return The merged analytics, with the tenant of the receipt with the highest total.
+     */
+    @GetMapping("/analytics")
+    public ResponseEntity<Map<String, Object>> getGlobalAnalytics() {
+        return ResponseEntity.ok(tenantRegistry.getGlobalAnalytics());
+    }
+}
@@ -1,15 +1,22 @@
 package com.receiptprocessor.cotroller;
 
-import java.util.Collection;
+import java.time.LocalDate;
 import java.util.Collections;
-import java.util.Comparator;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.stream.Collectors;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PatchMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
@@ -17,22 +24,55 @@ import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import com.receiptprocessor.cache.ResponseCache;
+import com.receiptprocessor.changefeed.ChangeFeedService;
+import com.receiptprocessor.format.WireFormat;
+import com.receiptprocessor.jfr.ReceiptIngestedEvent;
+import com.receiptprocessor.metrics.ValidationMetrics;
 import com.receiptprocessor.model.Item;
+import com.receiptprocessor.model.ItemPatch;
+import com.receiptprocessor.model.SearchQuery;
 import com.receiptprocessor.model.Receipt;
+import com.receiptprocessor.model.ScoreRequest;
 import com.receiptprocessor.repository.ReceiptRepository;
+import com.receiptprocessor.service.AccountLedgerService;
 import com.receiptprocessor.service.AnalyticsService;
+import com.receiptprocessor.service.InventoryService;
 import com.receiptprocessor.service.PointsService;
+import com.receiptprocessor.service.ReceiptSortingService;
+import com.receiptprocessor.service.ScoringService;
+import com.receiptprocessor.service.SearchService;
+import com.receiptprocessor.service.SnapshotService;
 import com.receiptprocessor.service.TaggingService;
+import com.receiptprocessor.sse.AnalyticsSseAdapter;
+import com.receiptprocessor.tenant.TenantContext;
+import com.receiptprocessor.tenant.TenantPartition;
+import com.receiptprocessor.timing.RequestTimings;
 
 @RestController
 @RequestMapping("/receipts")
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
 public class ReceiptController {
 
+    private static final Logger log = LoggerFactory.getLogger(ReceiptController.class);
+
     private final ReceiptRepository receiptRepository;
     private final PointsService pointsService;
     private final TaggingService taggingService;
     private final AnalyticsService analyticsService;
+    private final ReceiptSortingService receiptSortingService;
+    private final ResponseCache responseCache;
+    private final AnalyticsSseAdapter analyticsSseAdapter;
+    private final ScoringService scoringService;
+    private final InventoryService inventoryService;
+    private final SearchService searchService;
+    private final AccountLedgerService accountLedgerService;
+    private final SnapshotService snapshotService;
+    private final ChangeFeedService changeFeedService;
+    private final ValidationMetrics validationMetrics;
 	/**
      * Constructor-based dependency injection.
      *
@@ -40,12 +80,32 @@ public class ReceiptController {
      * @param pointsService     Service for calculating receipt-based reward points.
      * @param taggingService Tagging for customer tag as "Loyal Customer, Big Spender, Weekend Shopper"
      * @param analyticsService  Analytics fetch real time analytics on processed receipts
+     * @param receiptSortingService Sorting of stored receipts by total, date or points
+     * @param responseCache Cache of serialized read responses, keyed by endpoint and store version
+     * @param analyticsSseAdapter Live analytics updates pushed over server-sent events
+     * @param scoringService Points and tags previews for receipts that are not stored
+     * @param inventoryService Item-level changes with incrementally maintained points
+     * @param searchService Filtered receipt queries over secondary indexes
+     * @param accountLedgerService Running points and spend per customer account
+     * @param snapshotService Precomputed sorted views and analytics for clients accepting stale responses
+     * @param changeFeedService Offset-addressed log of store changes for incremental sync
+     * @param validationMetrics Counts of rejected receipts by reason
      */
-    public ReceiptController(ReceiptRepository receiptRepository, PointsService pointsService, TaggingService taggingService,AnalyticsService analyticsService ) {
+    public ReceiptController(ReceiptRepository receiptRepository, PointsService pointsService, TaggingService taggingService,AnalyticsService analyticsService, ReceiptSortingService receiptSortingService, ResponseCache responseCache, AnalyticsSseAdapter analyticsSseAdapter, ScoringService scoringService, InventoryService inventoryService, SearchService searchService, AccountLedgerService accountLedgerService, SnapshotService snapshotService, ChangeFeedService changeFeedService, ValidationMetrics validationMetrics) {
         this.receiptRepository = receiptRepository;
         this.pointsService = pointsService;
         this.taggingService = taggingService;
         this.analyticsService = analyticsService;
+        this.receiptSortingService = receiptSortingService;
+        this.responseCache = responseCache;
+        this.analyticsSseAdapter = analyticsSseAdapter;
+        this.scoringService = scoringService;
+        this.inventoryService = inventoryService;
+        this.searchService = searchService;
+        this.accountLedgerService = accountLedgerService;
+        this.snapshotService = snapshotService;
+        this.changeFeedService = changeFeedService;
+        this.validationMetrics = validationMetrics;
         
     }
 
@@ -61,33 +121,91 @@ public class ReceiptController {
             return ResponseEntity.badRequest().body(Collections.singletonMap("error", "Invalid request. Receipt cannot be null."));
         }
 
-        try {
+        ReceiptIngestedEvent event = new ReceiptIngestedEvent();
+        event.begin();
+        long validationStart = System.nanoTime();
+
+        try (RequestTimings.Stage stage = RequestTimings.stage("validate")) {
             receipt.validatePrices();  // Validate non-negative item prices
             receipt.validatePurchaseDate();  // Validate purchase date is not in the future
         } catch (IllegalArgumentException e) {
+            validationMetrics.recordFailure(e);
+            log.debug("Rejected receipt from {}: {}", receipt.getRetailer(), e.getMessage());
+            commitIngested(event, null, receipt, System.nanoTime() - validationStart);
             return ResponseEntity.badRequest().body(Collections.singletonMap("error", e.getMessage()));
         }
+        long validationTime = System.nanoTime() - validationStart;
 
-        String id = receiptRepository.saveReceipt(receipt);
+        String id;
+        try (RequestTimings.Stage stage = RequestTimings.stage("store")) {
+            TenantPartition tenant = TenantContext.current();
+            id = tenant == null ? receiptRepository.saveReceipt(receipt) : tenant.saveReceipt(receipt);
+        }
+        commitIngested(event, id, receipt, validationTime);
+        log.debug("Stored receipt {} from {} with {} items", id, receipt.getRetailer(), receipt.getItems().size());
         return ResponseEntity.ok(Collections.singletonMap("id", id));
     }
 
 
+    /**
+     * Scores one receipt, or an array of receipts, without storing anything.
+     * Returns the points and tags a receipt would get if it were processed, saving clients the
+     * process-then-fetch round trip for checkout previews. Arrays are scored in parallel and
+     * answered with one result (or "error") per receipt, in request order.
+     *
+     * @param body A receipt or an array of receipts.
+     * @return The points and tags, the list of per-receipt results, or a 400 if a single receipt is invalid.
+     */
+    @PostMapping("/score")
+    public ResponseEntity<Object> scoreReceipts(@RequestBody(required = false) ScoreRequest body) {
+        try (RequestTimings.Stage stage = RequestTimings.stage("score")) {
+            return ResponseEntity.ok(scoringService.score(body));
+        } catch (IllegalArgumentException e) {
+            log.debug("Rejected receipt preview: {}", e.getMessage());
+            return ResponseEntity.badRequest().body(Collections.singletonMap("error", e.getMessage()));
+        }
+    }
+
+    /**
+     * Commits the JFR ingest event, if it is being recorded.
+     *
+     * @param event           The event begun when the request arrived.
+     * @param id              The stored receipt ID, or null if the receipt was rejected.
+     * @param receipt         The submitted receipt.
+     * @param validationTime  Time spent validating the receipt, in nanoseconds.
+     */
+    private void commitIngested(ReceiptIngestedEvent event, String id, Receipt receipt, long validationTime) {
+        event.end();
+        if (event.shouldCommit()) {
+            event.validationTime = validationTime;
+            event.receiptId = id;
+            event.accepted = id != null;
+            event.itemCount = receipt.getItems() == null ? 0 : receipt.getItems().size();
+            event.commit();
+        }
+    }
+
     /**
      * Retrieves the calculated points for a given receipt ID.
+     * Points are cheap to compute and there is one response per receipt, so they are ETag-revalidated but not
+     * cached, which would evict the expensive sort and analytics responses.
      *
-     * @param id The unique identifier of the receipt.
-     * @return A response containing the calculated points or a 404 if not found.
+     * @param id         The unique identifier of the receipt.
+     * @param webRequest The current request, used for ETag revalidation.
+     * @return A response containing the calculated points, a 304 if unchanged, or a 404 if not found.
      */
     @GetMapping("/{id}/points")
-    public ResponseEntity<Map<String, Integer>> getPoints(@PathVariable String id) {
-        Receipt receipt = receiptRepository.getReceipt(id);
+    public ResponseEntity<byte[]> getPoints(@PathVariable String id, WebRequest webRequest) {
+        Receipt receipt = repository().getReceipt(id);
         if (receipt == null) {
             return ResponseEntity.notFound().build();
         }
 
-        int points = pointsService.calculatePoints(receipt);
-        return ResponseEntity.ok(Collections.singletonMap("points", points));
+        return uncachedResponse("points:" + id, webRequest, () -> {
+            try (RequestTimings.Stage stage = RequestTimings.stage("points")) {
+                return Collections.singletonMap("points", pointsService.calculatePoints(receipt));
+            }
+        });
     }
     
     /**
@@ -104,11 +222,14 @@ public class ReceiptController {
     	}
     	
     	List<String> tags = taggingService.generateTags(receipt);
-    	receipt.getTags().addAll(tags);
+    	Receipt tagged = receiptRepository.addTags(id, tags);
+    	if (tagged == null) {
+    		return ResponseEntity.notFound().build();
+    	}
     	
     	Map<String, Object> response = new HashMap<>();
     	response.put("id", id);
-        response.put("tags", receipt.getTags());
+        response.put("tags", tagged.getTags());
         return ResponseEntity.ok(response);
     	
     }
@@ -116,47 +237,181 @@ public class ReceiptController {
     /**
      * Sorts receipts based on query parameter: total (ascending), date (descending), or points (descending).
      * 
+     * Clients sending {@code Cache-Control: max-stale} may be served from the latest precomputed snapshot;
+     * snapshots only cover the shared store.
+     * 
      * @param criteria Sorting criteria: "total", "date", or "points".
-     * @return A sorted list of receipts.
+     * @param webRequest The current request, used for ETag revalidation.
+     * @return A sorted list of receipts, or a 304 if unchanged.
      */
     @GetMapping("/sort")
-    public ResponseEntity<List<Map<String, Object>>> sortReceipts(@RequestParam String criteria) {
-    	Collection<Receipt> receipts = receiptRepository.getAllReceipts().values();
+    public ResponseEntity<byte[]> sortReceipts(@RequestParam String criteria, WebRequest webRequest) {
+        SnapshotService.Snapshot snapshot = sharedSnapshot(webRequest);
+        if (snapshot != null) {
+            List<Map<String, Object>> sorted = snapshot.sorted(criteria);
+            return snapshotResponse("sort:" + criteria.toLowerCase(), webRequest, snapshot, () -> sorted);
+        }
+        return cachedResponse("sort:" + criteria.toLowerCase(), webRequest,
+                () -> sortingService().getSortedReceipts(criteria));
+    }
+    
+    /**
+     * Searches receipts by any combination of filters, optionally sorted, returning at most {@code limit} receipts.
+     * The response also reports the total number of matches and which index the query was answered from.
+     *
+     * @param minTotal  Lowest total, inclusive.
+     * @param maxTotal  Highest total, inclusive.
+     * @param fromDate  First purchase date (YYYY-MM-DD), inclusive.
+     * @param toDate    Last purchase date (YYYY-MM-DD), inclusive.
+     * @param retailer  Retailer name, case-insensitive.
+     * @param tag       Tag the receipt must carry.
+     * @param item      Text an item description must contain.
+     * @param minPoints Lowest points, inclusive.
+     * @param sort      Sorting criteria: "total", "date", or "points".
+     * @param limit     Maximum number of receipts returned (default 100, at most 1000).
+     * @param webRequest The current request, used for ETag revalidation.
+     * @return The matching receipts, a 304 if unchanged, or a 400 for malformed parameters.
+     */
+    @GetMapping("/search")
+    public ResponseEntity<byte[]> searchReceipts(@RequestParam(required = false) String minTotal,
+                                                 @RequestParam(required = false) String maxTotal,
+                                                 @RequestParam(required = false) String fromDate,
+                                                 @RequestParam(required = false) String toDate,
+                                                 @RequestParam(required = false) String retailer,
+                                                 @RequestParam(required = false) String tag,
+                                                 @RequestParam(required = false) String item,
+                                                 @RequestParam(required = false) String minPoints,
+                                                 @RequestParam(required = false) String sort,
+                                                 @RequestParam(required = false) String limit,
+                                                 WebRequest webRequest) {
+        SearchQuery query = SearchQuery.of(minTotal, maxTotal, fromDate, toDate, retailer, tag, item, minPoints, sort, limit);
+        return cachedResponse("search:" + query, webRequest, () -> searchService().search(query));
+    }
 
-        List<Map<String, Object>> sortedReceipts = receipts.stream()
-            .sorted(getComparator(criteria))
-            .map(receipt -> {
-                Map<String, Object> receiptData = new HashMap<>();
-                receiptData.put("id", receiptRepository.getReceiptId(receipt));
-                receiptData.put("total", receipt.getTotal());
-                receiptData.put("date", receipt.getPurchaseDate());
-                receiptData.put("points", pointsService.calculatePoints(receipt));
-                return receiptData;
-            })
-            .collect(Collectors.toList());
+    /**
+     * Product lookup: finds receipts with items matching the query through the item description index,
+     * with the number of matching receipts and items and the spend per product.
+     *
+     * @param q          The product query, e.g. "gatorade"; every word must appear in the item description.
+     * @param webRequest The current request, used for ETag revalidation.
+     * @return The product counts and spend, a 304 if unchanged, or a 400 for an empty query.
+     */
+    @GetMapping("/products")
+    public ResponseEntity<byte[]> lookupProducts(@RequestParam String q, WebRequest webRequest) {
+        return cachedResponse("products:" + q.trim().toLowerCase(), webRequest, () -> searchService.lookupProducts(q));
+    }
 
-        return ResponseEntity.ok(sortedReceipts);
+    /**
+     * Tag membership counts: the number of receipts carrying each tag.
+     *
+     * @param webRequest The current request, used for ETag revalidation.
+     * @return The counts by tag, or a 304 if unchanged.
+     */
+    @GetMapping("/tags")
+    public ResponseEntity<byte[]> getTagCounts(WebRequest webRequest) {
+        return cachedResponse("tags", webRequest, searchService::getTagCounts);
     }
 
     /**
-     * Determines the comparator to use for sorting receipts.
+     * Tag segment: receipts carrying every one of the tags (e.g. Weekend Shopper AND Big Spender),
+     * optionally within a purchase date range.
      *
-     * @param criteria Sorting criteria: "total", "date", or "points".
-     * @return A comparator for sorting receipts.
+     * @param tags       Comma-separated tags.
+     * @param fromDate   First purchase date (YYYY-MM-DD), inclusive.
+     * @param toDate     Last purchase date (YYYY-MM-DD), inclusive.
+     * @param limit      Maximum number of receipt IDs returned (default 100, at most 1000).
+     * @param webRequest The current request, used for ETag revalidation.
+     * @return The segment size and receipt IDs, a 304 if unchanged, or a 400 for malformed parameters.
+     */
+    @GetMapping("/tags/intersect")
+    public ResponseEntity<byte[]> intersectTags(@RequestParam List<String> tags,
+                                                @RequestParam(required = false) String fromDate,
+                                                @RequestParam(required = false) String toDate,
+                                                @RequestParam(required = false) String limit,
+                                                WebRequest webRequest) {
+        return tagSegment(tags, true, fromDate, toDate, limit, webRequest);
+    }
+
+    /**
+     * Tag segment: receipts carrying at least one of the tags, optionally within a purchase date range.
+     *
+     * @param tags       Comma-separated tags.
+     * @param fromDate   First purchase date (YYYY-MM-DD), inclusive.
+     * @param toDate     Last purchase date (YYYY-MM-DD), inclusive.
+     * @param limit      Maximum number of receipt IDs returned (default 100, at most 1000).
+     * @param webRequest The current request, used for ETag revalidation.
+     * @return The segment size and receipt IDs, a 304 if unchanged, or a 400 for malformed parameters.
+     */
+    @GetMapping("/tags/union")
+    public ResponseEntity<byte[]> unionTags(@RequestParam List<String> tags,
+                                            @RequestParam(required = false) String fromDate,
+                                            @RequestParam(required = false) String toDate,
+                                            @RequestParam(required = false) String limit,
+                                            WebRequest webRequest) {
+        return tagSegment(tags, false, fromDate, toDate, limit, webRequest);
+    }
+
+    private ResponseEntity<byte[]> tagSegment(List<String> tags, boolean all, String fromDate, String toDate, String limit,
+                                              WebRequest webRequest) {
+        LocalDate from = SearchQuery.parseDate("fromDate", fromDate);
+        LocalDate to = SearchQuery.parseDate("toDate", toDate);
+        int parsedLimit = SearchQuery.parseLimit(limit);
+        String key = "tags:" + (all ? "and:" : "or:") + tags.stream().map(String::trim).map(String::toLowerCase).sorted().toList()
+                + ":" + from + ":" + to + ":" + parsedLimit;
+        return cachedResponse(key, webRequest, () -> searchService.querySegment(tags, all, from, to, parsedLimit));
+    }
+
+    /**
+     * Running points and spend of a customer account, read from the account ledger.
+     *
+     * @param accountId  The account ID given on the receipts.
+     * @param webRequest The current request, used for ETag revalidation.
+     * @return The account balance, a 304 if unchanged, or a 404 if no receipt is linked to the account.
      */
-    private Comparator<Receipt> getComparator(String criteria) {
-        switch (criteria.toLowerCase()) {
-            case "total":
-                return Comparator.comparingDouble(receipt -> Double.parseDouble(receipt.getTotal()));
-            case "date":
-                return Comparator.comparing(Receipt::getPurchaseDate).reversed();
-            case "points":
-                return Comparator.comparingInt(pointsService::calculatePoints).reversed();
-            default:
-                throw new IllegalArgumentException("Invalid sorting criteria. Use 'total', 'date', or 'points'.");
+    @GetMapping("/accounts/{accountId}")
+    public ResponseEntity<byte[]> getAccountBalance(@PathVariable String accountId, WebRequest webRequest) {
+        AccountLedgerService ledger = accountLedgerService();
+        AccountLedgerService.Balance balance = ledger.getBalance(accountId);
+        if (balance == null) {
+            return ResponseEntity.notFound().build();
         }
+        return cachedResponse("account:" + balance.accountId(), webRequest, () -> {
+            AccountLedgerService.Balance current = ledger.getBalance(accountId); // Read after the store version
+            return (current != null ? current : balance).toMap();
+        });
     }
-    
+
+    /**
+     * Accounts with the most points, highest first.
+     *
+     * @param limit      Number of accounts (default 10, at most 1000).
+     * @param webRequest The current request, used for ETag revalidation.
+     * @return The top account balances, a 304 if unchanged, or a 400 for an invalid limit.
+     */
+    @GetMapping("/accounts")
+    public ResponseEntity<byte[]> getTopAccounts(@RequestParam(defaultValue = "10") int limit, WebRequest webRequest) {
+        return cachedResponse("accounts:" + limit, webRequest, () -> accountLedgerService().getTopAccounts(limit).stream()
+                .map(AccountLedgerService.Balance::toMap)
+                .toList());
+    }
+
+    /**
+     * Change feed: stored, updated, tagged and removed receipts in the order they happened, for incremental sync.
+     * Consumers pass the "nextOffset" of their previous batch as "from". With "waitMs", the request is held until
+     * a change arrives or the wait elapses, so consumers can poll in a loop without hammering the server.
+     *
+     * @param from   The first offset to read; 0 starts at the oldest change held.
+     * @param limit  The most changes to return (default 100, at most 1000).
+     * @param waitMs How long to wait for a change if there is none yet (default 0, at most receipts.changes.max-wait-ms).
+     * @return The batch of changes, a 400 for invalid arguments, or a 410 if the offset is no longer held.
+     */
+    @GetMapping("/changes")
+    public CompletableFuture<Map<String, Object>> getChanges(@RequestParam(defaultValue = "0") long from,
+                                                             @RequestParam(defaultValue = "100") int limit,
+                                                             @RequestParam(defaultValue = "0") long waitMs) {
+        return changeFeedService.poll(from, limit, waitMs).thenApply(ChangeFeedService.Batch::toMap);
+    }
+
     /**
      * ** Inventory Update: Updates a receipt's items and recalculates points.**
      * @param id The receipt ID.
@@ -173,15 +428,23 @@ public class ReceiptController {
             return ResponseEntity.notFound().build();
         }
 
-        receipt.setItems(items);
-
-        try {
-            receipt.validatePrices(); // Ensure all item prices are valid
+        try (RequestTimings.Stage stage = RequestTimings.stage("validate")) {
+            Receipt.validateItemPrices(items); // Ensure all item prices are valid before touching the stored receipt
         } catch (IllegalArgumentException e) {
+            validationMetrics.recordFailure(e);
+            log.debug("Rejected inventory update for receipt {}: {}", id, e.getMessage());
             return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
         }
 
-        int updatedPoints = pointsService.calculatePoints(receipt);
+        try (RequestTimings.Stage stage = RequestTimings.stage("store")) {
+            receiptRepository.updateReceiptInventory(id, items);
+        }
+
+        int updatedPoints;
+        try (RequestTimings.Stage stage = RequestTimings.stage("points")) {
+            updatedPoints = pointsService.calculatePoints(receipt);
+        }
+        log.debug("Updated inventory of receipt {} to {} items, {} points", id, items.size(), updatedPoints);
 
         return ResponseEntity.ok(Map.of(
                 "id", id,
@@ -189,16 +452,180 @@ public class ReceiptController {
                 "updatedPoints", updatedPoints
         ));
     }
+    /**
+     * Item-level inventory changes: adds, removes or replaces individual items without resending the list.
+     * Points are adjusted by the changed items only; the response carries the new item count and points
+     * instead of echoing the items.
+     *
+     * @param id  The receipt ID.
+     * @param ops The item operations, applied in order, all or nothing.
+     * @return The receipt ID, item count and updated points, a 400 for an invalid operation, or a 404 if not found.
+     */
+    @PatchMapping("/{id}/items")
+    public ResponseEntity<Map<String, Object>> patchReceiptItems(@PathVariable String id, @RequestBody List<ItemPatch> ops) {
+        Map<String, Object> result;
+        try (RequestTimings.Stage stage = RequestTimings.stage("store")) {
+            result = inventoryService.patchItems(id, ops);
+        } catch (IllegalArgumentException e) {
+            log.debug("Rejected item changes for receipt {}: {}", id, e.getMessage());
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+        if (result == null) {
+            return ResponseEntity.notFound().build();
+        }
+        log.debug("Patched items of receipt {}: {}", id, result);
+        return ResponseEntity.ok(result);
+    }
+
     /**
      * **Real-Time Analytics Endpoint**
      * Retrieves analytics on receipts including:
      * - Total receipts processed
      * - Average points per receipt
      * - Receipt with the highest total
+     * Clients sending {@code Cache-Control: max-stale} may be served from the latest precomputed snapshot;
+     * snapshots only cover the shared store.
+     *
+     * @param webRequest The current request, used for ETag revalidation.
+     * @return The analytics, or a 304 if unchanged.
      */
     @GetMapping("/analytics")
-    public ResponseEntity<Map<String, Object>> getAnalytics() {
-        return ResponseEntity.ok(analyticsService.getAnalytics());
+    public ResponseEntity<byte[]> getAnalytics(WebRequest webRequest) {
+        SnapshotService.Snapshot snapshot = sharedSnapshot(webRequest);
+        if (snapshot != null) {
+            return snapshotResponse("analytics", webRequest, snapshot, snapshot::analytics);
+        }
+        return cachedResponse("analytics", webRequest, analyticsService()::getAnalytics);
+    }
+
+    /**
+     * **Live Analytics Stream**
+     * Pushes the analytics as server-sent events: the current values on connect, then a coalesced
+     * update at most once per configured interval while receipts are ingested or updated.
+     *
+     * @return The SSE stream of analytics snapshots.
+     */
+    @GetMapping(path = "/analytics/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamAnalytics() {
+        return analyticsSseAdapter.subscribe();
+    }
+
+    /**
+     * The store of the request's tenant (bound by TenantFilter), or the shared store without a tenant header.
+     * The helpers below pick the tenant's services the same way.
+     */
+    private ReceiptRepository repository() {
+        TenantPartition tenant = TenantContext.current();
+        return tenant == null ? receiptRepository : tenant.getRepository();
+    }
+
+    private SearchService searchService() {
+        TenantPartition tenant = TenantContext.current();
+        return tenant == null ? searchService : tenant.getSearchService();
+    }
+
+    private ReceiptSortingService sortingService() {
+        TenantPartition tenant = TenantContext.current();
+        return tenant == null ? receiptSortingService : tenant.getSortingService();
+    }
+
+    private AccountLedgerService accountLedgerService() {
+        TenantPartition tenant = TenantContext.current();
+        return tenant == null ? accountLedgerService : tenant.getAccountLedgerService();
+    }
+
+    private AnalyticsService analyticsService() {
+        TenantPartition tenant = TenantContext.current();
+        return tenant == null ? analyticsService : tenant.getAnalyticsService();
+    }
+
+    private SnapshotService.Snapshot sharedSnapshot(WebRequest webRequest) {
+        if (TenantContext.current() != null) {
+            return null;
+        }
+        return snapshotService.getSnapshot(webRequest.getHeader(HttpHeaders.CACHE_CONTROL));
+    }
+
+    /**
+     * Serves a read endpoint through the response cache.
+     * - The body is encoded as JSON, CBOR or Smile depending on the Accept header.
+     * - The ETag is derived from the key, the format and the store version, so a matching If-None-Match
+     *   is answered with 304 before anything is computed.
+     * - Otherwise the serialized body is reused until the next write bumps the store version.
+     * - Tenant requests are cached under the tenant's own key space and store version.
+     *
+     * @param key        The cache key identifying the endpoint and its parameters.
+     * @param webRequest The current request.
+     * @param body       Computes the response body on a cache miss.
+     * @return The encoded response, or a 304 if the client's copy is current.
+     */
+    private ResponseEntity<byte[]> cachedResponse(String key, WebRequest webRequest, Supplier<Object> body) {
+        return currentVersionResponse(key, webRequest, body, true);
+    }
+
+    /**
+     * Serves a read endpoint with the same encoding and ETags as {@link #cachedResponse}, without storing the body.
+     *
+     * @param key        The key identifying the endpoint and its parameters.
+     * @param webRequest The current request.
+     * @param body       Computes the response body.
+     * @return The encoded response, or a 304 if the client's copy is current.
+     */
+    private ResponseEntity<byte[]> uncachedResponse(String key, WebRequest webRequest, Supplier<Object> body) {
+        return currentVersionResponse(key, webRequest, body, false);
+    }
+
+    private ResponseEntity<byte[]> currentVersionResponse(String key, WebRequest webRequest, Supplier<Object> body,
+                                                          boolean cache) {
+        TenantPartition tenant = TenantContext.current();
+        if (tenant != null) {
+            return encodedResponse("tenant:" + tenant.getId() + ":" + key, webRequest, tenant.getRepository().getVersion(),
+                    body, cache);
+        }
+        return encodedResponse(key, webRequest, receiptRepository.getVersion(), body, cache);
+    }
+
+    /**
+     * Serves a read endpoint from a precomputed snapshot, through the response cache at the snapshot's version.
+     * The Age header tells the client how long ago the store was last seen at that version.
+     *
+     * @param key        The cache key identifying the endpoint and its parameters.
+     * @param webRequest The current request.
+     * @param snapshot   The snapshot the body is read from.
+     * @param body       Reads the response body from the snapshot on a cache miss.
+     * @return The encoded response, or a 304 if the client's copy is current.
+     */
+    private ResponseEntity<byte[]> snapshotResponse(String key, WebRequest webRequest, SnapshotService.Snapshot snapshot,
+                                                    Supplier<Object> body) {
+        ResponseEntity<byte[]> response = cachedResponse("snapshot:" + key, webRequest, snapshot.version(), body);
+        if (response == null) {
+            return null;
+        }
+        return ResponseEntity.ok()
+                .headers(response.getHeaders())
+                .header(HttpHeaders.AGE, Long.toString(snapshotService.ageMillis(snapshot) / 1000))
+                .body(response.getBody());
+    }
+
+    private ResponseEntity<byte[]> cachedResponse(String key, WebRequest webRequest, long version, Supplier<Object> body) {
+        return encodedResponse(key, webRequest, version, body, true);
+    }
+
+    private ResponseEntity<byte[]> encodedResponse(String key, WebRequest webRequest, long version, Supplier<Object> body,
+                                                   boolean cache) {
+        WireFormat format = WireFormat.fromAccept(webRequest.getHeader(HttpHeaders.ACCEPT));
+        if (webRequest.checkNotModified(responseCache.etag(key, format, version))) {
+            return null; // 304 Not Modified already prepared by checkNotModified
+        }
+
+        ResponseCache.CachedResponse response = cache ? responseCache.get(key, format, version, body)
+                : responseCache.encode(key, format, version, body);
+        return ResponseEntity.ok()
+                .eTag(response.etag())
+                .cacheControl(CacheControl.noCache())
+                .varyBy(HttpHeaders.ACCEPT)
+                .contentType(format.getMediaType())
+                .body(response.body());
     }
 }
 
@@ -0,0 +1,33 @@
+package com.receiptprocessor.event;
+
+import java.util.List;
+
+import com.receiptprocessor.model.Item;
+import com.receiptprocessor.model.Receipt;
+
+/**
+ * Published by {@code ReceiptRepository} after every write to the store.
+ * Listeners run synchronously on the writing thread, so they must stay cheap.
+ *
+ * @param type          The kind of change.
+ * @param id            The receipt ID.
+ * @param receipt       The receipt after the change, or the removed receipt.
+ * @param previousItems The items before an inventory update, or null for other changes.
+ * @param items         The items written by an inventory update, or null for other changes. Listeners run after the
+ *                      receipt is unlocked, so the receipt may already hold a later update's items.
+ * @param addedTags     The tags newly assigned by a tagging, or null for other changes.
+ */
+public record ReceiptChangedEvent(Type type, String id, Receipt receipt, List<Item> previousItems, List<Item> items,
+                                  List<String> addedTags) {
+
+    public ReceiptChangedEvent(Type type, String id, Receipt receipt, List<Item> previousItems) {
+        this(type, id, receipt, previousItems, null, null);
+    }
+
+    public enum Type {
+        SAVED,
+        UPDATED,
+        TAGGED,
+        REMOVED
+    }
+}
@@ -0,0 +1,12 @@
+package com.receiptprocessor.exception;
+
+/**
+ * Thrown when a change feed consumer asks for an offset the feed no longer holds, or never issued
+ * (e.g. after a restart). The consumer has to resynchronize from a full export and resume from the latest offset.
+ */
+public class ChangeOffsetExpiredException extends RuntimeException {
+
+    public ChangeOffsetExpiredException(String message) {
+        super(message);
+    }
+}
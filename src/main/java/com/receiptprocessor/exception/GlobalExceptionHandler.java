@@ -22,6 +22,16 @@ public class GlobalExceptionHandler {
         return buildErrorResponse(ex.getMessage(), HttpStatus.BAD_REQUEST);
     }
 
+    @ExceptionHandler(ChangeOffsetExpiredException.class)
+    public ResponseEntity<Map<String, Object>> handleChangeOffsetExpiredException(ChangeOffsetExpiredException ex) {
+        return buildErrorResponse(ex.getMessage(), HttpStatus.GONE);
+    }
+
+    @ExceptionHandler(TenantQuotaExceededException.class)
+    public ResponseEntity<Map<String, Object>> handleTenantQuotaExceededException(TenantQuotaExceededException ex) {
+        return buildErrorResponse(ex.getMessage(), HttpStatus.INSUFFICIENT_STORAGE);
+    }
+
     private ResponseEntity<Map<String, Object>> buildErrorResponse(String message, HttpStatus status) {
         Map<String, Object> errorDetails = Map.of(
             "timestamp", LocalDateTime.now(),
@@ -0,0 +1,20 @@
+package com.receiptprocessor.exception;
+
+/**
+ * Thrown when a receipt fails validation.
+ * Carries a short, stable reason code (e.g. "negative_price") used to tag validation metrics;
+ * the message stays the human-readable error returned to clients.
+ */
+public class ReceiptValidationException extends IllegalArgumentException {
+
+    private final String reason;
+
+    public ReceiptValidationException(String reason, String message) {
+        super(message);
+        this.reason = reason;
+    }
+
+    public String getReason() {
+        return reason;
+    }
+}
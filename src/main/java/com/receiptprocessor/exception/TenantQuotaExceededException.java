@@ -0,0 +1,11 @@
+package com.receiptprocessor.exception;
+
+/**
+ * Thrown when storing a receipt would take a tenant past its memory quota.
+ */
+public class TenantQuotaExceededException extends RuntimeException {
+
+    public TenantQuotaExceededException(String message) {
+        super(message);
+    }
+}
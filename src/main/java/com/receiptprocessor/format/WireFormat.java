@@ -0,0 +1,75 @@
+package com.receiptprocessor.format;
+
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+
+/**
+ * Wire encodings supported by the receipt endpoints.
+ * JSON stays the default; CBOR and Smile are compact binary encodings of the same Jackson model,
+ * selected by the Accept header for responses and by Content-Type for request bodies.
+ */
+public enum WireFormat {
+    JSON(MediaType.APPLICATION_JSON),
+    CBOR(MediaType.APPLICATION_CBOR),
+    SMILE(new MediaType("application", "x-jackson-smile"));
+
+    private final MediaType mediaType;
+
+    WireFormat(MediaType mediaType) {
+        this.mediaType = mediaType;
+    }
+
+    public MediaType getMediaType() {
+        return mediaType;
+    }
+
+    /**
+     * Builds an ObjectMapper for this format from the application's Jackson configuration.
+     *
+     * @param builder The application's Jackson builder.
+     * @return A mapper writing and reading this format.
+     */
+    public ObjectMapper createMapper(Jackson2ObjectMapperBuilder builder) {
+        JsonFactory factory = switch (this) {
+            case JSON -> new JsonFactory();
+            case CBOR -> new CBORFactory();
+            case SMILE -> new SmileFactory();
+        };
+        return builder.factory(factory).build();
+    }
+
+    /**
+     * Picks the response format from an Accept header.
+     * - The supported media type with the highest quality value wins; earlier entries win ties.
+     * - Anything not naming CBOR or Smile (including a missing or wildcard header) falls back to JSON.
+     *
+     * @param accept The Accept header value, may be null.
+     * @return The negotiated format.
+     */
+    public static WireFormat fromAccept(String accept) {
+        if (accept == null || accept.isBlank()) {
+            return JSON;
+        }
+        WireFormat best = JSON;
+        double bestQuality = 0.0;
+        try {
+            for (MediaType mediaType : MediaType.parseMediaTypes(accept)) {
+                for (WireFormat format : values()) {
+                    if (mediaType.equalsTypeAndSubtype(format.mediaType) && mediaType.getQualityValue() > bestQuality) {
+                        best = format;
+                        bestQuality = mediaType.getQualityValue();
+                    }
+                }
+            }
+        } catch (InvalidMediaTypeException e) {
+            return JSON;
+        }
+        return best;
+    }
+}
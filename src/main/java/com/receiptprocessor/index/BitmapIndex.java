@@ -0,0 +1,118 @@
+package com.receiptprocessor.index;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.BinaryOperator;
+
+import org.roaringbitmap.RoaringBitmap;
+
+/**
+ * Postings lists from keys (e.g. description tokens) to the dense ordinals of the receipts carrying them,
+ * stored as compressed Roaring bitmaps.
+ * Roaring bitmaps are not thread-safe, so writers take a write lock and queries compute their result
+ * under a read lock; callers only ever receive private copies.
+ */
+public class BitmapIndex {
+
+    private final Map<String, RoaringBitmap> postings = new HashMap<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    /**
+     * Adds and removes one receipt's keys in a single locked step.
+     *
+     * @param ordinal The receipt's ordinal.
+     * @param added   Keys the receipt now carries.
+     * @param removed Keys the receipt no longer carries.
+     */
+    public void update(int ordinal, Collection<String> added, Collection<String> removed) {
+        if (added.isEmpty() && removed.isEmpty()) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            for (String key : removed) {
+                RoaringBitmap bitmap = postings.get(key);
+                if (bitmap != null) {
+                    bitmap.remove(ordinal);
+                    if (bitmap.isEmpty()) {
+                        postings.remove(key);
+                    }
+                }
+            }
+            for (String key : added) {
+                postings.computeIfAbsent(key, k -> new RoaringBitmap()).add(ordinal);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Returns the number of receipts carrying a key.
+     *
+     * @param key The key.
+     * @return The cardinality of its postings list.
+     */
+    public int count(String key) {
+        lock.readLock().lock();
+        try {
+            RoaringBitmap bitmap = postings.get(key);
+            return bitmap == null ? 0 : bitmap.getCardinality();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Returns the receipts carrying every one of the keys.
+     *
+     * @param keys The keys; none yields an empty result.
+     * @return A new bitmap of receipt ordinals.
+     */
+    public RoaringBitmap and(Collection<String> keys) {
+        return combine(keys, (left, right) -> RoaringBitmap.and(left, right));
+    }
+
+    /**
+     * Returns the receipts carrying at least one of the keys.
+     *
+     * @param keys The keys; none yields an empty result.
+     * @return A new bitmap of receipt ordinals.
+     */
+    public RoaringBitmap or(Collection<String> keys) {
+        return combine(keys, (left, right) -> RoaringBitmap.or(left, right));
+    }
+
+    /**
+     * Returns the cardinality of every key.
+     *
+     * @return The counts by key.
+     */
+    public Map<String, Integer> counts() {
+        lock.readLock().lock();
+        try {
+            Map<String, Integer> counts = new HashMap<>();
+            postings.forEach((key, bitmap) -> counts.put(key, bitmap.getCardinality()));
+            return counts;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private RoaringBitmap combine(Collection<String> keys, BinaryOperator<RoaringBitmap> operation) {
+        lock.readLock().lock();
+        try {
+            RoaringBitmap result = null;
+            for (String key : keys) {
+                RoaringBitmap bitmap = postings.getOrDefault(key, new RoaringBitmap());
+                result = result == null ? bitmap.clone() : operation.apply(result, bitmap);
+            }
+            return result == null ? new RoaringBitmap() : result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+}
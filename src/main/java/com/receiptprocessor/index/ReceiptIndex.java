@@ -0,0 +1,356 @@
+package com.receiptprocessor.index;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Pattern;
+
+import org.roaringbitmap.RoaringBitmap;
+
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import com.receiptprocessor.event.ReceiptChangedEvent;
+import com.receiptprocessor.model.Item;
+import com.receiptprocessor.model.Receipt;
+import com.receiptprocessor.repository.ReceiptRepository;
+import com.receiptprocessor.service.PointsService;
+
+/**
+ * Secondary indexes over the stored receipts, maintained from {@link ReceiptChangedEvent}s.
+ * - Each receipt has an {@link Entry} holding its total, date and points already parsed and computed,
+ *   so filters and sorts never re-parse strings or recalculate points.
+ * - A date tree maps purchase dates to receipt IDs, for range lookups.
+ * - A retailer map maps case-insensitive retailer names to receipt IDs. Each name also gets a dense ID, and entries
+ *   share one instance of the normalized name.
+ * - Every receipt also gets a dense ordinal, and an inverted index maps item description tokens to the ordinals
+ *   of the receipts containing them, as Roaring bitmaps.
+ * - A bitmap per tag holds the ordinals of the receipts carrying it, so tag segments are counted, intersected
+ *   and unioned without touching receipts.
+ * Empty date and retailer buckets are kept; there are only as many as there are distinct dates and retailers.
+ * Ordinals of removed receipts are not reused.
+ */
+@Component
+public class ReceiptIndex {
+
+    /**
+     * The indexed fields of one receipt.
+     *
+     * @param id          The receipt ID.
+     * @param ordinal     The receipt's dense ordinal, used in bitmap indexes.
+     * @param receipt     The stored receipt, for fields that are not indexed (tags, items).
+     * @param totalCents  The total in cents, or null if the total is not a number.
+     * @param date        The purchase date, or null if it is missing or malformed.
+     * @param points      The points awarded for the receipt.
+     * @param retailerKey The normalized retailer name, shared by all entries of the retailer.
+     * @param retailerId  A dense ID for the normalized retailer name, so grouping and filtering compare ints.
+     * @param itemTokens  The item description tokens the receipt is indexed under, so updates and removals
+     *                    clear exactly the postings that were added for it.
+     */
+    public record Entry(String id, int ordinal, Receipt receipt, Long totalCents, LocalDate date, int points, String retailerKey,
+                        int retailerId, Set<String> itemTokens) {
+    }
+
+    /**
+     * A normalized retailer name and its ID. Held for as long as the retailer's bucket, so IDs never change.
+     */
+    private record Retailer(String key, int id) {
+    }
+
+    private static final Pattern TOKEN_SEPARATOR = Pattern.compile("[^\\p{Alnum}]+");
+
+    private final PointsService pointsService;
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+    private final ConcurrentSkipListMap<LocalDate, Set<String>> byDate = new ConcurrentSkipListMap<>();
+    private final Map<String, Set<String>> byRetailer = new ConcurrentHashMap<>();
+    private final Map<String, Retailer> retailers = new ConcurrentHashMap<>();
+    private final AtomicInteger nextRetailerId = new AtomicInteger();
+    private final Map<Integer, Entry> byOrdinal = new ConcurrentHashMap<>();
+    private final AtomicInteger nextOrdinal = new AtomicInteger();
+    private final BitmapIndex itemTokens = new BitmapIndex();
+    private final BitmapIndex tags = new BitmapIndex();
+    private final Map<String, String> tagNames = new ConcurrentHashMap<>();
+
+    public ReceiptIndex(ReceiptRepository receiptRepository, PointsService pointsService) {
+        this.pointsService = pointsService;
+        receiptRepository.getAllReceipts().forEach(this::add);
+    }
+
+    /**
+     * Keeps the indexes in step with the store.
+     *
+     * @param event The store change.
+     */
+    @EventListener
+    public void onReceiptChanged(ReceiptChangedEvent event) {
+        switch (event.type()) {
+            case SAVED -> add(event.id(), event.receipt());
+            case UPDATED -> update(event.id(), event.receipt());
+            case TAGGED -> {
+                Entry entry = entries.get(event.id());
+                if (entry != null) {
+                    tags.update(entry.ordinal(), tagKeys(event.addedTags()), Set.of());
+                }
+            }
+            case REMOVED -> remove(event.id());
+        }
+    }
+
+    public Entry get(String id) {
+        return entries.get(id);
+    }
+
+    public Collection<Entry> getAll() {
+        return entries.values();
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    /**
+     * Returns the entry of a receipt by its ordinal.
+     *
+     * @param ordinal The receipt ordinal.
+     * @return The entry, or null if the receipt was removed.
+     */
+    public Entry getByOrdinal(int ordinal) {
+        return byOrdinal.get(ordinal);
+    }
+
+    /**
+     * Returns the receipts with items whose descriptions contain all of the given tokens,
+     * possibly spread over several items.
+     *
+     * @param tokens Normalized tokens, see {@link #tokenize}.
+     * @return A new bitmap of receipt ordinals.
+     */
+    public RoaringBitmap findByItemTokens(Collection<String> tokens) {
+        return itemTokens.and(tokens);
+    }
+
+    /**
+     * Returns the receipts carrying all, or any, of the given tags.
+     *
+     * @param tagNames The tags, matched case-insensitively.
+     * @param all      True to intersect the tags, false to union them.
+     * @return A new bitmap of receipt ordinals.
+     */
+    public RoaringBitmap findByTags(Collection<String> tagNames, boolean all) {
+        Set<String> keys = new HashSet<>();
+        for (String name : tagNames) {
+            keys.add(Receipt.tagKey(name));
+        }
+        return all ? tags.and(keys) : tags.or(keys);
+    }
+
+    /**
+     * Returns the number of receipts carrying each tag.
+     *
+     * @return The counts by tag name.
+     */
+    public Map<String, Integer> getTagCounts() {
+        Map<String, Integer> counts = new TreeMap<>();
+        tags.counts().forEach((key, count) -> counts.put(tagNames.getOrDefault(key, key), count));
+        return counts;
+    }
+
+    /**
+     * Returns the receipts purchased within a date range as a bitmap, both ends inclusive and optional.
+     *
+     * @param from The first date, or null for no lower bound.
+     * @param to   The last date, or null for no upper bound.
+     * @return A new bitmap of receipt ordinals.
+     */
+    public RoaringBitmap findByDate(LocalDate from, LocalDate to) {
+        RoaringBitmap ordinals = new RoaringBitmap();
+        for (Set<String> ids : getByDate(from, to).values()) {
+            for (String id : ids) {
+                Entry entry = entries.get(id);
+                if (entry != null) {
+                    ordinals.add(entry.ordinal());
+                }
+            }
+        }
+        return ordinals;
+    }
+
+    /**
+     * Splits text into lower-case alphanumeric tokens, e.g. "Mountain Dew 12PK" into mountain, dew and 12pk.
+     *
+     * @param text The text, may be null.
+     * @return The distinct tokens.
+     */
+    public static Set<String> tokenize(String text) {
+        Set<String> tokens = new HashSet<>();
+        if (text != null) {
+            for (String token : TOKEN_SEPARATOR.split(text.toLowerCase(Locale.ROOT))) {
+                if (!token.isEmpty()) {
+                    tokens.add(token);
+                }
+            }
+        }
+        return tokens;
+    }
+
+    /**
+     * Returns the date buckets within a range, both ends inclusive and optional.
+     *
+     * @param from The first date, or null for no lower bound.
+     * @param to   The last date, or null for no upper bound.
+     * @return The matching buckets of receipt IDs, by date.
+     */
+    public NavigableMap<LocalDate, Set<String>> getByDate(LocalDate from, LocalDate to) {
+        if (from != null && to != null) {
+            return from.isAfter(to) ? new ConcurrentSkipListMap<>() : byDate.subMap(from, true, to, true);
+        }
+        if (from != null) {
+            return byDate.tailMap(from, true);
+        }
+        return to != null ? byDate.headMap(to, true) : byDate;
+    }
+
+    /**
+     * Returns the IDs of receipts from a retailer.
+     *
+     * @param retailer The retailer name, matched case-insensitively.
+     * @return The receipt IDs, empty if none.
+     */
+    public Set<String> getByRetailer(String retailer) {
+        return byRetailer.getOrDefault(retailerKey(retailer), Set.of());
+    }
+
+    /**
+     * Returns the ID of a retailer, for comparing against {@link Entry#retailerId()}.
+     *
+     * @param retailer The retailer name, matched case-insensitively.
+     * @return The ID, or -1 if no receipt from the retailer was ever indexed.
+     */
+    public int getRetailerId(String retailer) {
+        Retailer known = retailers.get(retailerKey(retailer));
+        return known == null ? -1 : known.id();
+    }
+
+    public static String retailerKey(String retailer) {
+        return retailer == null ? "" : retailer.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private void add(String id, Receipt receipt) {
+        Entry entry = toEntry(id, nextOrdinal.getAndIncrement(), receipt);
+        entries.put(id, entry);
+        byOrdinal.put(entry.ordinal(), entry);
+        itemTokens.update(entry.ordinal(), entry.itemTokens(), Set.of());
+        tags.update(entry.ordinal(), tagKeys(receipt.getTags()), Set.of());
+        if (entry.date() != null) {
+            byDate.computeIfAbsent(entry.date(), date -> ConcurrentHashMap.newKeySet()).add(id);
+        }
+        byRetailer.computeIfAbsent(entry.retailerKey(), key -> ConcurrentHashMap.newKeySet()).add(id);
+    }
+
+    /**
+     * Re-indexes a receipt whose items changed. The tokens are diffed against those the index recorded for the
+     * receipt, not against the event's previous items, and the diff is applied while the entry is locked, so
+     * concurrent or reordered updates of a receipt still leave its postings matching its current items.
+     */
+    private void update(String id, Receipt receipt) {
+        entries.computeIfPresent(id, (key, previous) -> {
+            Entry updated = toEntry(key, previous.ordinal(), receipt); // Items only change points and tokens
+            Set<String> added = new HashSet<>(updated.itemTokens());
+            added.removeAll(previous.itemTokens());
+            Set<String> removed = new HashSet<>(previous.itemTokens());
+            removed.removeAll(updated.itemTokens());
+            itemTokens.update(updated.ordinal(), added, removed);
+            byOrdinal.put(updated.ordinal(), updated);
+            return updated;
+        });
+    }
+
+    private void remove(String id) {
+        Entry entry = entries.remove(id);
+        if (entry == null) {
+            return;
+        }
+        byOrdinal.remove(entry.ordinal());
+        itemTokens.update(entry.ordinal(), Set.of(), entry.itemTokens());
+        tags.update(entry.ordinal(), Set.of(), tagKeys(entry.receipt().getTags()));
+        if (entry.date() != null) {
+            Set<String> ids = byDate.get(entry.date());
+            if (ids != null) {
+                ids.remove(id);
+            }
+        }
+        byRetailer.getOrDefault(entry.retailerKey(), Set.of()).remove(id);
+    }
+
+    /**
+     * Normalizes assigned tags to index keys, remembering the first spelling seen for reporting.
+     */
+    private Set<String> tagKeys(Collection<String> names) {
+        Set<String> keys = new HashSet<>();
+        if (names != null) {
+            for (String name : names) {
+                String key = Receipt.tagKey(name);
+                if (!key.isEmpty()) {
+                    tagNames.putIfAbsent(key, name.trim());
+                    keys.add(key);
+                }
+            }
+        }
+        return keys;
+    }
+
+    private static Set<String> tokenize(List<Item> items) {
+        Set<String> tokens = new HashSet<>();
+        if (items != null) {
+            for (Item item : items) {
+                if (item != null) {
+                    tokens.addAll(tokenize(item.getShortDescription()));
+                }
+            }
+        }
+        return tokens;
+    }
+
+    private Entry toEntry(String id, int ordinal, Receipt receipt) {
+        String key = retailerKey(receipt.getRetailer());
+        Retailer retailer = retailers.get(key);
+        if (retailer == null) {
+            retailer = retailers.computeIfAbsent(key, k -> new Retailer(k, nextRetailerId.getAndIncrement()));
+        }
+        return new Entry(id, ordinal, receipt, parseCents(receipt.getTotal()), parseDate(receipt.getPurchaseDate()),
+                pointsService.calculatePoints(receipt), retailer.key(), retailer.id(), Set.copyOf(tokenize(receipt.getItems())));
+    }
+
+    /**
+     * Parses a receipt total into cents.
+     *
+     * @param total The total, e.g. "35.35".
+     * @return The total in cents, or null if it is missing or not a number.
+     */
+    public static Long parseCents(String total) {
+        try {
+            return total == null ? null : new BigDecimal(total.trim()).movePointRight(2).longValue();
+        } catch (NumberFormatException | ArithmeticException e) {
+            return null;
+        }
+    }
+
+    private static LocalDate parseDate(String purchaseDate) {
+        try {
+            return purchaseDate == null ? null : LocalDate.parse(purchaseDate);
+        } catch (DateTimeParseException e) {
+            return null;
+        }
+    }
+}
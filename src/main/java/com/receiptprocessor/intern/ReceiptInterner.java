@@ -0,0 +1,85 @@
+package com.receiptprocessor.intern;
+
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import com.receiptprocessor.event.ReceiptChangedEvent;
+import com.receiptprocessor.model.Item;
+import com.receiptprocessor.model.Receipt;
+import com.receiptprocessor.repository.ReceiptRepository;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Canonicalizes the retailer names and item descriptions of stored receipts.
+ * Most receipts come from a few hundred retailers and a few thousand products, but each one arrives with its own
+ * copies of those strings. Replacing them with the instance held in a {@link StringDictionary} leaves the store
+ * with one copy per distinct value; the request's copies become garbage right away.
+ * Runs before the other listeners, so indexes and ledgers built from the same event see the canonical instances.
+ */
+@Component
+public class ReceiptInterner {
+
+    private final StringDictionary retailers;
+    private final StringDictionary descriptions;
+
+    /**
+     * @param receiptRepository Store whose current receipts are interned on startup.
+     * @param meterRegistry     Registry for the dictionary metrics.
+     * @param maxRetailers      Most retailer names held; 0 disables interning them.
+     * @param maxDescriptions   Most item descriptions held; 0 disables interning them.
+     */
+    public ReceiptInterner(ReceiptRepository receiptRepository, MeterRegistry meterRegistry,
+                           @Value("${receipts.intern.max-retailers:10000}") int maxRetailers,
+                           @Value("${receipts.intern.max-descriptions:100000}") int maxDescriptions) {
+        this.retailers = new StringDictionary("retailer", maxRetailers, meterRegistry);
+        this.descriptions = new StringDictionary("description", maxDescriptions, meterRegistry);
+        receiptRepository.getAllReceipts().values().forEach(this::intern);
+    }
+
+    /**
+     * Interns the strings of new and updated receipts.
+     *
+     * @param event The store change.
+     */
+    @EventListener
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    public void onReceiptChanged(ReceiptChangedEvent event) {
+        switch (event.type()) {
+            case SAVED -> intern(event.receipt());
+            case UPDATED -> intern(event.receipt().getItems());
+            case TAGGED, REMOVED -> {
+                // No new strings
+            }
+        }
+    }
+
+    public StringDictionary getRetailers() {
+        return retailers;
+    }
+
+    public StringDictionary getDescriptions() {
+        return descriptions;
+    }
+
+    private void intern(Receipt receipt) {
+        receipt.setRetailer(retailers.intern(receipt.getRetailer()));
+        intern(receipt.getItems());
+    }
+
+    private void intern(List<Item> items) {
+        if (items == null) {
+            return;
+        }
+        for (Item item : items) {
+            if (item != null) {
+                item.setShortDescription(descriptions.intern(item.getShortDescription()));
+            }
+        }
+    }
+}
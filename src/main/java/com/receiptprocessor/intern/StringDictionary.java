@@ -0,0 +1,129 @@
+package com.receiptprocessor.intern;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+
+import com.receiptprocessor.metrics.ReceiptMetrics;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+
+/**
+ * A bounded, concurrent dictionary of canonical string instances.
+ * - {@link #intern} returns the instance already held for an equal string, so repeated values share one copy.
+ *   A hit is a lock-free map lookup and a counter increment.
+ * - Each entry counts its uses. When the dictionary grows past its bound, entries used only once are evicted until
+ *   it is back under nine tenths of the bound. If that is not enough, all counts are halved and the sweep repeats,
+ *   so rarely seen strings make room first and counts from long ago fade.
+ * Strings already handed out stay valid after eviction; a value that comes back just gets a new canonical copy.
+ * Metrics are tagged with the dictionary name: {@code receipts.intern.lookups} (by result),
+ * {@code receipts.intern.evictions}, {@code receipts.intern.deduplicated.bytes} (estimated heap no longer held by
+ * duplicate copies) and the {@code receipts.intern.entries} gauge.
+ */
+public final class StringDictionary {
+
+    private static final class Entry {
+        private final String value;
+        private final AtomicInteger hits = new AtomicInteger(1);
+
+        private Entry(String value) {
+            this.value = value;
+        }
+    }
+
+    private final int maxEntries;
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+    private final ReentrantLock evicting = new ReentrantLock();
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter evictions;
+    private final Counter deduplicatedBytes;
+
+    /**
+     * @param name          The dictionary name, used as the metrics tag.
+     * @param maxEntries    The most strings held; 0 disables interning.
+     * @param meterRegistry Registry for the dictionary metrics.
+     */
+    public StringDictionary(String name, int maxEntries, MeterRegistry meterRegistry) {
+        if (maxEntries < 0) {
+            throw new IllegalArgumentException("Invalid size for the " + name + " dictionary: " + maxEntries);
+        }
+        this.maxEntries = maxEntries;
+        Tags tags = Tags.of("dictionary", name);
+        this.hits = meterRegistry.counter("receipts.intern.lookups", tags.and("result", "hit"));
+        this.misses = meterRegistry.counter("receipts.intern.lookups", tags.and("result", "miss"));
+        this.evictions = meterRegistry.counter("receipts.intern.evictions", tags);
+        this.deduplicatedBytes = Counter.builder("receipts.intern.deduplicated.bytes")
+                .tags(tags)
+                .baseUnit("bytes")
+                .description("Estimated heap of duplicate strings replaced by a canonical instance")
+                .register(meterRegistry);
+        meterRegistry.gauge("receipts.intern.entries", tags, entries, Map::size);
+    }
+
+    /**
+     * Returns the canonical instance of a string.
+     *
+     * @param value The string.
+     * @return The instance held for an equal string, or {@code value} itself if it was not held yet.
+     */
+    public String intern(String value) {
+        if (value == null || maxEntries == 0) {
+            return value;
+        }
+        Entry entry = entries.get(value);
+        if (entry == null) {
+            Entry added = new Entry(value);
+            entry = entries.putIfAbsent(value, added);
+            if (entry == null) {
+                misses.increment();
+                if (entries.size() > maxEntries) {
+                    evict();
+                }
+                return value;
+            }
+        }
+        entry.hits.getAndUpdate(count -> count == Integer.MAX_VALUE ? count : count + 1);
+        hits.increment();
+        if (entry.value != value) {
+            deduplicatedBytes.increment(ReceiptMetrics.estimateBytes(value));
+        }
+        return entry.value;
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    /**
+     * Evicts entries used only once, halving all counts between sweeps until the dictionary is back under
+     * nine tenths of its bound. Callers that find an eviction already running move on.
+     */
+    private void evict() {
+        if (!evicting.tryLock()) {
+            return;
+        }
+        try {
+            int target = maxEntries - maxEntries / 10;
+            while (true) {
+                for (Map.Entry<String, Entry> candidate : entries.entrySet()) {
+                    Entry entry = candidate.getValue();
+                    if (entry.hits.get() <= 1 && entries.remove(candidate.getKey(), entry)) {
+                        evictions.increment();
+                    }
+                }
+                if (entries.size() <= target) {
+                    return;
+                }
+                for (Entry entry : entries.values()) {
+                    entry.hits.updateAndGet(count -> count >> 1);
+                }
+            }
+        } finally {
+            evicting.unlock();
+        }
+    }
+}
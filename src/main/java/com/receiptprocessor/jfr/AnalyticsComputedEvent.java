@@ -0,0 +1,21 @@
+package com.receiptprocessor.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name("com.receiptprocessor.AnalyticsComputed")
+@Label("Analytics Computed")
+@Category("Receipt Processor")
+@Description("A computation of the store-wide analytics")
+public class AnalyticsComputedEvent extends Event {
+
+    @Label("Receipt Count")
+    public int size;
+
+    @Label("Parallel")
+    @Description("True if the parallel fork-join path was used")
+    public boolean parallel;
+}
@@ -0,0 +1,35 @@
+package com.receiptprocessor.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name("com.receiptprocessor.PointsCalculated")
+@Label("Points Calculated")
+@Category("Receipt Processor")
+@Description("Points calculation for one receipt, with the points awarded by each rule")
+public class PointsCalculatedEvent extends Event {
+
+    @Label("Item Count")
+    public int itemCount;
+
+    @Label("Total Points")
+    public int points;
+
+    @Label("Retailer Points")
+    public int retailerPoints;
+
+    @Label("Total Amount Points")
+    public int totalAmountPoints;
+
+    @Label("Item Points")
+    public int itemPoints;
+
+    @Label("Purchase Day Points")
+    public int purchaseDayPoints;
+
+    @Label("Purchase Time Points")
+    public int purchaseTimePoints;
+}
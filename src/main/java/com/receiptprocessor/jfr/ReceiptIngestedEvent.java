@@ -0,0 +1,29 @@
+package com.receiptprocessor.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Timespan;
+
+@Name("com.receiptprocessor.ReceiptIngested")
+@Label("Receipt Ingested")
+@Category("Receipt Processor")
+@Description("A receipt submitted to /receipts/process, from request binding to storage")
+public class ReceiptIngestedEvent extends Event {
+
+    @Label("Receipt ID")
+    public String receiptId;
+
+    @Label("Item Count")
+    public int itemCount;
+
+    @Label("Validation Time")
+    @Timespan(Timespan.NANOSECONDS)
+    public long validationTime;
+
+    @Label("Accepted")
+    @Description("False if the receipt was rejected by validation")
+    public boolean accepted;
+}
@@ -0,0 +1,24 @@
+package com.receiptprocessor.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name("com.receiptprocessor.SortExecuted")
+@Label("Sort Executed")
+@Category("Receipt Processor")
+@Description("A sort of the stored receipts")
+public class SortExecutedEvent extends Event {
+
+    @Label("Criteria")
+    public String criteria;
+
+    @Label("Receipt Count")
+    public int size;
+
+    @Label("Parallel")
+    @Description("True if the parallel, precomputed-key path was used")
+    public boolean parallel;
+}
@@ -0,0 +1,25 @@
+package com.receiptprocessor.json;
+
+import org.springframework.aot.hint.BindingReflectionHintsRegistrar;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.RuntimeHintsRegistrar;
+
+import com.receiptprocessor.model.Item;
+import com.receiptprocessor.model.Receipt;
+import com.receiptprocessor.timing.SlowRequestLog;
+
+/**
+ * Reflection hints for the types Jackson binds, needed when the application runs as a GraalVM native image.
+ * - {@link SlowRequestLog.SlowRequest} is serialized through reflective record binding.
+ * - {@link Receipt} and {@link Item} are bound by {@link ReceiptJsonModule}, but are registered as well so that any
+ *   mapper built without the module (outside the application's builder) still works.
+ */
+public class ReceiptJsonHints implements RuntimeHintsRegistrar {
+
+    private final BindingReflectionHintsRegistrar bindingRegistrar = new BindingReflectionHintsRegistrar();
+
+    @Override
+    public void registerHints(RuntimeHints hints, ClassLoader classLoader) {
+        bindingRegistrar.registerReflectionHints(hints.reflection(), Receipt.class, Item.class, SlowRequestLog.SlowRequest.class);
+    }
+}
@@ -0,0 +1,229 @@
+package com.receiptprocessor.json;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.stereotype.Component;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonStreamContext;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.JsonDeserializer;
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import com.receiptprocessor.model.Item;
+import com.receiptprocessor.model.Receipt;
+import com.receiptprocessor.model.ScoreRequest;
+
+/**
+ * Streaming (de)serializers for {@link Receipt} and {@link Item}.
+ * Spring Boot registers every Jackson module bean with the application's mapper builder, so the JSON, CBOR and
+ * Smile converters and the response cache all bind receipts through this code instead of reflective bean binding.
+ * - Fields are matched with a switch on the name, unknown fields are skipped with {@code skipChildren()}.
+ * - Item lists are pre-sized for a typical receipt so they rarely grow while parsing, and handed to the receipt
+ *   once instead of replacing default lists allocated up front.
+ * - Score requests (one receipt or an array) are bound in the same pass, keeping per-element binding errors.
+ * - Scalars are read as text, so numbers sent for string fields (e.g. {@code "total": 12.5}) are still accepted.
+ */
+@Component
+public class ReceiptJsonModule extends SimpleModule {
+
+    private static final long serialVersionUID = 1L;
+
+    /** Initial capacity for item lists; sized for the 30-item receipts we typically see. */
+    static final int EXPECTED_ITEMS = 32;
+
+    public ReceiptJsonModule() {
+        super("ReceiptJsonModule");
+        addDeserializer(Receipt.class, new ReceiptDeserializer());
+        addDeserializer(Item.class, new ItemDeserializer());
+        addDeserializer(ScoreRequest.class, new ScoreRequestDeserializer());
+        addSerializer(Receipt.class, new ReceiptSerializer());
+        addSerializer(Item.class, new ItemSerializer());
+    }
+
+    static class ReceiptDeserializer extends JsonDeserializer<Receipt> {
+
+        @Override
+        public Receipt deserialize(JsonParser p, DeserializationContext ctxt) throws IOException {
+            if (!p.isExpectedStartObjectToken()) {
+                return (Receipt) ctxt.handleUnexpectedToken(Receipt.class, p);
+            }
+            String retailer = null;
+            String purchaseDate = null;
+            String purchaseTime = null;
+            String total = null;
+            String accountId = null;
+            List<Item> items = null;
+            List<String> tags = null;
+            for (String field = p.nextFieldName(); field != null; field = p.nextFieldName()) {
+                JsonToken token = p.nextToken();
+                switch (field) {
+                    case "retailer" -> retailer = readText(p, ctxt);
+                    case "purchaseDate" -> purchaseDate = readText(p, ctxt);
+                    case "purchaseTime" -> purchaseTime = readText(p, ctxt);
+                    case "total" -> total = readText(p, ctxt);
+                    case "items" -> items = token == JsonToken.VALUE_NULL ? null : readItems(p, ctxt);
+                    case "tags" -> tags = token == JsonToken.VALUE_NULL ? null : readTags(p, ctxt);
+                    case "accountId" -> accountId = readText(p, ctxt);
+                    default -> p.skipChildren();
+                }
+            }
+
+            // The lists are set once; only a receipt without them gets empty ones
+            Receipt receipt = new Receipt(items != null ? items : new ArrayList<>(), tags != null ? tags : new ArrayList<>());
+            receipt.setRetailer(retailer);
+            receipt.setPurchaseDate(purchaseDate);
+            receipt.setPurchaseTime(purchaseTime);
+            receipt.setTotal(total);
+            receipt.setAccountId(accountId);
+            return receipt;
+        }
+
+        private static List<Item> readItems(JsonParser p, DeserializationContext ctxt) throws IOException {
+            if (!p.isExpectedStartArrayToken()) {
+                ctxt.handleUnexpectedToken(List.class, p);
+            }
+            List<Item> items = new ArrayList<>(EXPECTED_ITEMS);
+            while (p.nextToken() != JsonToken.END_ARRAY) {
+                items.add(p.currentToken() == JsonToken.VALUE_NULL ? null : readItem(p, ctxt));
+            }
+            return items;
+        }
+
+        private static List<String> readTags(JsonParser p, DeserializationContext ctxt) throws IOException {
+            if (!p.isExpectedStartArrayToken()) {
+                ctxt.handleUnexpectedToken(List.class, p);
+            }
+            List<String> tags = new ArrayList<>();
+            while (p.nextToken() != JsonToken.END_ARRAY) {
+                tags.add(readText(p, ctxt));
+            }
+            return tags;
+        }
+    }
+
+    static class ScoreRequestDeserializer extends JsonDeserializer<ScoreRequest> {
+
+        private final ReceiptDeserializer receiptDeserializer = new ReceiptDeserializer();
+
+        @Override
+        public ScoreRequest deserialize(JsonParser p, DeserializationContext ctxt) throws IOException {
+            if (!p.isExpectedStartArrayToken()) {
+                return ScoreRequest.single(receiptDeserializer.deserialize(p, ctxt));
+            }
+            JsonStreamContext array = p.getParsingContext();
+            List<Receipt> receipts = new ArrayList<>();
+            List<String> errors = new ArrayList<>();
+            while (p.nextToken() != JsonToken.END_ARRAY) {
+                Receipt receipt = null;
+                String error = null;
+                if (p.currentToken() != JsonToken.VALUE_NULL) {
+                    try {
+                        receipt = receiptDeserializer.deserialize(p, ctxt);
+                    } catch (JsonMappingException e) {
+                        error = "Invalid receipt: " + e.getOriginalMessage();
+                        while (p.getParsingContext() != array) {
+                            p.nextToken(); // Skip the rest of the element
+                        }
+                    }
+                }
+                receipts.add(receipt);
+                errors.add(error);
+            }
+            return new ScoreRequest(receipts, errors, true);
+        }
+    }
+
+    static class ItemDeserializer extends JsonDeserializer<Item> {
+
+        @Override
+        public Item deserialize(JsonParser p, DeserializationContext ctxt) throws IOException {
+            return readItem(p, ctxt);
+        }
+    }
+
+    static class ReceiptSerializer extends JsonSerializer<Receipt> {
+
+        @Override
+        public void serialize(Receipt receipt, JsonGenerator gen, SerializerProvider serializers) throws IOException {
+            gen.writeStartObject(receipt);
+            gen.writeStringField("retailer", receipt.getRetailer());
+            gen.writeStringField("purchaseDate", receipt.getPurchaseDate());
+            gen.writeStringField("purchaseTime", receipt.getPurchaseTime());
+            gen.writeStringField("total", receipt.getTotal());
+            gen.writeFieldName("items");
+            if (receipt.getItems() == null) {
+                gen.writeNull();
+            } else {
+                gen.writeStartArray(receipt.getItems(), receipt.getItems().size());
+                for (Item item : receipt.getItems()) {
+                    writeItem(item, gen);
+                }
+                gen.writeEndArray();
+            }
+            gen.writeFieldName("tags");
+            gen.writeStartArray(receipt.getTags(), receipt.getTags().size());
+            for (String tag : receipt.getTags()) {
+                gen.writeString(tag);
+            }
+            gen.writeEndArray();
+            if (receipt.getAccountId() != null) {
+                gen.writeStringField("accountId", receipt.getAccountId());
+            }
+            gen.writeEndObject();
+        }
+    }
+
+    static class ItemSerializer extends JsonSerializer<Item> {
+
+        @Override
+        public void serialize(Item item, JsonGenerator gen, SerializerProvider serializers) throws IOException {
+            writeItem(item, gen);
+        }
+    }
+
+    private static Item readItem(JsonParser p, DeserializationContext ctxt) throws IOException {
+        if (!p.isExpectedStartObjectToken()) {
+            return (Item) ctxt.handleUnexpectedToken(Item.class, p);
+        }
+        String shortDescription = null;
+        String price = null;
+        for (String field = p.nextFieldName(); field != null; field = p.nextFieldName()) {
+            p.nextToken();
+            switch (field) {
+                case "shortDescription" -> shortDescription = readText(p, ctxt);
+                case "price" -> price = readText(p, ctxt);
+                default -> p.skipChildren();
+            }
+        }
+        return new Item(shortDescription, price);
+    }
+
+    private static void writeItem(Item item, JsonGenerator gen) throws IOException {
+        if (item == null) {
+            gen.writeNull();
+            return;
+        }
+        gen.writeStartObject(item);
+        gen.writeStringField("shortDescription", item.getShortDescription());
+        gen.writeStringField("price", item.getPrice());
+        gen.writeEndObject();
+    }
+
+    private static String readText(JsonParser p, DeserializationContext ctxt) throws IOException {
+        JsonToken token = p.currentToken();
+        if (token == JsonToken.VALUE_NULL) {
+            return null;
+        }
+        if (!token.isScalarValue()) {
+            return (String) ctxt.handleUnexpectedToken(String.class, p);
+        }
+        return p.getValueAsString();
+    }
+}
@@ -0,0 +1,52 @@
+package com.receiptprocessor.logging;
+
+import java.io.IOException;
+import java.util.concurrent.ThreadLocalRandom;
+
+import org.slf4j.MDC;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * Marks a random fraction of requests for DEBUG tracing.
+ * The mark lives in the MDC for the duration of the request; {@link SampledDebugTurboFilter}
+ * then lets application DEBUG logs through for those requests only.
+ */
+@Component
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+public class DebugSamplingFilter extends OncePerRequestFilter {
+
+    static final String MDC_KEY = "debugSampled";
+    static final String SAMPLED = "true";
+
+    private final double debugRate;
+
+    /**
+     * @param debugRate Fraction of requests (0.0 to 1.0) whose DEBUG logs are written.
+     */
+    public DebugSamplingFilter(@Value("${logging.sampling.debug-rate:0}") double debugRate) {
+        this.debugRate = debugRate;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        if (debugRate <= 0 || ThreadLocalRandom.current().nextDouble() >= debugRate) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+        MDC.put(MDC_KEY, SAMPLED);
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            MDC.remove(MDC_KEY);
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package com.receiptprocessor.logging;
+
+import org.slf4j.MDC;
+import org.slf4j.Marker;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.turbo.TurboFilter;
+import ch.qos.logback.core.spi.FilterReply;
+
+/**
+ * Lets DEBUG events from application loggers through for requests picked by {@link DebugSamplingFilter},
+ * even when those loggers are configured at INFO.
+ * Runs before the level check on every logging call, so it only does a level comparison and,
+ * for DEBUG calls, one MDC lookup.
+ */
+public class SampledDebugTurboFilter extends TurboFilter {
+
+    private static final String APPLICATION_LOGGER_PREFIX = "com.receiptprocessor.";
+
+    @Override
+    public FilterReply decide(Marker marker, Logger logger, Level level, String format, Object[] params, Throwable t) {
+        if (level != Level.DEBUG || !logger.getName().startsWith(APPLICATION_LOGGER_PREFIX)) {
+            return FilterReply.NEUTRAL;
+        }
+        return DebugSamplingFilter.SAMPLED.equals(MDC.get(DebugSamplingFilter.MDC_KEY)) ? FilterReply.ACCEPT : FilterReply.NEUTRAL;
+    }
+}
@@ -0,0 +1,111 @@
+package com.receiptprocessor.metrics;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import com.receiptprocessor.event.ReceiptChangedEvent;
+import com.receiptprocessor.model.Item;
+import com.receiptprocessor.model.Receipt;
+import com.receiptprocessor.repository.ReceiptRepository;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+/**
+ * Store-level metrics exposed on /actuator/prometheus:
+ * - receipts.store.size: number of stored receipts.
+ * - receipts.store.estimated.bytes: estimated heap held by stored receipts, maintained incrementally on every write.
+ * Rejected receipts are counted by {@link ValidationMetrics}.
+ */
+@Component
+public class ReceiptMetrics implements MeterBinder {
+
+    // Rough HotSpot sizes with compressed oops: object headers, references and list backing arrays
+    private static final long RECEIPT_BYTES = 40 + 2 * 40;
+    private static final long ITEM_BYTES = 24 + 4;
+    private static final long STRING_BYTES = 40;
+
+    private final ReceiptRepository receiptRepository;
+    private final AtomicLong estimatedBytes = new AtomicLong();
+
+    public ReceiptMetrics(ReceiptRepository receiptRepository) {
+        this.receiptRepository = receiptRepository;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("receipts.store.size", receiptRepository, repository -> repository.getAllReceipts().size())
+                .description("Number of stored receipts")
+                .register(registry);
+        Gauge.builder("receipts.store.estimated.bytes", estimatedBytes, AtomicLong::get)
+                .description("Estimated heap bytes held by stored receipts")
+                .baseUnit("bytes")
+                .register(registry);
+    }
+
+    /**
+     * Keeps the heap estimate in step with the store.
+     *
+     * @param event The store change.
+     */
+    @EventListener
+    public void onReceiptChanged(ReceiptChangedEvent event) {
+        switch (event.type()) {
+            case SAVED -> estimatedBytes.addAndGet(estimateBytes(event.receipt()));
+            case UPDATED -> estimatedBytes.addAndGet(estimateBytes(event.items()) - estimateBytes(event.previousItems()));
+            case TAGGED -> estimatedBytes.addAndGet(estimateTagBytes(event.addedTags()));
+            case REMOVED -> estimatedBytes.addAndGet(-estimateBytes(event.receipt()));
+        }
+    }
+
+    /**
+     * Estimates the heap footprint of a receipt, including its strings and items.
+     *
+     * @param receipt The receipt.
+     * @return The estimated size in bytes.
+     */
+    public static long estimateBytes(Receipt receipt) {
+        long bytes = RECEIPT_BYTES
+                + estimateBytes(receipt.getRetailer())
+                + estimateBytes(receipt.getPurchaseDate())
+                + estimateBytes(receipt.getPurchaseTime())
+                + estimateBytes(receipt.getTotal())
+                + estimateBytes(receipt.getItems())
+                + estimateTagBytes(receipt.getTags())
+                + estimateBytes(receipt.getAccountId());
+        return bytes;
+    }
+
+    private static long estimateTagBytes(List<String> tags) {
+        long bytes = 0;
+        for (String tag : tags) {
+            bytes += 4 + estimateBytes(tag);
+        }
+        return bytes;
+    }
+
+    private static long estimateBytes(List<Item> items) {
+        if (items == null) {
+            return 0;
+        }
+        long bytes = 0;
+        for (Item item : items) {
+            bytes += ITEM_BYTES + estimateBytes(item.getShortDescription()) + estimateBytes(item.getPrice());
+        }
+        return bytes;
+    }
+
+    /**
+     * Estimates the heap footprint of a string.
+     *
+     * @param value The string, may be null.
+     * @return The estimated size in bytes.
+     */
+    public static long estimateBytes(String value) {
+        return value == null ? 0 : STRING_BYTES + value.length();
+    }
+}
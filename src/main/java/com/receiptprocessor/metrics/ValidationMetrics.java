@@ -0,0 +1,30 @@
+package com.receiptprocessor.metrics;
+
+import org.springframework.stereotype.Component;
+
+import com.receiptprocessor.exception.ReceiptValidationException;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Counts rejected receipts in {@code receipts.validation.failures}, tagged by reason.
+ */
+@Component
+public class ValidationMetrics {
+
+    private final MeterRegistry meterRegistry;
+
+    public ValidationMetrics(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * Counts a rejected receipt. Failures without a specific reason are counted as "invalid".
+     *
+     * @param e The validation error.
+     */
+    public void recordFailure(IllegalArgumentException e) {
+        String reason = e instanceof ReceiptValidationException validation ? validation.getReason() : "invalid";
+        meterRegistry.counter("receipts.validation.failures", "reason", reason).increment();
+    }
+}
@@ -0,0 +1,15 @@
+package com.receiptprocessor.model;
+
+/**
+ * One item-level change to a stored receipt, applied in request order by {@code PATCH /receipts/{id}/items}.
+ * - "add": inserts {@code item} at {@code index}, or appends it when no index is given.
+ * - "remove": removes the item at {@code index}.
+ * - "replace": replaces the item at {@code index} with {@code item}.
+ * Indexes refer to the item list as left by the preceding operations.
+ *
+ * @param op    The operation: "add", "remove" or "replace".
+ * @param index The zero-based item position.
+ * @param item  The new item for "add" and "replace".
+ */
+public record ItemPatch(String op, Integer index, Item item) {
+}
@@ -1,9 +1,13 @@
 package com.receiptprocessor.model;
 
 import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Locale;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.receiptprocessor.exception.ReceiptValidationException;
 
 import lombok.Data;
 
@@ -13,8 +17,25 @@ public class Receipt {
     private String purchaseDate;
     private String purchaseTime;
     private String total;
-    private List<Item> items = new ArrayList<>();
-    private List<String> tags = new ArrayList<>(); 
+    private List<Item> items;
+    private List<String> tags;
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private String accountId;
+
+	public Receipt() {
+		this(new ArrayList<>(), new ArrayList<>());
+	}
+
+	/**
+	 * Creates a receipt that holds the given lists as is, for deserializers that build the lists themselves.
+	 *
+	 * @param items The items, not copied.
+	 * @param tags  The tags, not copied.
+	 */
+	public Receipt(List<Item> items, List<String> tags) {
+		this.items = items;
+		this.tags = tags;
+	}
 	public String getRetailer() {
 		return retailer;
 	}
@@ -51,14 +72,27 @@ public class Receipt {
      * @throws IllegalArgumentException if any price is negative.
      */
     public void validatePrices() {
+        validateItemPrices(items);
+    }
+
+    /**
+     * Validates that all prices in the given items list are non-negative.
+     *
+     * @param items The items to validate.
+     * @throws IllegalArgumentException if any price is negative.
+     */
+    public static void validateItemPrices(List<Item> items) {
         for (Item item : items) {
+            if (item.getPrice() == null) {
+                throw new ReceiptValidationException("invalid_price", "Invalid price format: null");
+            }
             try {
                 double price = Double.parseDouble(item.getPrice());
                 if (price < 0) {
-                    throw new IllegalArgumentException("Item price cannot be negative: " + item.getPrice());
+                    throw new ReceiptValidationException("negative_price", "Item price cannot be negative: " + item.getPrice());
                 }
             } catch (NumberFormatException e) {
-                throw new IllegalArgumentException("Invalid price format: " + item.getPrice());
+                throw new ReceiptValidationException("invalid_price", "Invalid price format: " + item.getPrice());
             }
         }
     }
@@ -66,12 +100,20 @@ public class Receipt {
     /**
      * Validates that the purchase date is not in the future.
      * 
-     * @throws IllegalArgumentException if the purchase date is in the future.
+     * @throws IllegalArgumentException if the purchase date is missing, malformed or in the future.
      */
     public void validatePurchaseDate() {
-        LocalDate date = LocalDate.parse(this.purchaseDate);
+        if (this.purchaseDate == null) {
+            throw new ReceiptValidationException("invalid_date", "Invalid purchase date format: null");
+        }
+        LocalDate date;
+        try {
+            date = LocalDate.parse(this.purchaseDate);
+        } catch (DateTimeParseException e) {
+            throw new ReceiptValidationException("invalid_date", "Invalid purchase date format: " + this.purchaseDate);
+        }
         if (date.isAfter(LocalDate.now())) {
-            throw new IllegalArgumentException("Purchase date cannot be in the future: " + this.purchaseDate);
+            throw new ReceiptValidationException("future_date", "Purchase date cannot be in the future: " + this.purchaseDate);
         }
     }
 	public List<String> getTags() {
@@ -80,9 +122,44 @@ public class Receipt {
 	public void setTags(List<String> tags) {
 		this.tags = tags != null ? tags : new ArrayList<>();;
 	}
+	/**
+     * The optional customer or loyalty account the receipt belongs to.
+     */
+	public String getAccountId() {
+		return accountId;
+	}
+	public void setAccountId(String accountId) {
+		this.accountId = accountId;
+	}
 	public void addTag(String tag) {
-		if (tag != null && !tag.isEmpty() && !tags.contains(tag)) {
+		String key = tagKey(tag);
+		if (!key.isEmpty() && tags.stream().noneMatch(existing -> tagKey(existing).equals(key))) {
             tags.add(tag);
         }
 	}
+	/**
+	 * Copies the receipt's fields as of now. The store replaces item and tag lists rather than modifying them,
+	 * so the copy shares the lists.
+	 *
+	 * @return A copy that later writes to this receipt do not change.
+	 */
+	public Receipt copy() {
+		Receipt copy = new Receipt(items, tags);
+		copy.setRetailer(retailer);
+		copy.setPurchaseDate(purchaseDate);
+		copy.setPurchaseTime(purchaseTime);
+		copy.setTotal(total);
+		copy.setAccountId(accountId);
+		return copy;
+	}
+	/**
+	 * Normalizes a tag for comparison: tags are matched case-insensitively and ignoring surrounding blanks,
+	 * both when assigned and when indexed.
+	 *
+	 * @param tag The tag, may be null.
+	 * @return The normalized tag, empty for a null or blank tag.
+	 */
+	public static String tagKey(String tag) {
+		return tag == null ? "" : tag.trim().toLowerCase(Locale.ROOT);
+	}
 }
\ No newline at end of file
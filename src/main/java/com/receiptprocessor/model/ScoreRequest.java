@@ -0,0 +1,28 @@
+package com.receiptprocessor.model;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Body of a {@code POST /receipts/score} request: one receipt or an array of receipts.
+ * Decoded in a single streaming pass by {@link com.receiptprocessor.json.ReceiptJsonModule}; an array element that
+ * cannot be bound is kept as an error, so one malformed receipt does not fail the whole batch.
+ *
+ * @param receipts The receipts in request order; null for a JSON null or an element that could not be bound.
+ * @param errors   The binding error of each element, or null where it was bound; same size as {@code receipts}.
+ * @param batch    True if the body was an array.
+ */
+public record ScoreRequest(List<Receipt> receipts, List<String> errors, boolean batch) {
+
+    /**
+     * @param receipt The receipt sent on its own.
+     * @return A request for a single receipt.
+     */
+    public static ScoreRequest single(Receipt receipt) {
+        return new ScoreRequest(Collections.singletonList(receipt), Collections.singletonList(null), false);
+    }
+
+    public int size() {
+        return receipts.size();
+    }
+}
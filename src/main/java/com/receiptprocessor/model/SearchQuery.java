@@ -0,0 +1,97 @@
+package com.receiptprocessor.model;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+
+/**
+ * Filters, sort order and limit of a {@code GET /receipts/search} request. Every filter is optional;
+ * receipts must match all filters that are given.
+ *
+ * @param minTotal  Lowest total, inclusive, in cents; sub-cent amounts are rounded up.
+ * @param maxTotal  Highest total, inclusive, in cents; sub-cent amounts are rounded down.
+ * @param fromDate  First purchase date, inclusive.
+ * @param toDate    Last purchase date, inclusive.
+ * @param retailer  Retailer name, case-insensitive.
+ * @param tag       Tag the receipt must carry, case-insensitive.
+ * @param item      Text that some item description must contain, case-insensitive.
+ * @param minPoints Lowest points, inclusive.
+ * @param sort      Sort criteria as for {@code /receipts/sort}, or null for no particular order.
+ * @param limit     Maximum number of receipts returned.
+ */
+public record SearchQuery(Long minTotal, Long maxTotal, LocalDate fromDate, LocalDate toDate, String retailer,
+                          String tag, String item, Integer minPoints, String sort, int limit) {
+
+    public static final int DEFAULT_LIMIT = 100;
+    public static final int MAX_LIMIT = 1000;
+
+    /**
+     * Parses the query parameters of a search request.
+     *
+     * @return The query.
+     * @throws IllegalArgumentException if a parameter is malformed.
+     */
+    public static SearchQuery of(String minTotal, String maxTotal, String fromDate, String toDate, String retailer,
+                                 String tag, String item, String minPoints, String sort, String limit) {
+        int parsedLimit = parseLimit(limit);
+        return new SearchQuery(parseCents("minTotal", minTotal, RoundingMode.CEILING),
+                parseCents("maxTotal", maxTotal, RoundingMode.FLOOR),
+                parseDate("fromDate", fromDate), parseDate("toDate", toDate), blankToNull(retailer), blankToNull(tag),
+                blankToNull(item), minPoints == null ? null : parseInt("minPoints", minPoints), blankToNull(sort), parsedLimit);
+    }
+
+    /**
+     * Parses a result limit, defaulting to {@link #DEFAULT_LIMIT}.
+     *
+     * @param limit The limit parameter, may be null.
+     * @return The limit.
+     * @throws IllegalArgumentException if it is not between 1 and {@link #MAX_LIMIT}.
+     */
+    public static int parseLimit(String limit) {
+        int parsedLimit = limit == null ? DEFAULT_LIMIT : parseInt("limit", limit);
+        if (parsedLimit < 1 || parsedLimit > MAX_LIMIT) {
+            throw new IllegalArgumentException("Invalid limit: " + limit + ". Use 1 to " + MAX_LIMIT + ".");
+        }
+        return parsedLimit;
+    }
+
+    /**
+     * Parses an optional ISO date parameter.
+     *
+     * @param name  The parameter name, for the error message.
+     * @param value The parameter value, may be null.
+     * @return The date, or null if not given.
+     * @throws IllegalArgumentException if the date is malformed.
+     */
+    public static LocalDate parseDate(String name, String value) {
+        try {
+            return value == null ? null : LocalDate.parse(value.trim());
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("Invalid " + name + ": " + value + ". Use YYYY-MM-DD.");
+        }
+    }
+
+    /**
+     * Parses an optional amount bound into whole cents, rounding so that no total outside the bound matches.
+     */
+    private static Long parseCents(String name, String value, RoundingMode rounding) {
+        try {
+            return value == null ? null : new BigDecimal(value.trim()).movePointRight(2).setScale(0, rounding).longValueExact();
+        } catch (NumberFormatException | ArithmeticException e) {
+            throw new IllegalArgumentException("Invalid " + name + ": " + value);
+        }
+    }
+
+    private static int parseInt(String name, String value) {
+        try {
+            return Integer.parseInt(value.trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid " + name + ": " + value);
+        }
+    }
+
+    private static String blankToNull(String value) {
+        return value == null || value.isBlank() ? null : value.trim();
+    }
+}
@@ -0,0 +1,426 @@
+package com.receiptprocessor.reactive;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.server.ServerRequest;
+import org.springframework.web.reactive.function.server.ServerResponse;
+
+import com.receiptprocessor.changefeed.ChangeFeedService;
+import com.receiptprocessor.exception.ChangeOffsetExpiredException;
+import com.receiptprocessor.metrics.ValidationMetrics;
+import com.receiptprocessor.model.Item;
+import com.receiptprocessor.model.ItemPatch;
+import com.receiptprocessor.model.SearchQuery;
+import com.receiptprocessor.model.Receipt;
+import com.receiptprocessor.model.ScoreRequest;
+import com.receiptprocessor.repository.ReceiptRepository;
+import com.receiptprocessor.service.AccountLedgerService;
+import com.receiptprocessor.service.AnalyticsService;
+import com.receiptprocessor.service.InventoryService;
+import com.receiptprocessor.service.PointsService;
+import com.receiptprocessor.service.ReceiptSortingService;
+import com.receiptprocessor.service.ScoringService;
+import com.receiptprocessor.service.SearchService;
+import com.receiptprocessor.service.SnapshotService;
+import com.receiptprocessor.service.TaggingService;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+/**
+ * Non-blocking handlers for the receipt endpoints, sharing the service layer with {@code ReceiptController}.
+ * - Request bodies are decoded without blocking the event loop.
+ * - CPU-heavy work (sorting, analytics) runs on the parallel scheduler so Netty threads stay free for I/O.
+ */
+@Component
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveReceiptHandler {
+
+    private static final ParameterizedTypeReference<List<Item>> ITEM_LIST = new ParameterizedTypeReference<>() {
+    };
+    private static final ParameterizedTypeReference<List<ItemPatch>> ITEM_PATCHES = new ParameterizedTypeReference<>() {
+    };
+    private static final ParameterizedTypeReference<Map<String, Object>> RECEIPT_DATA = new ParameterizedTypeReference<>() {
+    };
+    private static final ParameterizedTypeReference<Map<String, String>> INGEST_RESULT = new ParameterizedTypeReference<>() {
+    };
+
+    private final ReceiptRepository receiptRepository;
+    private final PointsService pointsService;
+    private final TaggingService taggingService;
+    private final AnalyticsService analyticsService;
+    private final ReceiptSortingService receiptSortingService;
+    private final ScoringService scoringService;
+    private final InventoryService inventoryService;
+    private final SearchService searchService;
+    private final AccountLedgerService accountLedgerService;
+    private final SnapshotService snapshotService;
+    private final ChangeFeedService changeFeedService;
+    private final ValidationMetrics validationMetrics;
+
+    public ReactiveReceiptHandler(ReceiptRepository receiptRepository, PointsService pointsService, TaggingService taggingService,
+                                  AnalyticsService analyticsService, ReceiptSortingService receiptSortingService,
+                                  ScoringService scoringService, InventoryService inventoryService,
+                                  SearchService searchService, AccountLedgerService accountLedgerService,
+                                  SnapshotService snapshotService, ChangeFeedService changeFeedService,
+                                  ValidationMetrics validationMetrics) {
+        this.receiptRepository = receiptRepository;
+        this.pointsService = pointsService;
+        this.taggingService = taggingService;
+        this.analyticsService = analyticsService;
+        this.receiptSortingService = receiptSortingService;
+        this.scoringService = scoringService;
+        this.inventoryService = inventoryService;
+        this.searchService = searchService;
+        this.accountLedgerService = accountLedgerService;
+        this.snapshotService = snapshotService;
+        this.changeFeedService = changeFeedService;
+        this.validationMetrics = validationMetrics;
+    }
+
+    /**
+     * Processes a receipt and returns a unique identifier for it.
+     *
+     * @param request The request carrying the receipt.
+     * @return A response containing the generated receipt ID, or a 400 if the receipt is invalid.
+     */
+    public Mono<ServerResponse> processReceipt(ServerRequest request) {
+        return request.bodyToMono(Receipt.class)
+                .map(this::saveReceipt)
+                .flatMap(id -> ServerResponse.ok().bodyValue(Collections.singletonMap("id", id)))
+                .switchIfEmpty(badRequest("Invalid request. Receipt cannot be null."))
+                .onErrorResume(IllegalArgumentException.class, e -> badRequest(e.getMessage()));
+    }
+
+    /**
+     * Bulk ingest: decodes a stream of receipts (JSON array or NDJSON) and stores each as it arrives.
+     * The response streams one result per receipt, either its ID or the validation error.
+     *
+     * @param request The request carrying the receipts.
+     * @return A streamed list of per-receipt results.
+     */
+    public Mono<ServerResponse> processReceipts(ServerRequest request) {
+        Flux<Map<String, String>> results = request.bodyToFlux(Receipt.class)
+                .map(receipt -> {
+                    try {
+                        return Collections.singletonMap("id", saveReceipt(receipt));
+                    } catch (IllegalArgumentException e) {
+                        return Collections.singletonMap("error", e.getMessage());
+                    }
+                });
+        return ServerResponse.ok()
+                .contentType(streamingType(request))
+                .body(results, INGEST_RESULT);
+    }
+
+    /**
+     * Scores one receipt, or an array of receipts, without storing anything.
+     *
+     * @param request The request carrying a receipt or an array of receipts.
+     * @return The points and tags, the list of per-receipt results, or a 400 if a single receipt is invalid.
+     */
+    public Mono<ServerResponse> scoreReceipts(ServerRequest request) {
+        return request.bodyToMono(ScoreRequest.class)
+                .publishOn(Schedulers.parallel())
+                .map(scoringService::score)
+                .flatMap(result -> ServerResponse.ok().bodyValue(result))
+                .switchIfEmpty(badRequest("Invalid request. Receipt cannot be null."))
+                .onErrorResume(IllegalArgumentException.class, e -> badRequest(e.getMessage()));
+    }
+
+    /**
+     * Retrieves the calculated points for a given receipt ID.
+     *
+     * @param request The request carrying the receipt ID.
+     * @return A response containing the calculated points or a 404 if not found.
+     */
+    public Mono<ServerResponse> getPoints(ServerRequest request) {
+        Receipt receipt = receiptRepository.getReceipt(request.pathVariable("id"));
+        if (receipt == null) {
+            return ServerResponse.notFound().build();
+        }
+        return ServerResponse.ok().bodyValue(Collections.singletonMap("points", pointsService.calculatePoints(receipt)));
+    }
+
+    /**
+     * Tags a receipt based on predefined conditions.
+     *
+     * @param request The request carrying the receipt ID.
+     * @return A response containing the assigned tags or a 404 if not found.
+     */
+    public Mono<ServerResponse> tagReceipt(ServerRequest request) {
+        String id = request.pathVariable("id");
+        Receipt receipt = receiptRepository.getReceipt(id);
+        if (receipt == null) {
+            return ServerResponse.notFound().build();
+        }
+
+        List<String> tags = taggingService.generateTags(receipt);
+        Receipt tagged = receiptRepository.addTags(id, tags);
+        if (tagged == null) {
+            return ServerResponse.notFound().build();
+        }
+
+        Map<String, Object> response = new HashMap<>();
+        response.put("id", id);
+        response.put("tags", tagged.getTags());
+        return ServerResponse.ok().bodyValue(response);
+    }
+
+    /**
+     * Streams receipts sorted by total (ascending), date (descending) or points (descending).
+     * With {@code Accept: application/x-ndjson} each receipt is flushed as its own line.
+     * The sort completes before the first line is written; after that each receipt's response map is only built
+     * when the client's demand reaches it, so the full result list is never held in memory.
+     * With {@code Cache-Control: max-stale} the latest snapshot may be streamed instead.
+     *
+     * @param request The request carrying the "criteria" query parameter.
+     * @return A streamed, sorted list of receipts.
+     */
+    public Mono<ServerResponse> sortReceipts(ServerRequest request) {
+        String criteria = request.queryParam("criteria").orElse(null);
+        if (criteria == null) {
+            return badRequest("Missing sorting criteria. Use 'total', 'date', or 'points'.");
+        }
+
+        SnapshotService.Snapshot snapshot = snapshotService.getSnapshot(request.headers().firstHeader(HttpHeaders.CACHE_CONTROL));
+        if (snapshot != null) {
+            return Mono.fromCallable(() -> snapshot.sorted(criteria))
+                    .flatMap(receipts -> ServerResponse.ok()
+                            .header(HttpHeaders.AGE, Long.toString(snapshotService.ageMillis(snapshot) / 1000))
+                            .contentType(streamingType(request))
+                            .body(Flux.fromIterable(receipts), RECEIPT_DATA))
+                    .onErrorResume(IllegalArgumentException.class, e -> badRequest(e.getMessage()));
+        }
+
+        return Mono.fromCallable(() -> receiptSortingService.streamSortedReceipts(criteria))
+                .subscribeOn(Schedulers.parallel())
+                .flatMap(receipts -> ServerResponse.ok()
+                        .contentType(streamingType(request))
+                        .body(Flux.fromStream(receipts), RECEIPT_DATA))
+                .onErrorResume(IllegalArgumentException.class, e -> badRequest(e.getMessage()));
+    }
+
+    /**
+     * Searches receipts by any combination of filters, optionally sorted and limited.
+     *
+     * @param request The request carrying the filters as query parameters.
+     * @return The matching receipts, or a 400 for malformed parameters.
+     */
+    public Mono<ServerResponse> searchReceipts(ServerRequest request) {
+        return Mono.fromCallable(() -> searchService.search(SearchQuery.of(
+                        request.queryParam("minTotal").orElse(null), request.queryParam("maxTotal").orElse(null),
+                        request.queryParam("fromDate").orElse(null), request.queryParam("toDate").orElse(null),
+                        request.queryParam("retailer").orElse(null), request.queryParam("tag").orElse(null),
+                        request.queryParam("item").orElse(null), request.queryParam("minPoints").orElse(null),
+                        request.queryParam("sort").orElse(null), request.queryParam("limit").orElse(null))))
+                .subscribeOn(Schedulers.parallel())
+                .flatMap(result -> ServerResponse.ok().bodyValue(result))
+                .onErrorResume(IllegalArgumentException.class, e -> badRequest(e.getMessage()));
+    }
+
+    /**
+     * Finds receipts with items matching a product query, with counts and spend per product.
+     *
+     * @param request The request carrying the "q" query parameter.
+     * @return The product counts and spend, or a 400 for a missing or empty query.
+     */
+    public Mono<ServerResponse> lookupProducts(ServerRequest request) {
+        String query = request.queryParam("q").orElse(null);
+        if (query == null) {
+            return badRequest("Missing product query. Use letters or digits, e.g. q=gatorade.");
+        }
+        return Mono.fromCallable(() -> searchService.lookupProducts(query))
+                .subscribeOn(Schedulers.parallel())
+                .flatMap(result -> ServerResponse.ok().bodyValue(result))
+                .onErrorResume(IllegalArgumentException.class, e -> badRequest(e.getMessage()));
+    }
+
+    /**
+     * Counts the receipts carrying each tag.
+     *
+     * @param request The request.
+     * @return The counts by tag.
+     */
+    public Mono<ServerResponse> getTagCounts(ServerRequest request) {
+        return ServerResponse.ok().bodyValue(searchService.getTagCounts());
+    }
+
+    /**
+     * Receipts carrying every one of the tags, optionally within a purchase date range.
+     *
+     * @param request The request carrying "tags" and optional "fromDate", "toDate" and "limit" parameters.
+     * @return The segment size and receipt IDs, or a 400 for malformed parameters.
+     */
+    public Mono<ServerResponse> intersectTags(ServerRequest request) {
+        return tagSegment(request, true);
+    }
+
+    /**
+     * Receipts carrying at least one of the tags, optionally within a purchase date range.
+     *
+     * @param request The request carrying "tags" and optional "fromDate", "toDate" and "limit" parameters.
+     * @return The segment size and receipt IDs, or a 400 for malformed parameters.
+     */
+    public Mono<ServerResponse> unionTags(ServerRequest request) {
+        return tagSegment(request, false);
+    }
+
+    private Mono<ServerResponse> tagSegment(ServerRequest request, boolean all) {
+        return Mono.fromCallable(() -> searchService.querySegment(
+                        request.queryParams().getOrDefault("tags", List.of()).stream()
+                                .flatMap(tags -> Arrays.stream(tags.split(",")))
+                                .toList(),
+                        all,
+                        SearchQuery.parseDate("fromDate", request.queryParam("fromDate").orElse(null)),
+                        SearchQuery.parseDate("toDate", request.queryParam("toDate").orElse(null)),
+                        SearchQuery.parseLimit(request.queryParam("limit").orElse(null))))
+                .subscribeOn(Schedulers.parallel())
+                .flatMap(result -> ServerResponse.ok().bodyValue(result))
+                .onErrorResume(IllegalArgumentException.class, e -> badRequest(e.getMessage()));
+    }
+
+    /**
+     * Running points and spend of a customer account.
+     *
+     * @param request The request carrying the account ID.
+     * @return The account balance or a 404 if no receipt is linked to the account.
+     */
+    public Mono<ServerResponse> getAccountBalance(ServerRequest request) {
+        AccountLedgerService.Balance balance = accountLedgerService.getBalance(request.pathVariable("accountId"));
+        if (balance == null) {
+            return ServerResponse.notFound().build();
+        }
+        return ServerResponse.ok().bodyValue(balance.toMap());
+    }
+
+    /**
+     * Accounts with the most points, highest first.
+     *
+     * @param request The request carrying an optional "limit" parameter (default 10).
+     * @return The top account balances, or a 400 for an invalid limit.
+     */
+    public Mono<ServerResponse> getTopAccounts(ServerRequest request) {
+        return Mono.fromCallable(() -> accountLedgerService.getTopAccounts(
+                        Integer.parseInt(request.queryParam("limit").orElse("10"))).stream()
+                        .map(AccountLedgerService.Balance::toMap)
+                        .toList())
+                .flatMap(top -> ServerResponse.ok().bodyValue(top))
+                .onErrorResume(IllegalArgumentException.class, e -> badRequest(e.getMessage()));
+    }
+
+    /**
+     * Change feed: store changes in order from an offset, optionally waiting for the first one.
+     *
+     * @param request The request carrying optional "from" (default 0), "limit" (default 100) and "waitMs" (default 0).
+     * @return The batch of changes, a 400 for invalid arguments, or a 410 if the offset is no longer held.
+     */
+    public Mono<ServerResponse> getChanges(ServerRequest request) {
+        return Mono.defer(() -> Mono.fromFuture(changeFeedService.poll(
+                        Long.parseLong(request.queryParam("from").orElse("0")),
+                        Integer.parseInt(request.queryParam("limit").orElse("100")),
+                        Long.parseLong(request.queryParam("waitMs").orElse("0")))))
+                .flatMap(batch -> ServerResponse.ok().bodyValue(batch.toMap()))
+                .onErrorResume(IllegalArgumentException.class, e -> badRequest(e.getMessage()))
+                .onErrorResume(ChangeOffsetExpiredException.class,
+                        e -> ServerResponse.status(HttpStatus.GONE).bodyValue(Collections.singletonMap("error", e.getMessage())));
+    }
+
+    /**
+     * Updates a receipt's items and recalculates points.
+     *
+     * @param request The request carrying the receipt ID and the new items.
+     * @return A response containing the updated items and points, a 400 for invalid items, or a 404 if not found.
+     */
+    public Mono<ServerResponse> updateReceiptInventory(ServerRequest request) {
+        String id = request.pathVariable("id");
+        Receipt receipt = receiptRepository.getReceipt(id);
+        if (receipt == null) {
+            return ServerResponse.notFound().build();
+        }
+
+        return request.bodyToMono(ITEM_LIST)
+                .flatMap(items -> {
+                    try {
+                        Receipt.validateItemPrices(items);
+                    } catch (IllegalArgumentException e) {
+                        validationMetrics.recordFailure(e);
+                        throw e;
+                    }
+                    receiptRepository.updateReceiptInventory(id, items);
+                    return ServerResponse.ok().bodyValue(Map.of(
+                            "id", id,
+                            "updatedItems", items,
+                            "updatedPoints", pointsService.calculatePoints(receipt)
+                    ));
+                })
+                .onErrorResume(IllegalArgumentException.class, e -> badRequest(e.getMessage()));
+    }
+
+    /**
+     * Adds, removes or replaces individual items of a receipt, adjusting its points incrementally.
+     *
+     * @param request The request carrying the receipt ID and the item operations.
+     * @return The receipt ID, item count and updated points, a 400 for an invalid operation, or a 404 if not found.
+     */
+    public Mono<ServerResponse> patchReceiptItems(ServerRequest request) {
+        String id = request.pathVariable("id");
+        return request.bodyToMono(ITEM_PATCHES)
+                .flatMap(ops -> {
+                    Map<String, Object> result = inventoryService.patchItems(id, ops);
+                    return result == null ? ServerResponse.notFound().build() : ServerResponse.ok().bodyValue(result);
+                })
+                .switchIfEmpty(badRequest("No item operations given."))
+                .onErrorResume(IllegalArgumentException.class, e -> badRequest(e.getMessage()));
+    }
+
+    /**
+     * Retrieves real-time analytics on processed receipts, or the latest snapshot if the client sends
+     * {@code Cache-Control: max-stale}.
+     *
+     * @param request The request.
+     * @return The analytics.
+     */
+    public Mono<ServerResponse> getAnalytics(ServerRequest request) {
+        SnapshotService.Snapshot snapshot = snapshotService.getSnapshot(request.headers().firstHeader(HttpHeaders.CACHE_CONTROL));
+        if (snapshot != null) {
+            return ServerResponse.ok()
+                    .header(HttpHeaders.AGE, Long.toString(snapshotService.ageMillis(snapshot) / 1000))
+                    .bodyValue(snapshot.analytics());
+        }
+        return Mono.fromCallable(analyticsService::getAnalytics)
+                .subscribeOn(Schedulers.parallel())
+                .flatMap(analytics -> ServerResponse.ok().bodyValue(analytics));
+    }
+
+    private String saveReceipt(Receipt receipt) {
+        try {
+            receipt.validatePrices();  // Validate non-negative item prices
+            receipt.validatePurchaseDate();  // Validate purchase date is not in the future
+        } catch (IllegalArgumentException e) {
+            validationMetrics.recordFailure(e);
+            throw e;
+        }
+        return receiptRepository.saveReceipt(receipt);
+    }
+
+    private MediaType streamingType(ServerRequest request) {
+        return request.headers().accept().contains(MediaType.APPLICATION_NDJSON)
+                ? MediaType.APPLICATION_NDJSON : MediaType.APPLICATION_JSON;
+    }
+
+    private Mono<ServerResponse> badRequest(String message) {
+        return ServerResponse.badRequest().bodyValue(Collections.singletonMap("error", message));
+    }
+}
@@ -0,0 +1,52 @@
+package com.receiptprocessor.reactive;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.web.embedded.netty.NettyReactiveWebServerFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.reactive.function.server.RouterFunction;
+import org.springframework.web.reactive.function.server.RouterFunctions;
+import org.springframework.web.reactive.function.server.ServerResponse;
+
+/**
+ * Routes for the reactive (WebFlux/Netty) deployment.
+ * Active only when the application runs as a reactive web application, e.g. with the "reactive" profile;
+ * the servlet deployment keeps using {@code ReceiptController}.
+ */
+@Configuration
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveReceiptRouter {
+
+    /**
+     * Serves the reactive deployment from Netty; without this, Boot would prefer Tomcat because
+     * the servlet starter is on the classpath too.
+     */
+    @Bean
+    public NettyReactiveWebServerFactory nettyReactiveWebServerFactory() {
+        return new NettyReactiveWebServerFactory();
+    }
+
+    @Bean
+    public RouterFunction<ServerResponse> receiptRoutes(ReactiveReceiptHandler handler) {
+        return RouterFunctions.route()
+                .path("/receipts", builder -> builder
+                        .POST("/process", handler::processReceipt)
+                        .POST("/process/bulk", handler::processReceipts)
+                        .POST("/score", handler::scoreReceipts)
+                        .GET("/{id}/points", handler::getPoints)
+                        .POST("/{id}/tag", handler::tagReceipt)
+                        .GET("/sort", handler::sortReceipts)
+                        .GET("/search", handler::searchReceipts)
+                        .GET("/products", handler::lookupProducts)
+                        .GET("/tags", handler::getTagCounts)
+                        .GET("/tags/intersect", handler::intersectTags)
+                        .GET("/tags/union", handler::unionTags)
+                        .GET("/accounts", handler::getTopAccounts)
+                        .GET("/accounts/{accountId}", handler::getAccountBalance)
+                        .GET("/changes", handler::getChanges)
+                        .PUT("/{id}/inventory/update", handler::updateReceiptInventory)
+                        .PATCH("/{id}/items", handler::patchReceiptItems)
+                        .GET("/analytics", handler::getAnalytics))
+                .build();
+    }
+}
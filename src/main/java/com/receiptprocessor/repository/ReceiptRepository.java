@@ -1,15 +1,33 @@
 package com.receiptprocessor.repository;
 
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
 
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Repository;
+
+import com.receiptprocessor.event.ReceiptChangedEvent;
+import com.receiptprocessor.model.Item;
 import com.receiptprocessor.model.Receipt;
 
 @Repository
 public class ReceiptRepository {
     private final ConcurrentHashMap<String, Receipt> storage = new ConcurrentHashMap<>();
+    private final AtomicLong version = new AtomicLong();
+    private final ApplicationEventPublisher eventPublisher;
+
+    /**
+     * @param eventPublisher Publisher for {@link ReceiptChangedEvent}s raised on every write.
+     */
+    public ReceiptRepository(ApplicationEventPublisher eventPublisher) {
+        this.eventPublisher = eventPublisher;
+    }
 
     /**
      * Saves a receipt and generates a unique ID.
@@ -20,9 +38,114 @@ public class ReceiptRepository {
     public String saveReceipt(Receipt receipt) {
         String id = UUID.randomUUID().toString();
         storage.put(id, receipt);
+        version.incrementAndGet();
+        eventPublisher.publishEvent(new ReceiptChangedEvent(ReceiptChangedEvent.Type.SAVED, id, receipt, null));
         return id;
     }
 
+    /**
+     * Stores a receipt under a known ID, e.g. when reloading a backup.
+     * Listeners see it like any other saved receipt.
+     *
+     * @param id      The receipt ID.
+     * @param receipt The receipt to store.
+     * @return True if stored, false if a receipt with that ID already exists.
+     */
+    public boolean restoreReceipt(String id, Receipt receipt) {
+        if (storage.putIfAbsent(id, receipt) != null) {
+            return false;
+        }
+        version.incrementAndGet();
+        eventPublisher.publishEvent(new ReceiptChangedEvent(ReceiptChangedEvent.Type.SAVED, id, receipt, null));
+        return true;
+    }
+
+    /**
+     * Replaces the items of a stored receipt. Holds the receipt's monitor like {@link #addTags}, so the previous
+     * items handed to listeners are exactly the ones this call replaced, paired with the items it wrote.
+     *
+     * @param id    The receipt ID.
+     * @param items The new list of items.
+     * @return The updated receipt or null if not found.
+     */
+    public Receipt updateReceiptInventory(String id, List<Item> items) {
+        Receipt receipt = storage.get(id);
+        if (receipt == null) {
+            return null;
+        }
+        List<Item> previousItems;
+        synchronized (receipt) {
+            previousItems = receipt.getItems();
+            receipt.setItems(items);
+        }
+        version.incrementAndGet();
+        eventPublisher.publishEvent(new ReceiptChangedEvent(ReceiptChangedEvent.Type.UPDATED, id, receipt, previousItems, items, null));
+        return receipt;
+    }
+
+    /**
+     * Assigns tags to a stored receipt. Tags the receipt already carries, in any letter case, are skipped.
+     * The tag list is replaced rather than modified, so readers iterating the old list are not disturbed.
+     *
+     * @param id   The receipt ID.
+     * @param tags The tags to assign.
+     * @return The tagged receipt or null if not found.
+     */
+    public Receipt addTags(String id, List<String> tags) {
+        Receipt receipt = storage.get(id);
+        if (receipt == null) {
+            return null;
+        }
+        List<String> added = new ArrayList<>();
+        synchronized (receipt) {
+            List<String> updated = new ArrayList<>(receipt.getTags());
+            Set<String> keys = new HashSet<>();
+            for (String tag : updated) {
+                keys.add(Receipt.tagKey(tag));
+            }
+            for (String tag : tags) {
+                String key = Receipt.tagKey(tag);
+                if (!key.isEmpty() && keys.add(key)) {
+                    updated.add(tag);
+                    added.add(tag);
+                }
+            }
+            if (added.isEmpty()) {
+                return receipt;
+            }
+            receipt.setTags(updated);
+        }
+        version.incrementAndGet();
+        eventPublisher.publishEvent(new ReceiptChangedEvent(ReceiptChangedEvent.Type.TAGGED, id, receipt, null, null, added));
+        return receipt;
+    }
+
+    /**
+     * Removes a receipt from the store.
+     *
+     * @param id The receipt ID.
+     * @return The removed receipt or null if not found.
+     */
+    public Receipt removeReceipt(String id) {
+        Receipt receipt = storage.remove(id);
+        if (receipt == null) {
+            return null;
+        }
+        version.incrementAndGet();
+        eventPublisher.publishEvent(new ReceiptChangedEvent(ReceiptChangedEvent.Type.REMOVED, id, receipt, null));
+        return receipt;
+    }
+
+    /**
+     * Returns the store-wide version, incremented on every write.
+     * Read endpoints use it to detect that their cached results are still current.
+     *
+     * @return The current store version.
+     */
+    public long getVersion() {
+        return version.get();
+    }
+
     /**
      * Retrieves a receipt by its ID.
      *
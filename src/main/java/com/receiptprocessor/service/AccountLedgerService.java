@@ -0,0 +1,220 @@
+package com.receiptprocessor.service;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import com.receiptprocessor.event.ReceiptChangedEvent;
+import com.receiptprocessor.index.ReceiptIndex;
+import com.receiptprocessor.model.Receipt;
+import com.receiptprocessor.repository.ReceiptRepository;
+
+/**
+ * Running points and spend per customer account, maintained from {@link ReceiptChangedEvent}s.
+ * - Each receipt with an {@code accountId} contributes its points and total to its account. On ingest the
+ *   contribution is added; on inventory updates only the difference is applied; on removal it is taken back.
+ * - Accounts are spread over a fixed set of lock stripes, so writes to different accounts run in parallel while
+ *   the balance and the account's position in the ranking change together.
+ * - Balances are immutable snapshots in a hash map, so a balance read is a single lookup; the ranking is a skip
+ *   list ordered by points, so the top N accounts cost O(log n + N).
+ * Receipts without an account are not tracked.
+ */
+@Service
+public class AccountLedgerService {
+
+    /** Number of lock stripes; a power of two so the stripe is picked with a mask. */
+    static final int STRIPES = 64;
+
+    /** Most accounts returned by one leaderboard request. */
+    public static final int MAX_TOP = 1000;
+
+    /**
+     * An account's running totals.
+     *
+     * @param accountId  The account ID.
+     * @param points     Points earned across the account's receipts.
+     * @param spendCents Total spend across the account's receipts, in cents.
+     * @param receipts   Number of receipts linked to the account.
+     */
+    public record Balance(String accountId, long points, long spendCents, int receipts) {
+
+        public Map<String, Object> toMap() {
+            Map<String, Object> map = new LinkedHashMap<>();
+            map.put("accountId", accountId);
+            map.put("points", points);
+            map.put("spend", BigDecimal.valueOf(spendCents, 2).toPlainString());
+            map.put("receipts", receipts);
+            return map;
+        }
+    }
+
+    /**
+     * What one receipt currently adds to its account.
+     */
+    private record Contribution(String accountId, int points, long spendCents) {
+    }
+
+    private static final Comparator<Balance> BY_POINTS = Comparator.comparingLong(Balance::points).reversed()
+            .thenComparing(Balance::accountId);
+
+    private final PointsService pointsService;
+    private final Object[] stripes = new Object[STRIPES];
+    private final Map<String, Balance> balances = new ConcurrentHashMap<>();
+    private final Map<String, Contribution> contributions = new ConcurrentHashMap<>();
+    private final ConcurrentSkipListSet<Balance> ranking = new ConcurrentSkipListSet<>(BY_POINTS);
+
+    public AccountLedgerService(ReceiptRepository receiptRepository, PointsService pointsService) {
+        this.pointsService = pointsService;
+        for (int i = 0; i < STRIPES; i++) {
+            stripes[i] = new Object();
+        }
+        receiptRepository.getAllReceipts().forEach(this::credit);
+    }
+
+    /**
+     * Keeps the ledger in step with the store.
+     *
+     * @param event The store change.
+     */
+    @EventListener
+    public void onReceiptChanged(ReceiptChangedEvent event) {
+        switch (event.type()) {
+            case SAVED -> credit(event.id(), event.receipt());
+            case UPDATED -> recalculate(event.id(), event.receipt());
+            case REMOVED -> debit(event.id());
+            case TAGGED -> {
+                // Tags do not change points or spend
+            }
+        }
+    }
+
+    /**
+     * Returns an account's running totals.
+     *
+     * @param accountId The account ID.
+     * @return The balance, or null if no receipt is linked to the account.
+     */
+    public Balance getBalance(String accountId) {
+        return accountId == null ? null : balances.get(accountId.trim());
+    }
+
+    /**
+     * Returns the accounts with the most points, highest first.
+     *
+     * @param limit The number of accounts.
+     * @return Up to {@code limit} balances.
+     * @throws IllegalArgumentException if the limit is not between 1 and {@link #MAX_TOP}.
+     */
+    public List<Balance> getTopAccounts(int limit) {
+        if (limit < 1 || limit > MAX_TOP) {
+            throw new IllegalArgumentException("Invalid limit: " + limit + ". Use 1 to " + MAX_TOP + ".");
+        }
+        List<Balance> top = new ArrayList<>(Math.min(limit, balances.size()));
+        for (Balance balance : ranking) {
+            top.add(balance);
+            if (top.size() == limit) {
+                break;
+            }
+        }
+        return top;
+    }
+
+    public int getAccountCount() {
+        return balances.size();
+    }
+
+    /**
+     * Normalizes an account ID as given on a receipt.
+     *
+     * @param accountId The raw account ID.
+     * @return The trimmed ID, or null if it is missing or blank.
+     */
+    public static String accountKey(String accountId) {
+        if (accountId == null) {
+            return null;
+        }
+        String trimmed = accountId.trim();
+        return trimmed.isEmpty() ? null : trimmed;
+    }
+
+    private void credit(String id, Receipt receipt) {
+        String accountId = accountKey(receipt.getAccountId());
+        if (accountId == null) {
+            return;
+        }
+        synchronized (stripe(accountId)) {
+            Contribution contribution = contribution(accountId, receipt);
+            if (contributions.putIfAbsent(id, contribution) == null) {
+                apply(accountId, contribution.points(), contribution.spendCents(), 1);
+            }
+        }
+    }
+
+    private void recalculate(String id, Receipt receipt) {
+        String accountId = accountKey(receipt.getAccountId());
+        if (accountId == null) {
+            return;
+        }
+        synchronized (stripe(accountId)) {
+            // Points are read under the stripe lock, so the last of two racing updates always sees the newest items
+            Contribution previous = contributions.get(id);
+            if (previous == null) {
+                return; // Removed in the meantime
+            }
+            Contribution current = contribution(accountId, receipt);
+            contributions.put(id, current);
+            apply(accountId, current.points() - previous.points(), current.spendCents() - previous.spendCents(), 0);
+        }
+    }
+
+    private void debit(String id) {
+        Contribution contribution = contributions.get(id);
+        if (contribution == null) {
+            return;
+        }
+        synchronized (stripe(contribution.accountId())) {
+            Contribution removed = contributions.remove(id);
+            if (removed != null) {
+                apply(removed.accountId(), -removed.points(), -removed.spendCents(), -1);
+            }
+        }
+    }
+
+    /**
+     * Applies a change to an account; must hold the account's stripe lock.
+     */
+    private void apply(String accountId, long points, long spendCents, int receipts) {
+        Balance previous = balances.get(accountId);
+        Balance updated = previous == null
+                ? new Balance(accountId, points, spendCents, receipts)
+                : new Balance(accountId, previous.points() + points, previous.spendCents() + spendCents,
+                        previous.receipts() + receipts);
+        if (previous != null) {
+            ranking.remove(previous);
+        }
+        if (updated.receipts() == 0) {
+            balances.remove(accountId);
+            return;
+        }
+        balances.put(accountId, updated);
+        ranking.add(updated);
+    }
+
+    private Contribution contribution(String accountId, Receipt receipt) {
+        Long cents = ReceiptIndex.parseCents(receipt.getTotal());
+        return new Contribution(accountId, pointsService.calculatePoints(receipt), cents == null ? 0 : cents);
+    }
+
+    private Object stripe(String accountId) {
+        int hash = accountId.hashCode();
+        return stripes[(hash ^ (hash >>> 16)) & (STRIPES - 1)];
+    }
+}
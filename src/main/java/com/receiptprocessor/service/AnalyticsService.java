@@ -1,15 +1,23 @@
 package com.receiptprocessor.service;
 
+import com.receiptprocessor.jfr.AnalyticsComputedEvent;
 import com.receiptprocessor.model.Receipt;
 import com.receiptprocessor.repository.ReceiptRepository;
+import com.receiptprocessor.timing.RequestTimings;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import io.micrometer.core.annotation.Timed;
+
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Comparator;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.OptionalInt;
+import java.util.stream.IntStream;
 
 
 @Service
@@ -17,11 +25,24 @@ public class AnalyticsService {
     private final ReceiptRepository receiptRepository;
     private final PointsService pointsService;
 
+    // Store size at which analytics switches to parallel fork-join reductions
+    @Value("${receipts.parallel.threshold:10000}")
+    private int parallelThreshold = 10_000;
+
     public AnalyticsService(ReceiptRepository receiptRepository, PointsService pointsService) {
         this.receiptRepository = receiptRepository;
         this.pointsService = pointsService;
     }
 
+    /**
+     * Sets the store size at which analytics runs in parallel, for instances not configured by Spring.
+     *
+     * @param parallelThreshold The number of receipts.
+     */
+    public void setParallelThreshold(int parallelThreshold) {
+        this.parallelThreshold = parallelThreshold;
+    }
+
     /**
      * **Real-Time Analytics Calculation**
      * - Computes the total number of receipts processed.
@@ -30,16 +51,35 @@ public class AnalyticsService {
      *
      * @return A map containing the computed analytics.
      */
+    @Timed(value = "receipts.analytics", description = "Time to compute store analytics", histogram = true)
     public Map<String, Object> getAnalytics() {
-        List<Receipt> receipts = new ArrayList<>(receiptRepository.getAllReceipts().values());
+        AnalyticsComputedEvent event = new AnalyticsComputedEvent();
+        event.begin();
+
+        if (receiptRepository.getAllReceipts().size() >= parallelThreshold) {
+            Map<String, Object> analytics = getAnalyticsParallel();
+            commit(event, (int) analytics.get("totalReceipts"), true);
+            return analytics;
+        }
+
+        List<Receipt> receipts;
+        try (RequestTimings.Stage stage = RequestTimings.stage("copy")) {
+            receipts = new ArrayList<>(receiptRepository.getAllReceipts().values());
+        }
 
         int totalReceipts = receipts.size();
-        double avgPoints = totalReceipts == 0 ? 0.0 :
-                receipts.stream().mapToInt(pointsService::calculatePoints).average().orElse(0.0);
+        double avgPoints;
+        try (RequestTimings.Stage stage = RequestTimings.stage("points")) {
+            avgPoints = totalReceipts == 0 ? 0.0 :
+                    receipts.stream().mapToInt(pointsService::calculatePoints).average().orElse(0.0);
+        }
 
-        Optional<Receipt> maxTotalReceipt = receipts.stream()
-                .filter(r -> isValidNumber(r.getTotal())) // Ensure the total is valid
-                .max(Comparator.comparingDouble(r -> Double.parseDouble(r.getTotal())));
+        Optional<Receipt> maxTotalReceipt;
+        try (RequestTimings.Stage stage = RequestTimings.stage("aggregate")) {
+            maxTotalReceipt = receipts.stream()
+                    .filter(r -> isValidNumber(r.getTotal())) // Ensure the total is valid
+                    .max(Comparator.comparingDouble(r -> Double.parseDouble(r.getTotal())));
+        }
 
         // Construct analytics map safely
         Map<String, Object> analytics = new HashMap<>();
@@ -48,8 +88,12 @@ public class AnalyticsService {
         
         if (maxTotalReceipt.isPresent()) {
             Receipt receipt = maxTotalReceipt.get();
+            String receiptId;
+            try (RequestTimings.Stage stage = RequestTimings.stage("lookup")) {
+                receiptId = receiptRepository.getReceiptId(receipt);
+            }
             analytics.put("highestTotalReceipt", Map.of(
-                    "id", receiptRepository.getReceiptId(receipt),
+                    "id", receiptId,
                     "total", receipt.getTotal(),
                     "points", pointsService.calculatePoints(receipt)
             ));
@@ -57,6 +101,84 @@ public class AnalyticsService {
             analytics.put("highestTotalReceipt", null); //  Avoids NullPointerException
         }
 
+        commit(event, totalReceipts, false);
+        return analytics;
+    }
+
+    private void commit(AnalyticsComputedEvent event, int size, boolean parallel) {
+        event.end();
+        if (event.shouldCommit()) {
+            event.size = size;
+            event.parallel = parallel;
+            event.commit();
+        }
+    }
+
+    /**
+     * Parallel analytics path for large stores.
+     * - Points and parsed totals are computed once per receipt into primitive arrays with parallel streams.
+     * - The average and the highest total are fork-join reductions over those arrays; ties keep the first
+     *   receipt in store order, so the result matches the sequential path.
+     * - The receipt ID comes straight from the store entry instead of a reverse lookup.
+     *
+     * @return A map containing the computed analytics.
+     */
+    private Map<String, Object> getAnalyticsParallel() {
+        List<Map.Entry<String, Receipt>> entries;
+        try (RequestTimings.Stage stage = RequestTimings.stage("copy")) {
+            entries = new ArrayList<>(receiptRepository.getAllReceipts().entrySet());
+        }
+
+        int[] points;
+        try (RequestTimings.Stage stage = RequestTimings.stage("points")) {
+            points = entries.parallelStream()
+                    .mapToInt(entry -> pointsService.calculatePoints(entry.getValue()))
+                    .toArray();
+        }
+
+        return summarize(entries, points);
+    }
+
+    /**
+     * Aggregates receipts whose points are already computed, e.g. a snapshot copy of the store,
+     * with the same reductions as the parallel path.
+     *
+     * @param entries The receipts with their IDs.
+     * @param points  The points of each receipt, by position.
+     * @return A map containing the computed analytics.
+     */
+    public Map<String, Object> summarize(List<Map.Entry<String, Receipt>> entries, int[] points) {
+        int totalReceipts = entries.size();
+        double avgPoints;
+        OptionalInt maxTotalIndex;
+        try (RequestTimings.Stage stage = RequestTimings.stage("aggregate")) {
+            double[] totals = entries.parallelStream()
+                    .mapToDouble(entry -> isValidNumber(entry.getValue().getTotal())
+                            ? Double.parseDouble(entry.getValue().getTotal()) : Double.NaN)
+                    .toArray();
+
+            avgPoints = totalReceipts == 0 ? 0.0 : Arrays.stream(points).parallel().average().orElse(0.0);
+
+            maxTotalIndex = IntStream.range(0, totalReceipts).parallel()
+                    .filter(i -> !Double.isNaN(totals[i]))
+                    .reduce((a, b) -> Double.compare(totals[a], totals[b]) >= 0 ? a : b);
+        }
+
+        Map<String, Object> analytics = new HashMap<>();
+        analytics.put("totalReceipts", totalReceipts);
+        analytics.put("averagePoints", avgPoints);
+
+        if (maxTotalIndex.isPresent()) {
+            int i = maxTotalIndex.getAsInt();
+            analytics.put("highestTotalReceipt", Map.of(
+                    "id", entries.get(i).getKey(),
+                    "total", entries.get(i).getValue().getTotal(),
+                    "points", points[i]
+            ));
+        } else {
+            analytics.put("highestTotalReceipt", null);
+        }
+
         return analytics;
     }
 
@@ -0,0 +1,86 @@
+package com.receiptprocessor.service;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import com.receiptprocessor.event.ReceiptChangedEvent;
+
+/**
+ * Coalesced live analytics, independent of the transport the updates are pushed over.
+ * Listeners are called on the publishing thread and must not block; transports that write to clients
+ * (see {@code AnalyticsSseAdapter}) hand the snapshot off to their own senders.
+ */
+@Service
+public class AnalyticsStreamService {
+
+    private static final Logger log = LoggerFactory.getLogger(AnalyticsStreamService.class);
+
+    private final AnalyticsService analyticsService;
+    private final List<Consumer<Map<String, Object>>> listeners = new CopyOnWriteArrayList<>();
+    private final AtomicBoolean dirty = new AtomicBoolean();
+    private volatile Map<String, Object> snapshot;
+
+    public AnalyticsStreamService(AnalyticsService analyticsService) {
+        this.analyticsService = analyticsService;
+    }
+
+    /**
+     * Registers a listener and hands it the current analytics right away.
+     *
+     * @param listener Receives each analytics snapshot; must not block.
+     */
+    public void subscribe(Consumer<Map<String, Object>> listener) {
+        listeners.add(listener);
+        Map<String, Object> current = snapshot;
+        listener.accept(current != null && !dirty.get() ? current : analyticsService.getAnalytics());
+    }
+
+    /**
+     * Stops handing snapshots to a listener.
+     *
+     * @param listener The listener passed to {@link #subscribe(Consumer)}.
+     */
+    public void unsubscribe(Consumer<Map<String, Object>> listener) {
+        listeners.remove(listener);
+    }
+
+    /**
+     * Marks the analytics as stale. Runs on the ingest thread, so it only flips a flag.
+     *
+     * @param event The store change.
+     */
+    @EventListener
+    public void onReceiptChanged(ReceiptChangedEvent event) {
+        dirty.set(true);
+    }
+
+    /**
+     * Coalesces all changes since the last run into a single analytics snapshot and hands it to every listener.
+     * Runs at most once per configured interval, regardless of the ingest rate.
+     */
+    @Scheduled(fixedDelayString = "${receipts.analytics.stream.interval-ms:1000}")
+    public void publish() {
+        if (listeners.isEmpty() || !dirty.getAndSet(false)) {
+            return;
+        }
+        Map<String, Object> analytics = analyticsService.getAnalytics();
+        snapshot = analytics;
+        for (Consumer<Map<String, Object>> listener : listeners) {
+            try {
+                listener.accept(analytics);
+            } catch (RuntimeException e) {
+                log.debug("Dropping analytics listener that failed: {}", e.toString());
+                listeners.remove(listener);
+            }
+        }
+    }
+}
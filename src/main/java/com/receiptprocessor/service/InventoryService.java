@@ -0,0 +1,174 @@
+package com.receiptprocessor.service;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import com.receiptprocessor.event.ReceiptChangedEvent;
+import com.receiptprocessor.exception.ReceiptValidationException;
+import com.receiptprocessor.metrics.ValidationMetrics;
+import com.receiptprocessor.model.Item;
+import com.receiptprocessor.model.ItemPatch;
+import com.receiptprocessor.model.Receipt;
+import com.receiptprocessor.repository.ReceiptRepository;
+
+import io.micrometer.core.annotation.Timed;
+
+/**
+ * Applies item-level changes to stored receipts and keeps their points up to date incrementally.
+ * - Each patched receipt keeps a points breakdown (header points plus the sum of per-item contributions),
+ *   so a patch only scores the items it adds or removes, and adjusts the pair bonus from the new item count.
+ * - A breakdown is tied to the item list it was computed from; if the list was replaced some other way
+ *   (e.g. a full inventory update) it is recomputed on the next patch.
+ * - The patched list is written back through {@link ReceiptRepository#updateReceiptInventory}, so versioning,
+ *   cached responses and listeners see it like any other inventory update.
+ */
+@Service
+public class InventoryService {
+
+    /**
+     * Points breakdown of a receipt for one specific item list.
+     *
+     * @param items        The item list the breakdown was computed from.
+     * @param headerPoints Points from the retailer, total, date and time.
+     * @param itemPoints   Sum of the per-item description contributions.
+     */
+    private record PointsState(List<Item> items, int headerPoints, int itemPoints) {
+    }
+
+    private final ReceiptRepository receiptRepository;
+    private final PointsService pointsService;
+    private final ValidationMetrics validationMetrics;
+    private final Map<String, PointsState> pointsStates = new ConcurrentHashMap<>();
+
+    public InventoryService(ReceiptRepository receiptRepository, PointsService pointsService, ValidationMetrics validationMetrics) {
+        this.receiptRepository = receiptRepository;
+        this.pointsService = pointsService;
+        this.validationMetrics = validationMetrics;
+    }
+
+    /**
+     * Applies item operations to a stored receipt, all or nothing.
+     *
+     * @param id  The receipt ID.
+     * @param ops The operations, applied in order.
+     * @return A summary with the receipt ID, the new item count and the updated points, or null if not found.
+     * @throws IllegalArgumentException if an operation is malformed, out of range or carries an invalid price;
+     *                                  the receipt is left unchanged.
+     */
+    @Timed(value = "receipts.items.patch", description = "Time to apply item-level changes to a receipt", histogram = true)
+    public Map<String, Object> patchItems(String id, List<ItemPatch> ops) {
+        Receipt receipt = receiptRepository.getReceipt(id);
+        if (receipt == null) {
+            return null;
+        }
+        if (ops == null || ops.isEmpty()) {
+            throw new IllegalArgumentException("No item operations given.");
+        }
+
+        int points;
+        int itemCount;
+        synchronized (receipt) { // Serializes patches of the same receipt
+            List<Item> current = receipt.getItems();
+            PointsState state = pointsStates.get(id);
+            if (state == null || state.items() != current) {
+                state = computeState(receipt);
+            }
+
+            List<Item> items = new ArrayList<>(current); // Copy-on-write: readers may be iterating the stored list
+            int itemPoints = state.itemPoints();
+            for (ItemPatch op : ops) {
+                itemPoints += apply(op, items);
+            }
+
+            if (receiptRepository.updateReceiptInventory(id, items) == null) {
+                return null; // Removed while the patch was applied
+            }
+            PointsState updated = new PointsState(items, state.headerPoints(), itemPoints);
+            pointsStates.put(id, updated);
+            if (receiptRepository.getReceipt(id) != receipt) {
+                pointsStates.remove(id, updated); // Removed after the update, possibly before the put
+            }
+            itemCount = items.size();
+            points = state.headerPoints() + pointsService.calculateItemCountPoints(itemCount) + itemPoints;
+        }
+
+        Map<String, Object> response = new LinkedHashMap<>();
+        response.put("id", id);
+        response.put("itemCount", itemCount);
+        response.put("updatedPoints", points);
+        return response;
+    }
+
+    /**
+     * Drops the points breakdown of removed receipts.
+     *
+     * @param event The store change.
+     */
+    @EventListener
+    public void onReceiptChanged(ReceiptChangedEvent event) {
+        if (event.type() == ReceiptChangedEvent.Type.REMOVED) {
+            pointsStates.remove(event.id());
+        }
+    }
+
+    /**
+     * Applies one operation to the working item list.
+     *
+     * @return The change in item description points.
+     */
+    private int apply(ItemPatch op, List<Item> items) {
+        String name = op == null || op.op() == null ? "" : op.op().toLowerCase();
+        switch (name) {
+            case "add" -> {
+                int index = op.index() == null ? items.size() : checkIndex(op, items.size() + 1);
+                items.add(index, validItem(op));
+                return pointsService.calculateItemDescriptionPoints(op.item());
+            }
+            case "remove" -> {
+                Item removed = items.remove(checkIndex(op, items.size()));
+                return -pointsService.calculateItemDescriptionPoints(removed);
+            }
+            case "replace" -> {
+                Item replaced = items.set(checkIndex(op, items.size()), validItem(op));
+                return pointsService.calculateItemDescriptionPoints(op.item())
+                        - pointsService.calculateItemDescriptionPoints(replaced);
+            }
+            default -> throw new IllegalArgumentException("Invalid item operation: " + (op == null ? null : op.op())
+                    + ". Use 'add', 'remove' or 'replace'.");
+        }
+    }
+
+    private int checkIndex(ItemPatch op, int size) {
+        if (op.index() == null || op.index() < 0 || op.index() >= size) {
+            throw new IllegalArgumentException("Item index out of range for " + op.op() + ": " + op.index());
+        }
+        return op.index();
+    }
+
+    private Item validItem(ItemPatch op) {
+        if (op.item() == null) {
+            throw new IllegalArgumentException("Missing item for " + op.op() + ".");
+        }
+        try {
+            Receipt.validateItemPrices(List.of(op.item()));
+        } catch (ReceiptValidationException e) {
+            validationMetrics.recordFailure(e);
+            throw e;
+        }
+        return op.item();
+    }
+
+    private PointsState computeState(Receipt receipt) {
+        int itemPoints = 0;
+        for (Item item : receipt.getItems()) {
+            itemPoints += pointsService.calculateItemDescriptionPoints(item);
+        }
+        return new PointsState(receipt.getItems(), pointsService.calculateHeaderPoints(receipt), itemPoints);
+    }
+}
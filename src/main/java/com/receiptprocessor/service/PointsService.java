@@ -6,6 +6,7 @@ import java.time.format.DateTimeFormatter;
 import java.util.List;
 
 import org.springframework.stereotype.Service;
+import com.receiptprocessor.jfr.PointsCalculatedEvent;
 import com.receiptprocessor.model.Item;
 import com.receiptprocessor.model.Receipt;
 
@@ -25,13 +26,27 @@ public class PointsService {
     public int calculatePoints(Receipt receipt) {
         validateReceipt(receipt);
 
-        int points = 0;
-        points += calculateRetailerPoints(receipt.getRetailer());  // Retailer name points
-        points += calculateTotalPoints(receipt.getTotal());        // Total amount points
-        points += calculateItemPoints(receipt.getItems());         // Item-based points
-        points += calculatePurchaseDayPoints(receipt.getPurchaseDate());  // Purchase day points
-        points += calculatePurchaseTimePoints(receipt.getPurchaseTime()); // Purchase time points
-
+        PointsCalculatedEvent event = new PointsCalculatedEvent();
+        event.begin();
+
+        int retailerPoints = calculateRetailerPoints(receipt.getRetailer());  // Retailer name points
+        int totalAmountPoints = calculateTotalPoints(receipt.getTotal());        // Total amount points
+        int itemPoints = calculateItemPoints(receipt.getItems());         // Item-based points
+        int purchaseDayPoints = calculatePurchaseDayPoints(receipt.getPurchaseDate());  // Purchase day points
+        int purchaseTimePoints = calculatePurchaseTimePoints(receipt.getPurchaseTime()); // Purchase time points
+        int points = retailerPoints + totalAmountPoints + itemPoints + purchaseDayPoints + purchaseTimePoints;
+
+        event.end();
+        if (event.shouldCommit()) {
+            event.itemCount = receipt.getItems() == null ? 0 : receipt.getItems().size();
+            event.points = points;
+            event.retailerPoints = retailerPoints;
+            event.totalAmountPoints = totalAmountPoints;
+            event.itemPoints = itemPoints;
+            event.purchaseDayPoints = purchaseDayPoints;
+            event.purchaseTimePoints = purchaseTimePoints;
+            event.commit();
+        }
         return points;
     }
 
@@ -97,18 +112,11 @@ public class PointsService {
     private int calculateItemPoints(List<Item> items) {
         if (items == null || items.isEmpty()) return 0;
 
-        int points = (items.size() / 2) * 5; // 5 points for every two items
+        int points = calculateItemCountPoints(items.size()); // 5 points for every two items
 
         for (Item item : items) {
-            if (item.getShortDescription() == null || item.getPrice() == null) continue;
-
-            String desc = item.getShortDescription().trim();
-
             try {
-                double price = Double.parseDouble(item.getPrice());
-                if (desc.length() % 3 == 0) {
-                    points += (int) Math.ceil(price * 0.2); // Extra bonus for description length multiple of 3
-                }
+                points += calculateItemDescriptionPoints(item);
             } catch (NumberFormatException e) {
                 return 0; // Invalid item price, no points awarded
             }
@@ -116,6 +124,51 @@ public class PointsService {
         return points;
     }
 
+    /**
+     * Calculates the points that depend only on the receipt's header fields (retailer, total, date and time).
+     * Together with {@link #calculateItemCountPoints} and {@link #calculateItemDescriptionPoints} for every item
+     * this adds up to {@link #calculatePoints}, which lets item changes be scored incrementally.
+     *
+     * @param receipt The receipt.
+     * @return The points not related to items.
+     */
+    public int calculateHeaderPoints(Receipt receipt) {
+        validateReceipt(receipt);
+        return calculateRetailerPoints(receipt.getRetailer())
+                + calculateTotalPoints(receipt.getTotal())
+                + calculatePurchaseDayPoints(receipt.getPurchaseDate())
+                + calculatePurchaseTimePoints(receipt.getPurchaseTime());
+    }
+
+    /**
+     * Awards 5 points for every two items.
+     *
+     * @param itemCount The number of items on the receipt.
+     * @return The number of points awarded.
+     */
+    public int calculateItemCountPoints(int itemCount) {
+        return (itemCount / 2) * 5;
+    }
+
+    /**
+     * Calculates a single item's contribution.
+     * - If the trimmed description length is a multiple of 3, the price is multiplied by 0.2, rounded up, and awarded.
+     * - Items without a description or price contribute nothing.
+     *
+     * @param item The item.
+     * @return The number of points awarded.
+     * @throws NumberFormatException if the price is not a number.
+     */
+    public int calculateItemDescriptionPoints(Item item) {
+        if (item == null || item.getShortDescription() == null || item.getPrice() == null) return 0;
+
+        if (item.getShortDescription().trim().length() % 3 == 0) {
+            return (int) Math.ceil(Double.parseDouble(item.getPrice()) * 0.2); // Extra bonus for description length multiple of 3
+        }
+        Double.parseDouble(item.getPrice()); // An unparseable price voids the item points, as in calculatePoints
+        return 0;
+    }
+
     /**
      * Awards 6 points if the purchase date falls on an odd-numbered day.
      *
@@ -1,57 +1,279 @@
 package com.receiptprocessor.service;
 
+import com.receiptprocessor.jfr.SortExecutedEvent;
 import com.receiptprocessor.model.Receipt;
 import com.receiptprocessor.repository.ReceiptRepository;
+import com.receiptprocessor.timing.RequestTimings;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import io.micrometer.core.annotation.Timed;
+
 import java.util.*;
+import java.util.function.IntFunction;
 import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
 
 @Service
 public class ReceiptSortingService {
 
+    private static final Logger log = LoggerFactory.getLogger(ReceiptSortingService.class);
+
     private final ReceiptRepository receiptRepository;
     private final PointsService pointsService;
 
+    // Store size at which sorting switches to the parallel, precomputed-key path
+    @Value("${receipts.parallel.threshold:10000}")
+    private int parallelThreshold = 10_000;
+
     public ReceiptSortingService(ReceiptRepository receiptRepository, PointsService pointsService) {
         this.receiptRepository = receiptRepository;
         this.pointsService = pointsService;
     }
 
+    /**
+     * Sets the store size at which sorting runs in parallel, for instances not configured by Spring.
+     *
+     * @param parallelThreshold The number of receipts.
+     */
+    public void setParallelThreshold(int parallelThreshold) {
+        this.parallelThreshold = parallelThreshold;
+    }
+
     /**
      * Retrieves sorted receipts based on the given criteria.
      *
      * @param criteria The sorting criteria (total, date, or points).
      * @return A list of sorted receipts represented as a map.
      */
+    @Timed(value = "receipts.sort", description = "Time to sort the stored receipts", histogram = true)
     public List<Map<String, Object>> getSortedReceipts(String criteria) {
-        // Convert stored receipts from Map<String, Receipt> to List<Receipt>
-        List<Receipt> allReceipts = new ArrayList<>(receiptRepository.getAllReceipts().values());
+        SortExecutedEvent event = new SortExecutedEvent();
+        event.begin();
+
+        if (receiptRepository.getAllReceipts().size() >= parallelThreshold) {
+            List<Map<String, Object>> sorted = getSortedReceiptsParallel(criteria);
+            if (sorted != null) {
+                log.debug("Sorted {} receipts by {} on the parallel path", sorted.size(), criteria);
+                commit(event, criteria, sorted.size(), true);
+                return sorted;
+            }
+            log.debug("Sort keys for {} could not be packed, using the sequential path", criteria);
+        }
+
+        // Copy the store entries, so each receipt keeps the ID it is stored under
+        List<Map.Entry<String, Receipt>> entries;
+        try (RequestTimings.Stage stage = RequestTimings.stage("copy")) {
+            entries = new ArrayList<>(receiptRepository.getAllReceipts().entrySet());
+        }
 
         // Apply sorting based on criteria
-        allReceipts.sort(getComparator(criteria));
+        try (RequestTimings.Stage stage = RequestTimings.stage("sort")) {
+            entries.sort(Map.Entry.comparingByValue(getComparator(criteria)));
+        }
+
+        // One stage for the whole loop: timing each receipt would cost more than the work it measures
+        List<Map<String, Object>> sortedReceipts = new ArrayList<>(entries.size());
+        try (RequestTimings.Stage stage = RequestTimings.stage("build")) {
+            for (Map.Entry<String, Receipt> entry : entries) {
+                Receipt receipt = entry.getValue();
+                sortedReceipts.add(toReceiptData(entry.getKey(), receipt, pointsService.calculatePoints(receipt)));
+            }
+        }
+        commit(event, criteria, sortedReceipts.size(), false);
+        return sortedReceipts;
+    }
 
-        return allReceipts.stream()
-                .map(receipt -> {
-                    // Retrieve receipt ID from repository
-                    String receiptId = receiptRepository.getReceiptId(receipt);
+    private void commit(SortExecutedEvent event, String criteria, int size, boolean parallel) {
+        event.end();
+        if (event.shouldCommit()) {
+            event.criteria = criteria;
+            event.size = size;
+            event.parallel = parallel;
+            event.commit();
+        }
+    }
 
-                    // If the receipt ID is not found, skip processing
-                    if (receiptId == null) {
-                        return null;
-                    }
+    /**
+     * Parallel sort path for large stores.
+     * - Points are computed once per receipt with a parallel stream instead of inside the comparator.
+     * - Each sort key is packed with the receipt's position into a single {@code long}
+     *   (key in the high 32 bits, position in the low 32 bits) and sorted with {@link Arrays#parallelSort(long[])},
+     *   which keeps ties in store order exactly like the stable sequential sort.
+     *
+     * @param criteria The sorting criteria (total, date, points).
+     * @return The sorted receipts, or {@code null} if a key cannot be packed and the sequential path must be used.
+     */
+    private List<Map<String, Object>> getSortedReceiptsParallel(String criteria) {
+        String normalized = normalizeCriteria(criteria);
+        List<Map.Entry<String, Receipt>> entries;
+        try (RequestTimings.Stage stage = RequestTimings.stage("copy")) {
+            entries = new ArrayList<>(receiptRepository.getAllReceipts().entrySet());
+        }
+        int size = entries.size();
 
-                    // Construct response map
-                    Map<String, Object> receiptData = new HashMap<>();
-                    receiptData.put("id", receiptId);
-                    receiptData.put("total", Optional.ofNullable(receipt.getTotal()).orElse("0.00"));
-                    receiptData.put("date", Optional.ofNullable(receipt.getPurchaseDate()).orElse("N/A"));
-                    receiptData.put("points", pointsService.calculatePoints(receipt));
+        int[] points;
+        try (RequestTimings.Stage stage = RequestTimings.stage("points")) {
+            points = IntStream.range(0, size).parallel()
+                    .map(i -> pointsService.calculatePoints(entries.get(i).getValue()))
+                    .toArray();
+        }
 
-                    return receiptData;
-                })
-                .filter(Objects::nonNull) // Remove null values
-                .collect(Collectors.toList()); // Convert to List
+        return sortPacked(normalized, entries, points, i -> toReceiptData(entries.get(i).getKey(), entries.get(i).getValue(), points[i]));
+    }
+
+    /**
+     * Sorts receipts whose points are already computed, e.g. a snapshot copy of the store.
+     * Uses the packed-key sort when possible and otherwise a stable sort of positions with the sequential
+     * comparators, so the order matches {@link #getSortedReceipts(String)} in both cases.
+     *
+     * @param criteria The sorting criteria (total, date, points).
+     * @param entries  The receipts with their IDs.
+     * @param points   The points of each receipt, by position.
+     * @param rows     The response map of each receipt, by position; reused as is in the result.
+     * @return The sorted receipts.
+     * @throws IllegalArgumentException if the criteria is not supported.
+     */
+    public List<Map<String, Object>> sortEntries(String criteria, List<Map.Entry<String, Receipt>> entries, int[] points,
+                                                 List<Map<String, Object>> rows) {
+        String normalized = normalizeCriteria(criteria);
+        List<Map<String, Object>> sorted = sortPacked(normalized, entries, points, rows::get);
+        if (sorted != null) {
+            return sorted;
+        }
+
+        int[] order = comparatorOrder(normalized, entries, points);
+        List<Map<String, Object>> result = new ArrayList<>(order.length);
+        for (int i : order) {
+            result.add(rows.get(i));
+        }
+        return result;
+    }
+
+    /**
+     * Sorts the stored receipts like {@link #getSortedReceipts(String)}, but builds each response map only when the
+     * stream reaches it. The sort itself completes before this returns; what is saved is holding every response map
+     * at once, so a streaming response only keeps the sort order, the points and the rows not yet written.
+     *
+     * @param criteria The sorting criteria (total, date, points).
+     * @return The sorted receipts, built lazily in order.
+     * @throws IllegalArgumentException if the criteria is not supported.
+     */
+    public Stream<Map<String, Object>> streamSortedReceipts(String criteria) {
+        String normalized = normalizeCriteria(criteria);
+        List<Map.Entry<String, Receipt>> entries;
+        try (RequestTimings.Stage stage = RequestTimings.stage("copy")) {
+            entries = new ArrayList<>(receiptRepository.getAllReceipts().entrySet());
+        }
+
+        int[] points;
+        try (RequestTimings.Stage stage = RequestTimings.stage("points")) {
+            IntStream positions = IntStream.range(0, entries.size());
+            points = (entries.size() >= parallelThreshold ? positions.parallel() : positions)
+                    .map(i -> pointsService.calculatePoints(entries.get(i).getValue()))
+                    .toArray();
+        }
+
+        int[] order = packedOrder(normalized, entries, points);
+        if (order == null) {
+            order = comparatorOrder(normalized, entries, points);
+        }
+        return Arrays.stream(order)
+                .mapToObj(i -> toReceiptData(entries.get(i).getKey(), entries.get(i).getValue(), points[i]));
+    }
+
+    /**
+     * Sorts receipt positions with the sequential comparators; stable, so ties keep store order.
+     *
+     * @return The positions of the receipts in sorted order.
+     */
+    private int[] comparatorOrder(String normalized, List<Map.Entry<String, Receipt>> entries, int[] points) {
+        Integer[] order = new Integer[entries.size()];
+        Arrays.setAll(order, i -> i);
+        Comparator<Integer> comparator = switch (normalized) {
+            case "total" -> Comparator.comparingDouble(i -> parseDouble(entries.get(i).getValue().getTotal()));
+            case "date" -> Comparator.comparing((Integer i) -> entries.get(i).getValue().getPurchaseDate(),
+                    Comparator.nullsFirst(Comparator.<String>naturalOrder())).reversed();
+            default -> Comparator.comparingInt((Integer i) -> points[i]).reversed();
+        };
+        try (RequestTimings.Stage stage = RequestTimings.stage("sort")) {
+            Arrays.sort(order, comparator);
+        }
+        return Arrays.stream(order).mapToInt(Integer::intValue).toArray();
+    }
+
+    /**
+     * Packs each sort key with the receipt's position into a {@code long} and sorts the keys in parallel.
+     *
+     * @return The sorted receipts, or {@code null} if a key cannot be packed.
+     */
+    private List<Map<String, Object>> sortPacked(String normalized, List<Map.Entry<String, Receipt>> entries, int[] points,
+                                                 IntFunction<Map<String, Object>> row) {
+        int[] order = packedOrder(normalized, entries, points);
+        if (order == null) {
+            return null;
+        }
+
+        try (RequestTimings.Stage stage = RequestTimings.stage("build")) {
+            return Arrays.stream(order).parallel()
+                    .mapToObj(row)
+                    .collect(Collectors.toList());
+        }
+    }
+
+    /**
+     * Sorts receipt positions by packed keys: the sort key in the high 32 bits and the position in the low 32 bits.
+     *
+     * @return The positions of the receipts in sorted order, or {@code null} if a key cannot be packed.
+     */
+    private int[] packedOrder(String normalized, List<Map.Entry<String, Receipt>> entries, int[] points) {
+        int size = entries.size();
+        long[] keys = new long[size];
+        try (RequestTimings.Stage stage = RequestTimings.stage("sort")) {
+            boolean packed = IntStream.range(0, size).parallel().allMatch(i -> {
+                Receipt receipt = entries.get(i).getValue();
+                Integer key = switch (normalized) {
+                    case "total" -> totalKey(receipt.getTotal());
+                    case "date" -> dateKey(receipt.getPurchaseDate());
+                    default -> -points[i];
+                };
+                if (key == null) {
+                    return false;
+                }
+                keys[i] = ((long) key << 32) | i;
+                return true;
+            });
+            if (!packed) {
+                return null;
+            }
+            Arrays.parallelSort(keys);
+        }
+
+        int[] order = new int[size];
+        for (int i = 0; i < size; i++) {
+            order[i] = (int) keys[i];
+        }
+        return order;
+    }
+
+    /**
+     * Builds the response map for a single receipt.
+     *
+     * @param receiptId The receipt ID.
+     * @param receipt   The receipt.
+     * @param points    The points awarded for the receipt.
+     * @return The receipt data map.
+     */
+    static Map<String, Object> toReceiptData(String receiptId, Receipt receipt, int points) {
+        Map<String, Object> receiptData = new HashMap<>();
+        receiptData.put("id", receiptId);
+        receiptData.put("total", Optional.ofNullable(receipt.getTotal()).orElse("0.00"));
+        receiptData.put("date", Optional.ofNullable(receipt.getPurchaseDate()).orElse("N/A"));
+        receiptData.put("points", points);
+        return receiptData;
     }
 
     /**
@@ -61,7 +283,7 @@ public class ReceiptSortingService {
      * @return The appropriate comparator for sorting receipts.
      */
     private Comparator<Receipt> getComparator(String criteria) {
-        return switch (criteria) {
+        return switch (normalizeCriteria(criteria)) {
             case "total" -> Comparator.comparingDouble(r -> parseDouble(r.getTotal())); // Ascending order
             case "date" -> Comparator.comparing(Receipt::getPurchaseDate).reversed(); // Descending order
             case "points" -> Comparator.comparingInt(pointsService::calculatePoints).reversed(); // Descending order
@@ -69,6 +291,65 @@ public class ReceiptSortingService {
         };
     }
 
+    /**
+     * Validates and normalizes the sorting criteria.
+     *
+     * @param criteria The sorting criteria (total, date, points), case-insensitive.
+     * @return The lower-case criteria.
+     * @throws IllegalArgumentException if the criteria is not supported.
+     */
+    static String normalizeCriteria(String criteria) {
+        String normalized = criteria == null ? "" : criteria.toLowerCase();
+        return switch (normalized) {
+            case "total", "date", "points" -> normalized;
+            default -> throw new IllegalArgumentException("Invalid sorting criteria: " + criteria);
+        };
+    }
+
+    /**
+     * Packs a total into an ascending integer key (whole cents).
+     * Only totals whose parsed value is exactly representable in cents are packed, so the key order
+     * matches {@link Double#compare} on the parsed totals.
+     *
+     * @param total The total amount as a string.
+     * @return The key, or {@code null} if the total cannot be packed.
+     */
+    private Integer totalKey(String total) {
+        if (total == null) {
+            return null;
+        }
+        double value = parseDouble(total);
+        long cents = Math.round(value * 100);
+        if (cents < Integer.MIN_VALUE || cents > Integer.MAX_VALUE || Double.compare(cents / 100.0, value) != 0) {
+            return null;
+        }
+        return (int) cents;
+    }
+
+    /**
+     * Packs an ISO purchase date (YYYY-MM-DD) into a descending integer key.
+     * For this fixed-width format, numeric order of YYYYMMDD equals the string order used by the sequential path.
+     *
+     * @param purchaseDate The purchase date as a string.
+     * @return The key, or {@code null} if the date is not in the fixed-width format.
+     */
+    private Integer dateKey(String purchaseDate) {
+        if (purchaseDate == null || purchaseDate.length() != 10
+                || purchaseDate.charAt(4) != '-' || purchaseDate.charAt(7) != '-') {
+            return null;
+        }
+        int value = 0;
+        for (int i = 0; i < purchaseDate.length(); i++) {
+            if (i == 4 || i == 7) continue;
+            char c = purchaseDate.charAt(i);
+            if (c < '0' || c > '9') {
+                return null;
+            }
+            value = value * 10 + (c - '0');
+        }
+        return -value;
+    }
+
     /**
      * Safely parses a double value from a string.
      *
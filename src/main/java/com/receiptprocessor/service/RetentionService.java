@@ -0,0 +1,161 @@
+package com.receiptprocessor.service;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.Comparator;
+import java.util.concurrent.ConcurrentSkipListSet;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import com.receiptprocessor.event.ReceiptChangedEvent;
+import com.receiptprocessor.model.Receipt;
+import com.receiptprocessor.repository.ReceiptRepository;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Expires receipts once they are older than the configured retention, keeping steady-state memory flat.
+ * - Age is measured from ingest time or from the purchase date ({@code receipts.retention.basis}).
+ * - Stored receipts are tracked in an index ordered by expiry time, so a sweep only visits receipts that are due
+ *   instead of scanning the store.
+ * - Each sweep removes at most {@code batch-size} receipts per batch and stops once {@code max-sweep-ms} is used up;
+ *   anything left over is picked up by the next run.
+ * - Removals go through {@link ReceiptRepository#removeReceipt}, so analytics, sorted views, cached responses and
+ *   store metrics follow the store like they do for any other write.
+ * Only active when {@code receipts.retention.ttl} is set.
+ */
+@Service
+@ConditionalOnProperty(prefix = "receipts.retention", name = "ttl")
+public class RetentionService {
+
+    private static final Logger log = LoggerFactory.getLogger(RetentionService.class);
+
+    public enum Basis {
+        INGEST_TIME,
+        PURCHASE_DATE
+    }
+
+    /**
+     * A receipt's position in the expiry index.
+     *
+     * @param expiresAt Epoch millis at which the receipt expires.
+     * @param id        The receipt ID.
+     */
+    private record Expiry(long expiresAt, String id) {
+    }
+
+    private final ReceiptRepository receiptRepository;
+    private final MeterRegistry meterRegistry;
+    private final Duration ttl;
+    private final Basis basis;
+    private final int batchSize;
+    private final long maxSweepMillis;
+    private final Counter expired;
+    private final ConcurrentSkipListSet<Expiry> index = new ConcurrentSkipListSet<>(
+            Comparator.comparingLong(Expiry::expiresAt).thenComparing(Expiry::id));
+
+    private Clock clock = Clock.systemDefaultZone();
+
+    public RetentionService(ReceiptRepository receiptRepository, MeterRegistry meterRegistry,
+                            @Value("${receipts.retention.ttl}") Duration ttl,
+                            @Value("${receipts.retention.basis:INGEST_TIME}") Basis basis,
+                            @Value("${receipts.retention.batch-size:1000}") int batchSize,
+                            @Value("${receipts.retention.max-sweep-ms:20}") long maxSweepMillis) {
+        this.receiptRepository = receiptRepository;
+        this.meterRegistry = meterRegistry;
+        this.ttl = ttl;
+        this.basis = basis;
+        this.batchSize = batchSize;
+        this.maxSweepMillis = maxSweepMillis;
+        this.expired = meterRegistry.counter("receipts.retention.expired");
+    }
+
+    /**
+     * Creates a retention service with the same settings for another store, such as a tenant partition.
+     * The caller feeds it that store's changes and runs its sweeps; expirations count towards the same counter.
+     *
+     * @param repository The store to expire receipts from.
+     * @return The new retention service.
+     */
+    public RetentionService forRepository(ReceiptRepository repository) {
+        RetentionService retention = new RetentionService(repository, meterRegistry, ttl, basis, batchSize, maxSweepMillis);
+        retention.clock = clock;
+        return retention;
+    }
+
+    /**
+     * Adds newly stored receipts to the expiry index.
+     * Removed receipts are left in the index and skipped when they come due, which keeps this listener O(log n).
+     *
+     * @param event The store change.
+     */
+    @EventListener
+    public void onReceiptChanged(ReceiptChangedEvent event) {
+        if (event.type() == ReceiptChangedEvent.Type.SAVED) {
+            index.add(new Expiry(expiresAt(event.receipt()), event.id()));
+        }
+    }
+
+    /**
+     * Removes receipts whose retention has run out, oldest first, within the per-sweep time budget.
+     *
+     * @return The number of receipts removed.
+     */
+    @Scheduled(fixedDelayString = "${receipts.retention.sweep-interval-ms:1000}")
+    public int sweep() {
+        long now = clock.millis();
+        long deadline = System.nanoTime() + Duration.ofMillis(maxSweepMillis).toNanos();
+        int removed = 0;
+        int visited = 0;
+
+        Expiry next;
+        while ((next = index.pollFirst()) != null) {
+            if (next.expiresAt() > now) {
+                index.add(next); // Not due yet; everything after it expires later
+                break;
+            }
+            if (receiptRepository.removeReceipt(next.id()) != null) {
+                removed++;
+            }
+            if (++visited % batchSize == 0 && System.nanoTime() > deadline) {
+                break; // Out of time for this sweep, the rest waits for the next run
+            }
+        }
+
+        if (removed > 0) {
+            expired.increment(removed);
+            log.debug("Expired {} receipts, {} left in the expiry index", removed, index.size());
+        }
+        return removed;
+    }
+
+    /**
+     * Returns the number of receipts tracked for expiry, including removed receipts not yet due.
+     *
+     * @return The size of the expiry index.
+     */
+    public int getIndexSize() {
+        return index.size();
+    }
+
+    private long expiresAt(Receipt receipt) {
+        if (basis == Basis.PURCHASE_DATE && receipt.getPurchaseDate() != null) {
+            try {
+                return LocalDate.parse(receipt.getPurchaseDate()).atStartOfDay(clock.getZone()).toInstant()
+                        .plus(ttl).toEpochMilli();
+            } catch (DateTimeParseException e) {
+                // Fall through to ingest time; stored receipts normally have a valid date
+            }
+        }
+        return clock.millis() + ttl.toMillis();
+    }
+}
@@ -0,0 +1,98 @@
+package com.receiptprocessor.service;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.IntStream;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import com.receiptprocessor.metrics.ValidationMetrics;
+import com.receiptprocessor.model.Receipt;
+import com.receiptprocessor.model.ScoreRequest;
+
+import io.micrometer.core.annotation.Timed;
+
+/**
+ * Scores receipts without storing them, for point previews at checkout.
+ * Receipts are validated exactly like ingested ones, but never reach the repository.
+ */
+@Service
+public class ScoringService {
+
+    private final PointsService pointsService;
+    private final TaggingService taggingService;
+    private final ValidationMetrics validationMetrics;
+
+    // Batch size at which bulk scoring is spread over the common fork-join pool
+    @Value("${receipts.score.parallel-threshold:64}")
+    private int parallelThreshold = 64;
+
+    public ScoringService(PointsService pointsService, TaggingService taggingService, ValidationMetrics validationMetrics) {
+        this.pointsService = pointsService;
+        this.taggingService = taggingService;
+        this.validationMetrics = validationMetrics;
+    }
+
+    /**
+     * Scores a request body holding either one receipt or an array of receipts.
+     * - A single receipt yields its points and tags, or an IllegalArgumentException if it is invalid.
+     * - An array yields one result per receipt, in request order; invalid receipts yield an "error" entry
+     *   instead of failing the whole batch, as do elements that could not be bound.
+     *
+     * @param body The decoded request body.
+     * @return The score of a single receipt, or the list of per-receipt results.
+     * @throws IllegalArgumentException if the body is missing or a single receipt is invalid.
+     */
+    @Timed(value = "receipts.score", description = "Time to score a preview request", histogram = true)
+    public Object score(ScoreRequest body) {
+        if (body == null) {
+            throw new IllegalArgumentException("Invalid request. Receipt cannot be null.");
+        }
+        if (!body.batch()) {
+            return score(body.receipts().get(0));
+        }
+
+        IntStream indexes = IntStream.range(0, body.size());
+        if (body.size() >= parallelThreshold) {
+            indexes = indexes.parallel();
+        }
+        List<Map<String, Object>> results = indexes.mapToObj(i -> {
+            if (body.errors().get(i) != null) {
+                return Map.<String, Object>of("error", body.errors().get(i));
+            }
+            try {
+                return score(body.receipts().get(i));
+            } catch (IllegalArgumentException e) {
+                return Map.<String, Object>of("error", e.getMessage());
+            }
+        }).toList();
+        return results;
+    }
+
+    /**
+     * Validates a receipt and computes its points and tags.
+     *
+     * @param receipt The receipt to score.
+     * @return A map with "points" and "tags".
+     * @throws IllegalArgumentException if the receipt is null or fails validation.
+     */
+    public Map<String, Object> score(Receipt receipt) {
+        if (receipt == null) {
+            throw new IllegalArgumentException("Invalid request. Receipt cannot be null.");
+        }
+        try {
+            receipt.validatePrices();  // Validate non-negative item prices
+            receipt.validatePurchaseDate();  // Validate purchase date is not in the future
+        } catch (IllegalArgumentException e) {
+            validationMetrics.recordFailure(e);
+            throw e;
+        }
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("points", pointsService.calculatePoints(receipt));
+        result.put("tags", taggingService.generateTags(receipt));
+        return result;
+    }
+}
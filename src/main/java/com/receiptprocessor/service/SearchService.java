@@ -0,0 +1,333 @@
+package com.receiptprocessor.service;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+
+import org.roaringbitmap.RoaringBitmap;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+
+import com.receiptprocessor.index.ReceiptIndex;
+import com.receiptprocessor.model.Item;
+import com.receiptprocessor.model.Receipt;
+import com.receiptprocessor.model.SearchQuery;
+import com.receiptprocessor.timing.RequestTimings;
+
+import io.micrometer.core.annotation.Timed;
+
+/**
+ * Answers filtered receipt queries from {@link ReceiptIndex}.
+ * A small planner estimates how many receipts each usable index would return and reads candidates from the
+ * most selective one: the date tree for a date range, the retailer map for a retailer, the tag bitmap for a tag,
+ * or every indexed receipt.
+ * All remaining filters are then checked against the precomputed index entries, touching the receipt itself only
+ * for tags and item descriptions.
+ * Product lookups go through the item description inverted index and only read the receipts it returns.
+ */
+@Service
+public class SearchService {
+
+    private static final Logger log = LoggerFactory.getLogger(SearchService.class);
+
+    private final ReceiptIndex receiptIndex;
+
+    public SearchService(ReceiptIndex receiptIndex) {
+        this.receiptIndex = receiptIndex;
+    }
+
+    /**
+     * The access path chosen for a query.
+     *
+     * @param index      The index read: "date", "retailer", "tag" or "scan".
+     * @param candidates The number of receipts read from it.
+     */
+    record Plan(String index, int candidates) {
+    }
+
+    /**
+     * Runs a search.
+     *
+     * @param query The filters, sort order and limit.
+     * @return The plan used, the number of matches and up to {@code limit} matching receipts.
+     * @throws IllegalArgumentException if the sort criteria is not supported.
+     */
+    @Timed(value = "receipts.search", description = "Time to answer a receipt search", histogram = true)
+    public Map<String, Object> search(SearchQuery query) {
+        Comparator<ReceiptIndex.Entry> order = query.sort() == null ? null : comparator(query.sort());
+
+        Stream<ReceiptIndex.Entry> candidates;
+        Plan plan;
+        try (RequestTimings.Stage stage = RequestTimings.stage("plan")) {
+            Collection<Set<String>> dateBuckets = null;
+            int dateEstimate = Integer.MAX_VALUE;
+            if (query.fromDate() != null || query.toDate() != null) {
+                dateBuckets = receiptIndex.getByDate(query.fromDate(), query.toDate()).values();
+                dateEstimate = dateBuckets.stream().mapToInt(Set::size).sum();
+            }
+            Set<String> retailerIds = query.retailer() == null ? null : receiptIndex.getByRetailer(query.retailer());
+            int retailerEstimate = retailerIds == null ? Integer.MAX_VALUE : retailerIds.size();
+            RoaringBitmap tagOrdinals = query.tag() == null ? null : receiptIndex.findByTags(List.of(query.tag()), true);
+            int tagEstimate = tagOrdinals == null ? Integer.MAX_VALUE : tagOrdinals.getCardinality();
+
+            int best = Math.min(Math.min(retailerEstimate, tagEstimate), dateEstimate);
+            if (best >= receiptIndex.size()) {
+                plan = new Plan("scan", receiptIndex.size());
+                candidates = receiptIndex.getAll().stream();
+            } else if (best == tagEstimate) {
+                plan = new Plan("tag", tagEstimate);
+                candidates = lookupOrdinals(tagOrdinals);
+            } else if (best == retailerEstimate) {
+                plan = new Plan("retailer", retailerEstimate);
+                candidates = lookup(retailerIds.stream());
+            } else {
+                plan = new Plan("date", dateEstimate);
+                candidates = lookup(dateBuckets.stream().flatMap(Set::stream));
+            }
+        }
+
+        List<ReceiptIndex.Entry> matches;
+        try (RequestTimings.Stage stage = RequestTimings.stage("filter")) {
+            Stream<ReceiptIndex.Entry> filtered = candidates.filter(toPredicate(query));
+            if (order != null) {
+                filtered = filtered.sorted(order);
+            }
+            matches = filtered.toList();
+        }
+        log.debug("Search {} used {} index with {} candidates, {} matches", query, plan.index(), plan.candidates(), matches.size());
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("plan", Map.of("index", plan.index(), "candidates", plan.candidates()));
+        result.put("count", matches.size());
+        result.put("receipts", matches.stream()
+                .limit(query.limit())
+                .map(entry -> ReceiptSortingService.toReceiptData(entry.id(), entry.receipt(), entry.points()))
+                .toList());
+        return result;
+    }
+
+    /**
+     * Counts the receipts carrying each tag, straight from the tag bitmaps.
+     *
+     * @return The counts by tag name.
+     */
+    public Map<String, Integer> getTagCounts() {
+        return receiptIndex.getTagCounts();
+    }
+
+    /**
+     * Answers a tag segment query, e.g. Weekend Shopper AND Big Spender, with bitmap operations only.
+     * An optional purchase date range is applied as one more bitmap.
+     *
+     * @param tags  The tags; at least one.
+     * @param all   True to intersect the tags (AND), false to union them (OR).
+     * @param from  The first purchase date, inclusive, or null.
+     * @param to    The last purchase date, inclusive, or null.
+     * @param limit The maximum number of receipt IDs returned.
+     * @return The operation, the tags, the segment size and up to {@code limit} receipt IDs.
+     * @throws IllegalArgumentException if no tags are given.
+     */
+    @Timed(value = "receipts.tags.segment", description = "Time to answer a tag segment query", histogram = true)
+    public Map<String, Object> querySegment(List<String> tags, boolean all, LocalDate from, LocalDate to, int limit) {
+        List<String> names = tags == null ? List.of() : tags.stream().map(String::trim).filter(tag -> !tag.isEmpty()).toList();
+        if (names.isEmpty()) {
+            throw new IllegalArgumentException("Missing tags. Use e.g. tags=Weekend Shopper,Big Spender.");
+        }
+
+        RoaringBitmap segment = receiptIndex.findByTags(names, all);
+        if (from != null || to != null) {
+            segment.and(receiptIndex.findByDate(from, to));
+        }
+
+        List<String> ids = new ArrayList<>(Math.min(limit, segment.getCardinality()));
+        for (int ordinal : segment) {
+            ReceiptIndex.Entry entry = receiptIndex.getByOrdinal(ordinal);
+            if (entry != null) {
+                ids.add(entry.id());
+            }
+            if (ids.size() == limit) {
+                break;
+            }
+        }
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("operation", all ? "and" : "or");
+        result.put("tags", names);
+        result.put("count", segment.getCardinality());
+        result.put("ids", ids);
+        return result;
+    }
+
+    /**
+     * Spend on one product, grouped by normalized description.
+     */
+    private static final class ProductStats {
+        private final String description;
+        private final Set<String> receiptIds = new HashSet<>();
+        private int items;
+        private BigDecimal spend = BigDecimal.ZERO;
+
+        private ProductStats(String description) {
+            this.description = description;
+        }
+    }
+
+    /**
+     * Finds every receipt with an item matching a product query and sums the spend per product.
+     * An item matches when its description contains every token of the query, e.g. "dew 12pk" matches
+     * "Mountain Dew 12PK". Candidates come from the inverted index; only their items are read.
+     *
+     * @param query The product query.
+     * @return The number of matching receipts and items, the total spend, and the spend per product, highest first.
+     * @throws IllegalArgumentException if the query has no searchable tokens.
+     */
+    @Timed(value = "receipts.products.lookup", description = "Time to answer a product lookup", histogram = true)
+    public Map<String, Object> lookupProducts(String query) {
+        Set<String> tokens = ReceiptIndex.tokenize(query);
+        if (tokens.isEmpty()) {
+            throw new IllegalArgumentException("Missing product query. Use letters or digits, e.g. q=gatorade.");
+        }
+
+        RoaringBitmap candidates;
+        try (RequestTimings.Stage stage = RequestTimings.stage("plan")) {
+            candidates = receiptIndex.findByItemTokens(tokens);
+        }
+
+        Map<String, ProductStats> products = new HashMap<>();
+        int receipts = 0;
+        try (RequestTimings.Stage stage = RequestTimings.stage("filter")) {
+            for (int ordinal : candidates) {
+                ReceiptIndex.Entry entry = receiptIndex.getByOrdinal(ordinal);
+                if (entry == null) {
+                    continue; // Removed since the lookup
+                }
+                boolean matched = false;
+                for (Item item : entry.receipt().getItems()) {
+                    Set<String> itemTokens = ReceiptIndex.tokenize(item.getShortDescription());
+                    if (!itemTokens.containsAll(tokens)) {
+                        continue; // The tokens were spread over several items
+                    }
+                    String description = item.getShortDescription().trim();
+                    ProductStats stats = products.computeIfAbsent(description.toLowerCase(Locale.ROOT).replaceAll("\\s+", " "),
+                            key -> new ProductStats(description));
+                    stats.receiptIds.add(entry.id());
+                    stats.items++;
+                    stats.spend = stats.spend.add(parsePrice(item.getPrice()));
+                    matched = true;
+                }
+                if (matched) {
+                    receipts++;
+                }
+            }
+        }
+
+        BigDecimal spend = BigDecimal.ZERO;
+        int items = 0;
+        for (ProductStats stats : products.values()) {
+            spend = spend.add(stats.spend);
+            items += stats.items;
+        }
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("query", query);
+        result.put("receipts", receipts);
+        result.put("items", items);
+        result.put("spend", format(spend));
+        result.put("products", products.values().stream()
+                .sorted(Comparator.comparing((ProductStats stats) -> stats.spend).reversed()
+                        .thenComparing(stats -> stats.description))
+                .map(stats -> {
+                    Map<String, Object> product = new LinkedHashMap<>();
+                    product.put("description", stats.description);
+                    product.put("receipts", stats.receiptIds.size());
+                    product.put("items", stats.items);
+                    product.put("spend", format(stats.spend));
+                    return product;
+                })
+                .toList());
+        return result;
+    }
+
+    private static BigDecimal parsePrice(String price) {
+        try {
+            return new BigDecimal(price.trim());
+        } catch (NumberFormatException | NullPointerException e) {
+            return BigDecimal.ZERO; // Stored prices are validated, but e.g. "NaN" passes Double.parseDouble
+        }
+    }
+
+    private static String format(BigDecimal amount) {
+        return amount.setScale(2, RoundingMode.HALF_UP).toPlainString();
+    }
+
+    private Stream<ReceiptIndex.Entry> lookup(Stream<String> ids) {
+        return ids.map(receiptIndex::get).filter(entry -> entry != null); // Skip receipts removed since the lookup
+    }
+
+    private Stream<ReceiptIndex.Entry> lookupOrdinals(RoaringBitmap ordinals) {
+        return ordinals.stream().mapToObj(receiptIndex::getByOrdinal).filter(entry -> entry != null);
+    }
+
+    /**
+     * Combines the query's filters, cheapest first. Filters already covered by the chosen index are checked again;
+     * that costs one comparison and keeps the result correct if an entry changed after the index lookup.
+     */
+    private Predicate<ReceiptIndex.Entry> toPredicate(SearchQuery query) {
+        Predicate<ReceiptIndex.Entry> predicate = entry -> true;
+        if (query.minTotal() != null) {
+            predicate = predicate.and(entry -> entry.totalCents() != null && entry.totalCents() >= query.minTotal());
+        }
+        if (query.maxTotal() != null) {
+            predicate = predicate.and(entry -> entry.totalCents() != null && entry.totalCents() <= query.maxTotal());
+        }
+        if (query.fromDate() != null) {
+            predicate = predicate.and(entry -> entry.date() != null && !entry.date().isBefore(query.fromDate()));
+        }
+        if (query.toDate() != null) {
+            predicate = predicate.and(entry -> entry.date() != null && !entry.date().isAfter(query.toDate()));
+        }
+        if (query.minPoints() != null) {
+            predicate = predicate.and(entry -> entry.points() >= query.minPoints());
+        }
+        if (query.retailer() != null) {
+            int retailerId = receiptIndex.getRetailerId(query.retailer());
+            predicate = predicate.and(entry -> entry.retailerId() == retailerId);
+        }
+        if (query.tag() != null) {
+            String key = Receipt.tagKey(query.tag());
+            predicate = predicate.and(entry -> entry.receipt().getTags().stream().map(Receipt::tagKey).anyMatch(key::equals));
+        }
+        if (query.item() != null) {
+            String text = query.item().toLowerCase(Locale.ROOT);
+            predicate = predicate.and(entry -> entry.receipt().getItems().stream()
+                    .map(Item::getShortDescription)
+                    .anyMatch(description -> description != null && description.toLowerCase(Locale.ROOT).contains(text)));
+        }
+        return predicate;
+    }
+
+    /**
+     * Orders index entries like {@code /receipts/sort}: total ascending, date or points descending.
+     * Receipts with an unparseable total or date sort last.
+     */
+    private Comparator<ReceiptIndex.Entry> comparator(String criteria) {
+        return switch (ReceiptSortingService.normalizeCriteria(criteria)) {
+            case "total" -> Comparator.comparing(ReceiptIndex.Entry::totalCents, Comparator.nullsLast(Comparator.naturalOrder()));
+            case "date" -> Comparator.comparing(ReceiptIndex.Entry::date, Comparator.nullsLast(Comparator.reverseOrder()));
+            default -> Comparator.comparingInt(ReceiptIndex.Entry::points).reversed();
+        };
+    }
+}
@@ -0,0 +1,194 @@
+package com.receiptprocessor.service;
+
+import java.time.Clock;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.IntStream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import com.receiptprocessor.model.Receipt;
+import com.receiptprocessor.repository.ReceiptRepository;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * Precomputed dashboard views, rebuilt in the background from a point-in-time copy of the store.
+ * - A scheduled job copies the store, scores every receipt once, and builds the sorted views (total, date, points)
+ *   and the analytics from that copy; the rows are shared by the three views.
+ * - The finished views are published as one immutable {@link Snapshot} through an atomic reference, so a reader
+ *   sees all views from the same copy and never waits for a build.
+ * - The copy is taken between two reads of the store version and retried if a write lands in between, so a
+ *   snapshot reflects the writes up to its version. Receipt fields are copied too, since stored receipts are
+ *   updated in place by inventory changes and tagging. Under continuous writes the last attempt is kept, tagged with
+ *   the version read before it, and rebuilt on the next run.
+ * - Clients opt in per request with {@code Cache-Control: max-stale[=seconds]}; a snapshot is served if it was
+ *   last known to match the store within both the client's and the configured staleness bound.
+ * Disabled when {@code receipts.snapshot.max-staleness-ms} is 0, the default: while enabled, every write is followed
+ * by a full-store copy, scoring and sort within one interval, whether or not any client reads stale.
+ */
+@Service
+public class SnapshotService {
+
+    private static final Logger log = LoggerFactory.getLogger(SnapshotService.class);
+
+    private static final List<String> CRITERIA = List.of("total", "date", "points");
+    private static final int COPY_ATTEMPTS = 3;
+    private static final Pattern MAX_STALE = Pattern.compile("(?i)(?:^|,)\\s*max-stale\\s*(?:=\\s*\"?(\\d+)\"?)?\\s*(?:,|$)");
+
+    /**
+     * Immutable views of the store at one version.
+     *
+     * @param version         The store version the views were built from.
+     * @param verifiedAtMillis When the store was last seen at this version.
+     * @param sorted          The sorted receipts by criteria.
+     * @param analytics       The store analytics.
+     */
+    public record Snapshot(long version, long verifiedAtMillis, Map<String, List<Map<String, Object>>> sorted,
+                           Map<String, Object> analytics) {
+
+        /**
+         * Returns the receipts sorted by a criteria, exactly as {@link ReceiptSortingService#getSortedReceipts} would.
+         *
+         * @param criteria The sorting criteria (total, date, points), case-insensitive.
+         * @return The sorted receipts.
+         * @throws IllegalArgumentException if the criteria is not supported.
+         */
+        public List<Map<String, Object>> sorted(String criteria) {
+            return sorted.get(ReceiptSortingService.normalizeCriteria(criteria));
+        }
+    }
+
+    private final ReceiptRepository receiptRepository;
+    private final PointsService pointsService;
+    private final ReceiptSortingService receiptSortingService;
+    private final AnalyticsService analyticsService;
+    private final long maxStalenessMillis;
+    private final MeterRegistry meterRegistry;
+    private final Timer buildTimer;
+    private final AtomicReference<Snapshot> latest = new AtomicReference<>();
+    private Clock clock = Clock.systemDefaultZone();
+
+    public SnapshotService(ReceiptRepository receiptRepository, PointsService pointsService,
+                           ReceiptSortingService receiptSortingService, AnalyticsService analyticsService,
+                           MeterRegistry meterRegistry,
+                           @Value("${receipts.snapshot.max-staleness-ms:0}") long maxStalenessMillis) {
+        this.receiptRepository = receiptRepository;
+        this.pointsService = pointsService;
+        this.receiptSortingService = receiptSortingService;
+        this.analyticsService = analyticsService;
+        this.maxStalenessMillis = maxStalenessMillis;
+        this.meterRegistry = meterRegistry;
+        this.buildTimer = meterRegistry.timer("receipts.snapshot.build");
+    }
+
+    /**
+     * Rebuilds the snapshot if the store changed since the last one; otherwise only marks it as still current.
+     */
+    @Scheduled(fixedDelayString = "${receipts.snapshot.interval-ms:1000}")
+    public void refresh() {
+        if (maxStalenessMillis <= 0) {
+            return;
+        }
+        long now = clock.millis();
+        Snapshot current = latest.get();
+        if (current != null && current.version() == receiptRepository.getVersion()) {
+            latest.set(new Snapshot(current.version(), now, current.sorted(), current.analytics()));
+            return;
+        }
+        Snapshot snapshot = buildTimer.record(this::build);
+        latest.set(snapshot);
+        log.debug("Built snapshot of {} receipts at version {}", snapshot.analytics().get("totalReceipts"), snapshot.version());
+    }
+
+    /**
+     * Returns the latest snapshot if the client accepts stale responses and it is fresh enough.
+     *
+     * @param cacheControl The request's Cache-Control header, may be null.
+     * @return The snapshot, or null if the client did not opt in or no snapshot is within the staleness bound.
+     */
+    public Snapshot getSnapshot(String cacheControl) {
+        long maxStale = maxStaleMillis(cacheControl);
+        if (maxStale < 0) {
+            return null;
+        }
+        Snapshot snapshot = latest.get();
+        boolean fresh = snapshot != null && ageMillis(snapshot) <= Math.min(maxStale, maxStalenessMillis);
+        meterRegistry.counter("receipts.snapshot.reads", "result", fresh ? "hit" : "miss").increment();
+        return fresh ? snapshot : null;
+    }
+
+    /**
+     * Returns how long ago the store was last seen at the snapshot's version.
+     *
+     * @param snapshot The snapshot.
+     * @return The age in milliseconds.
+     */
+    public long ageMillis(Snapshot snapshot) {
+        return Math.max(0, clock.millis() - snapshot.verifiedAtMillis());
+    }
+
+    /**
+     * Parses the max-stale directive of a Cache-Control header.
+     *
+     * @return The accepted staleness in milliseconds, unbounded if no value is given, or -1 if absent.
+     */
+    static long maxStaleMillis(String cacheControl) {
+        if (cacheControl == null) {
+            return -1;
+        }
+        Matcher matcher = MAX_STALE.matcher(cacheControl);
+        if (!matcher.find()) {
+            return -1;
+        }
+        if (matcher.group(1) == null) {
+            return Long.MAX_VALUE;
+        }
+        try {
+            return Math.multiplyExact(Long.parseLong(matcher.group(1)), 1000L);
+        } catch (NumberFormatException | ArithmeticException e) {
+            return Long.MAX_VALUE;
+        }
+    }
+
+    private Snapshot build() {
+        long verifiedAt = clock.millis();
+        long version;
+        List<Map.Entry<String, Receipt>> entries;
+        int attempt = 0;
+        do {
+            version = receiptRepository.getVersion();
+            entries = new ArrayList<>(receiptRepository.getAllReceipts().size());
+            for (Map.Entry<String, Receipt> entry : receiptRepository.getAllReceipts().entrySet()) {
+                entries.add(Map.entry(entry.getKey(), entry.getValue().copy()));
+            }
+        } while (version != receiptRepository.getVersion() && ++attempt < COPY_ATTEMPTS);
+
+        List<Map.Entry<String, Receipt>> copy = entries;
+        int[] points = copy.parallelStream()
+                .mapToInt(entry -> pointsService.calculatePoints(entry.getValue()))
+                .toArray();
+        List<Map<String, Object>> rows = IntStream.range(0, copy.size())
+                .mapToObj(i -> Collections.unmodifiableMap(
+                        ReceiptSortingService.toReceiptData(copy.get(i).getKey(), copy.get(i).getValue(), points[i])))
+                .toList();
+
+        Map<String, List<Map<String, Object>>> sorted = new LinkedHashMap<>();
+        for (String criteria : CRITERIA) {
+            sorted.put(criteria, Collections.unmodifiableList(receiptSortingService.sortEntries(criteria, copy, points, rows)));
+        }
+        return new Snapshot(version, verifiedAt, Collections.unmodifiableMap(sorted),
+                Collections.unmodifiableMap(analyticsService.summarize(copy, points)));
+    }
+}
@@ -0,0 +1,176 @@
+package com.receiptprocessor.sse;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import com.receiptprocessor.service.AnalyticsStreamService;
+
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Pushes live analytics to servlet SSE clients.
+ * - Servlet writes block, so sends run on a small dedicated pool and never on the publishing or ingest thread.
+ * - Each client holds only its latest pending snapshot; a slow client skips intermediate snapshots.
+ * - A send still in progress after {@code receipts.analytics.stream.send-timeout-ms} marks the client as stalled:
+ *   it is dropped, its send is interrupted and its connection completed with an error, instead of holding a sender
+ *   thread and delaying every other client indefinitely. A write that ignores the interrupt is still bounded by the
+ *   connector's socket timeout.
+ */
+@Component
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+public class AnalyticsSseAdapter {
+
+    private static final Logger log = LoggerFactory.getLogger(AnalyticsSseAdapter.class);
+
+    private final AnalyticsStreamService analyticsStreamService;
+    private final ExecutorService sender;
+    private final long sendTimeoutNanos;
+    private final List<Subscriber> subscribers = new CopyOnWriteArrayList<>();
+
+    /**
+     * @param analyticsStreamService Source of the coalesced analytics snapshots.
+     * @param sendThreads            Threads writing to clients.
+     * @param sendTimeoutMs          How long a single send may take before the client is dropped.
+     */
+    public AnalyticsSseAdapter(AnalyticsStreamService analyticsStreamService,
+                               @Value("${receipts.analytics.stream.send-threads:4}") int sendThreads,
+                               @Value("${receipts.analytics.stream.send-timeout-ms:5000}") long sendTimeoutMs) {
+        this.analyticsStreamService = analyticsStreamService;
+        this.sender = Executors.newFixedThreadPool(sendThreads);
+        this.sendTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(sendTimeoutMs);
+    }
+
+    /**
+     * Opens a new SSE stream and sends it the current analytics right away.
+     *
+     * @return The emitter streaming analytics updates.
+     */
+    public SseEmitter subscribe() {
+        return subscribe(new SseEmitter(0L)); // No timeout, the client decides when to disconnect
+    }
+
+    /**
+     * Streams analytics updates to an emitter.
+     *
+     * @param emitter The emitter of the client's connection.
+     * @return The same emitter.
+     */
+    public SseEmitter subscribe(SseEmitter emitter) {
+        Subscriber subscriber = new Subscriber(emitter);
+        subscribers.add(subscriber);
+        emitter.onCompletion(() -> remove(subscriber));
+        emitter.onTimeout(() -> remove(subscriber));
+        emitter.onError(e -> remove(subscriber));
+        analyticsStreamService.subscribe(subscriber);
+        return emitter;
+    }
+
+    /**
+     * Drops clients whose current send has been blocked for longer than the send timeout.
+     */
+    @Scheduled(fixedDelayString = "${receipts.analytics.stream.interval-ms:1000}")
+    public void dropStalled() {
+        long now = System.nanoTime();
+        for (Subscriber subscriber : subscribers) {
+            long started = subscriber.sendStarted;
+            if (started != 0 && now - started > sendTimeoutNanos) {
+                log.debug("Dropping analytics stream client stalled for {} ms", TimeUnit.NANOSECONDS.toMillis(now - started));
+                subscriber.interrupt(started);
+                subscriber.fail(new IOException("Analytics stream client stalled"));
+            }
+        }
+    }
+
+    public int getSubscriberCount() {
+        return subscribers.size();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        sender.shutdownNow();
+    }
+
+    private void remove(Subscriber subscriber) {
+        subscribers.remove(subscriber);
+        analyticsStreamService.unsubscribe(subscriber);
+    }
+
+    /**
+     * A single SSE connection.
+     * Only the latest snapshot is kept: if the client is still receiving an earlier one, newer snapshots
+     * replace each other and the client gets the most recent when it catches up.
+     */
+    private final class Subscriber implements Consumer<Map<String, Object>> {
+        private final SseEmitter emitter;
+        private final AtomicReference<Map<String, Object>> pending = new AtomicReference<>();
+        private final AtomicBoolean sending = new AtomicBoolean();
+        private volatile Thread sendThread;
+        private volatile long sendStarted; // System.nanoTime() of the send in progress, 0 when idle
+
+        private Subscriber(SseEmitter emitter) {
+            this.emitter = emitter;
+        }
+
+        @Override
+        public void accept(Map<String, Object> analytics) {
+            pending.set(analytics);
+            if (sending.compareAndSet(false, true)) {
+                sender.execute(this::drain);
+            }
+        }
+
+        private void drain() {
+            Thread.interrupted(); // Clear an interrupt meant for a send that finished before it arrived
+            try {
+                Map<String, Object> next;
+                while ((next = pending.getAndSet(null)) != null) {
+                    sendThread = Thread.currentThread();
+                    sendStarted = System.nanoTime();
+                    emitter.send(SseEmitter.event().name("analytics").data(next));
+                    sendStarted = 0;
+                }
+            } catch (IOException | IllegalStateException e) {
+                fail(e);
+                return;
+            } finally {
+                sendStarted = 0;
+                sendThread = null;
+                sending.set(false);
+            }
+            if (pending.get() != null && sending.compareAndSet(false, true)) {
+                sender.execute(this::drain); // A snapshot arrived after the last check
+            }
+        }
+
+        /**
+         * Interrupts the send that started at the given time, if it is still in progress.
+         */
+        private void interrupt(long started) {
+            Thread thread = sendThread;
+            if (thread != null && sendStarted == started) {
+                thread.interrupt();
+            }
+        }
+
+        private void fail(Exception e) {
+            remove(this);
+            emitter.completeWithError(e);
+        }
+    }
+}
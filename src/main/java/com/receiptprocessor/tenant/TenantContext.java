@@ -0,0 +1,29 @@
+package com.receiptprocessor.tenant;
+
+/**
+ * The tenant of the request being handled on the current thread.
+ * Bound by {@link TenantFilter} for requests carrying a tenant header; outside such a request (no header, other
+ * threads, unit tests) {@link #current()} is null and the shared store is used.
+ */
+public final class TenantContext {
+
+    private static final ThreadLocal<TenantPartition> CURRENT = new ThreadLocal<>();
+
+    private TenantContext() {
+    }
+
+    /**
+     * @return The current request's tenant partition, or null for the shared store.
+     */
+    public static TenantPartition current() {
+        return CURRENT.get();
+    }
+
+    static void bind(TenantPartition partition) {
+        CURRENT.set(partition);
+    }
+
+    static void unbind() {
+        CURRENT.remove();
+    }
+}
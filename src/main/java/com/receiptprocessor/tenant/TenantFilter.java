@@ -0,0 +1,143 @@
+package com.receiptprocessor.tenant;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * Routes requests carrying a tenant header to the tenant's partition and enforces its concurrency budget.
+ * - Ingest, point lookups, sorts, searches, account balances and analytics are partitioned; other endpoints only
+ *   serve the shared store and reject a tenant header with a 400, rather than quietly mixing tenants.
+ * - A tenant's partition is created by its first ingest; reads for a tenant that never stored anything get a 404.
+ * - A tenant with all its request slots taken gets a 429 with Retry-After, so a tenant running heavy sorts only
+ *   queues behind itself. Request latency per tenant is recorded in {@code receipts.tenant.requests}.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 2)
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+public class TenantFilter extends OncePerRequestFilter {
+
+    private final TenantRegistry tenantRegistry;
+    private final String header;
+    private final long retryAfterSeconds;
+    private final ObjectMapper objectMapper;
+    private final MeterRegistry meterRegistry;
+
+    /**
+     * @param tenantRegistry    The tenant partitions.
+     * @param header            Name of the header carrying the tenant ID.
+     * @param retryAfterSeconds Retry-After sent when a tenant is over its concurrency budget.
+     * @param objectMapper      Mapper for the error body.
+     * @param meterRegistry     Registry for the per-tenant request timer.
+     */
+    public TenantFilter(TenantRegistry tenantRegistry,
+                        @Value("${receipts.tenants.header:X-Tenant-Id}") String header,
+                        @Value("${receipts.tenants.retry-after-seconds:1}") long retryAfterSeconds,
+                        ObjectMapper objectMapper, MeterRegistry meterRegistry) {
+        this.tenantRegistry = tenantRegistry;
+        this.header = header;
+        this.retryAfterSeconds = retryAfterSeconds;
+        this.objectMapper = objectMapper;
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * Tells whether an endpoint is served from tenant partitions.
+     *
+     * @param method The HTTP method.
+     * @param uri    The request URI.
+     * @return True for partitioned endpoints.
+     */
+    public static boolean isPartitioned(String method, String uri) {
+        if ("POST".equals(method)) {
+            return uri.equals("/receipts/process");
+        }
+        if (!"GET".equals(method) || !uri.startsWith("/receipts/")) {
+            return false;
+        }
+        String path = uri.substring("/receipts/".length());
+        return path.equals("sort") || path.equals("search") || path.equals("analytics") || path.equals("accounts")
+                || (path.startsWith("accounts/") && path.indexOf('/', "accounts/".length()) < 0)
+                || (path.endsWith("/points") && path.indexOf('/') == path.length() - "/points".length());
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        String tenantId = request.getHeader(header);
+        return tenantId == null || TenantRegistry.DEFAULT_TENANT.equals(tenantId);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        String tenantId = request.getHeader(header);
+        if (!isPartitioned(request.getMethod(), request.getRequestURI())) {
+            error(response, HttpStatus.BAD_REQUEST, request.getMethod() + " " + request.getRequestURI()
+                    + " only serves the shared store; remove the " + header + " header.");
+            return;
+        }
+
+        TenantPartition tenant;
+        try {
+            tenant = "POST".equals(request.getMethod()) ? tenantRegistry.getOrCreate(tenantId) : tenantRegistry.get(tenantId);
+        } catch (IllegalArgumentException e) {
+            error(response, HttpStatus.BAD_REQUEST, e.getMessage());
+            return;
+        }
+        if (tenant == null) {
+            error(response, HttpStatus.NOT_FOUND, "Unknown tenant: " + tenantId);
+            return;
+        }
+        if (!tenant.tryAcquire()) {
+            response.setHeader(HttpHeaders.RETRY_AFTER, Long.toString(retryAfterSeconds));
+            error(response, HttpStatus.TOO_MANY_REQUESTS, "Tenant " + tenantId + " has too many requests in progress. Retry after "
+                    + retryAfterSeconds + " s.");
+            return;
+        }
+
+        long start = System.nanoTime();
+        TenantContext.bind(tenant);
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            TenantContext.unbind();
+            tenant.release();
+            Timer.builder("receipts.tenant.requests")
+                    .tag("tenant", tenant.getId())
+                    .description("Requests handled for a tenant")
+                    .register(meterRegistry)
+                    .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private void error(HttpServletResponse response, HttpStatus status, String message) throws IOException {
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("timestamp", LocalDateTime.now());
+        body.put("message", message);
+        body.put("status", status.value());
+        response.setStatus(status.value());
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        objectMapper.writeValue(response.getOutputStream(), body);
+    }
+}
@@ -0,0 +1,224 @@
+package com.receiptprocessor.tenant;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.receiptprocessor.event.ReceiptChangedEvent;
+import com.receiptprocessor.exception.TenantQuotaExceededException;
+import com.receiptprocessor.index.ReceiptIndex;
+import com.receiptprocessor.intern.ReceiptInterner;
+import com.receiptprocessor.metrics.ReceiptMetrics;
+import com.receiptprocessor.model.Receipt;
+import com.receiptprocessor.repository.ReceiptRepository;
+import com.receiptprocessor.service.AccountLedgerService;
+import com.receiptprocessor.service.AnalyticsService;
+import com.receiptprocessor.service.PointsService;
+import com.receiptprocessor.service.ReceiptSortingService;
+import com.receiptprocessor.service.RetentionService;
+import com.receiptprocessor.service.SearchService;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+
+/**
+ * One tenant's share of the service: its own store, indexes, account ledger and aggregates, plus its budgets.
+ * - The store publishes to this partition's listeners only, so a tenant's writes never touch other tenants'
+ *   indexes or cached responses, and its sorts and analytics only scan its own receipts.
+ * - The memory quota applies to the estimated heap of the tenant's receipts (as in {@link ReceiptMetrics}) and is
+ *   reserved before each write, so concurrent ingests cannot overshoot it. Removed receipts release their share.
+ * - Receipts are removed by the retention configured for the shared store, if any, and by an operator purge;
+ *   without retention a tenant at its quota stays there until purged.
+ * - The concurrency budget caps how many of the tenant's requests run at once, which bounds its share of CPU.
+ *   Sorts and analytics go parallel at the shared {@code receipts.parallel.threshold}, on the common fork-join pool,
+ *   so a tenant with several large parallel requests in flight still competes with everyone else for that pool.
+ * Metrics are tagged with the tenant ID: {@code receipts.tenant.receipts}, {@code receipts.tenant.estimated.bytes},
+ * {@code receipts.tenant.quota.bytes}, {@code receipts.tenant.in.flight} and {@code receipts.tenant.rejected} (by reason).
+ */
+public class TenantPartition {
+
+    private final String id;
+    private final long maxBytes;
+    private final int maxConcurrentRequests;
+    private final Semaphore permits;
+    private final AtomicLong estimatedBytes = new AtomicLong();
+    private final ReceiptInterner interner;
+    private final ReceiptRepository repository;
+    private final ReceiptIndex index;
+    private final AccountLedgerService accountLedgerService;
+    private final SearchService searchService;
+    private final ReceiptSortingService sortingService;
+    private final AnalyticsService analyticsService;
+    private final RetentionService retention;
+    private final Counter quotaRejections;
+    private final Counter concurrencyRejections;
+
+    /**
+     * @param id                    The tenant ID.
+     * @param maxBytes              Memory quota: the most estimated heap the tenant's receipts may hold.
+     * @param maxConcurrentRequests Concurrency budget: the most requests of the tenant handled at once.
+     * @param parallelThreshold     Store size at which the tenant's sorts and analytics run in parallel.
+     * @param pointsService         Shared points rules.
+     * @param interner              Shared string dictionaries, or null to keep the receipts' own strings.
+     * @param retention             Retention of the shared store, whose settings the tenant follows, or null to keep
+     *                              receipts until purged.
+     * @param meterRegistry         Registry for the tenant metrics.
+     */
+    public TenantPartition(String id, long maxBytes, int maxConcurrentRequests, int parallelThreshold,
+                           PointsService pointsService, ReceiptInterner interner, RetentionService retention,
+                           MeterRegistry meterRegistry) {
+        this.id = id;
+        this.maxBytes = maxBytes;
+        this.maxConcurrentRequests = maxConcurrentRequests;
+        this.permits = new Semaphore(maxConcurrentRequests);
+        this.interner = interner;
+        this.repository = new ReceiptRepository(event -> onReceiptChanged((ReceiptChangedEvent) event));
+        this.index = new ReceiptIndex(repository, pointsService);
+        this.accountLedgerService = new AccountLedgerService(repository, pointsService);
+        this.searchService = new SearchService(index);
+        this.sortingService = new ReceiptSortingService(repository, pointsService);
+        this.analyticsService = new AnalyticsService(repository, pointsService);
+        sortingService.setParallelThreshold(parallelThreshold);
+        analyticsService.setParallelThreshold(parallelThreshold);
+        this.retention = retention == null ? null : retention.forRepository(repository);
+
+        Tags tags = Tags.of("tenant", id);
+        this.quotaRejections = meterRegistry.counter("receipts.tenant.rejected", tags.and("reason", "quota"));
+        this.concurrencyRejections = meterRegistry.counter("receipts.tenant.rejected", tags.and("reason", "concurrency"));
+        meterRegistry.gauge("receipts.tenant.receipts", tags, repository, r -> r.getAllReceipts().size());
+        meterRegistry.gauge("receipts.tenant.estimated.bytes", tags, estimatedBytes, AtomicLong::get);
+        meterRegistry.gauge("receipts.tenant.quota.bytes", tags, this, p -> p.maxBytes);
+        meterRegistry.gauge("receipts.tenant.in.flight", tags, this, TenantPartition::getInFlight);
+    }
+
+    /**
+     * Stores a receipt in the tenant's store if it fits the memory quota.
+     *
+     * @param receipt The validated receipt.
+     * @return The generated receipt ID.
+     * @throws TenantQuotaExceededException if the receipt would take the tenant past its quota.
+     */
+    public String saveReceipt(Receipt receipt) {
+        long bytes = ReceiptMetrics.estimateBytes(receipt);
+        long used;
+        do {
+            used = estimatedBytes.get();
+            if (used + bytes > maxBytes) {
+                quotaRejections.increment();
+                throw new TenantQuotaExceededException("Tenant " + id + " has reached its storage quota of " + maxBytes
+                        + " bytes (" + used + " used).");
+            }
+        } while (!estimatedBytes.compareAndSet(used, used + bytes));
+        return repository.saveReceipt(receipt);
+    }
+
+    /**
+     * Removes the tenant's receipts whose retention has run out, within one sweep's time budget.
+     *
+     * @return The number of receipts removed.
+     */
+    public int expire() {
+        return retention == null ? 0 : retention.sweep();
+    }
+
+    /**
+     * Removes every receipt of the tenant, releasing its whole memory quota. The partition itself, its metrics and
+     * its budgets are kept, so the tenant can store receipts again right away.
+     *
+     * @return The number of receipts removed.
+     */
+    public int purge() {
+        int removed = 0;
+        for (String receiptId : new ArrayList<>(repository.getAllReceipts().keySet())) {
+            if (repository.removeReceipt(receiptId) != null) {
+                removed++;
+            }
+        }
+        return removed;
+    }
+
+    /**
+     * Takes one of the tenant's request slots.
+     *
+     * @return True if a slot was free; the caller must {@link #release()} it.
+     */
+    boolean tryAcquire() {
+        if (permits.tryAcquire()) {
+            return true;
+        }
+        concurrencyRejections.increment();
+        return false;
+    }
+
+    void release() {
+        permits.release();
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public ReceiptRepository getRepository() {
+        return repository;
+    }
+
+    public AccountLedgerService getAccountLedgerService() {
+        return accountLedgerService;
+    }
+
+    public SearchService getSearchService() {
+        return searchService;
+    }
+
+    public ReceiptSortingService getSortingService() {
+        return sortingService;
+    }
+
+    public AnalyticsService getAnalyticsService() {
+        return analyticsService;
+    }
+
+    public long getEstimatedBytes() {
+        return estimatedBytes.get();
+    }
+
+    public int getInFlight() {
+        return maxConcurrentRequests - permits.availablePermits();
+    }
+
+    /**
+     * @return The tenant's usage against its budgets.
+     */
+    public Map<String, Object> toMap() {
+        Map<String, Object> map = new LinkedHashMap<>();
+        map.put("tenant", id);
+        map.put("receipts", repository.getAllReceipts().size());
+        map.put("estimatedBytes", estimatedBytes.get());
+        map.put("maxBytes", maxBytes);
+        map.put("inFlight", getInFlight());
+        map.put("maxConcurrentRequests", maxConcurrentRequests);
+        return map;
+    }
+
+    /**
+     * Feeds the tenant's store changes to its own listeners, interning strings first as the shared store does.
+     * Saves are reserved against the quota up front; removals release their bytes here. Tenants do not update or
+     * tag receipts, so their estimate never changes in between.
+     */
+    private void onReceiptChanged(ReceiptChangedEvent event) {
+        if (interner != null) {
+            interner.onReceiptChanged(event);
+        }
+        index.onReceiptChanged(event);
+        accountLedgerService.onReceiptChanged(event);
+        if (retention != null) {
+            retention.onReceiptChanged(event);
+        }
+        if (event.type() == ReceiptChangedEvent.Type.REMOVED) {
+            estimatedBytes.addAndGet(-ReceiptMetrics.estimateBytes(event.receipt()));
+        }
+    }
+}
@@ -0,0 +1,217 @@
+package com.receiptprocessor.tenant;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.env.Environment;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.receiptprocessor.intern.ReceiptInterner;
+import com.receiptprocessor.service.AnalyticsService;
+import com.receiptprocessor.service.PointsService;
+import com.receiptprocessor.service.RetentionService;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * The tenant partitions, created on a tenant's first write.
+ * - Requests without a tenant header, or with the reserved ID {@value #DEFAULT_TENANT}, use the shared store.
+ * - Quotas default to {@code receipts.tenants.max-bytes} and {@code receipts.tenants.max-concurrent-requests} and
+ *   can be set per tenant as {@code receipts.tenants.<id>.max-bytes} and
+ *   {@code receipts.tenants.<id>.max-concurrent-requests}.
+ * - At most {@code receipts.tenants.max-tenants} partitions are created, which also bounds the metric tags.
+ * - When {@code receipts.retention.ttl} is set, tenant receipts expire like shared ones, swept on the same schedule.
+ * Global analytics merge the per-tenant aggregates instead of scanning one combined store.
+ */
+@Component
+public class TenantRegistry {
+
+    /** Tenant ID that stands for the shared store. */
+    public static final String DEFAULT_TENANT = "default";
+
+    private static final Pattern TENANT_ID = Pattern.compile("[A-Za-z0-9_-]{1,64}");
+
+    private final PointsService pointsService;
+    private final ReceiptInterner interner;
+    private final AnalyticsService analyticsService;
+    private final RetentionService retention;
+    private final Environment environment;
+    private final MeterRegistry meterRegistry;
+    private final int maxTenants;
+    private final long defaultMaxBytes;
+    private final int defaultMaxConcurrentRequests;
+    private final int parallelThreshold;
+    private final Map<String, TenantPartition> partitions = new ConcurrentHashMap<>();
+
+    /**
+     * @param pointsService                Shared points rules.
+     * @param interner                     Shared string dictionaries.
+     * @param analyticsService             Analytics of the shared store, merged into global analytics.
+     * @param retention                    Retention of the shared store, applied to tenants too when configured.
+     * @param environment                  Source of per-tenant quota overrides.
+     * @param meterRegistry                Registry for the tenant metrics.
+     * @param maxTenants                   The most tenant partitions created.
+     * @param defaultMaxBytes              Memory quota of tenants without their own.
+     * @param defaultMaxConcurrentRequests Concurrency budget of tenants without their own.
+     * @param parallelThreshold            Store size at which tenant sorts and analytics run in parallel.
+     */
+    public TenantRegistry(PointsService pointsService, ReceiptInterner interner, AnalyticsService analyticsService,
+                          ObjectProvider<RetentionService> retention, Environment environment, MeterRegistry meterRegistry,
+                          @Value("${receipts.tenants.max-tenants:100}") int maxTenants,
+                          @Value("${receipts.tenants.max-bytes:268435456}") long defaultMaxBytes,
+                          @Value("${receipts.tenants.max-concurrent-requests:8}") int defaultMaxConcurrentRequests,
+                          @Value("${receipts.parallel.threshold:10000}") int parallelThreshold) {
+        this.pointsService = pointsService;
+        this.interner = interner;
+        this.analyticsService = analyticsService;
+        this.retention = retention.getIfAvailable();
+        this.environment = environment;
+        this.meterRegistry = meterRegistry;
+        this.maxTenants = maxTenants;
+        this.defaultMaxBytes = defaultMaxBytes;
+        this.defaultMaxConcurrentRequests = defaultMaxConcurrentRequests;
+        this.parallelThreshold = parallelThreshold;
+    }
+
+    /**
+     * Returns a tenant's partition, creating it if needed.
+     *
+     * @param tenantId The tenant ID.
+     * @return The partition.
+     * @throws IllegalArgumentException if the ID is malformed or reserved, or the tenant limit is reached.
+     */
+    public TenantPartition getOrCreate(String tenantId) {
+        TenantPartition partition = get(tenantId);
+        if (partition != null) {
+            return partition;
+        }
+        synchronized (partitions) {
+            partition = partitions.get(tenantId);
+            if (partition == null) {
+                if (partitions.size() >= maxTenants) {
+                    throw new IllegalArgumentException("Cannot add tenant " + tenantId + ": the limit of " + maxTenants
+                            + " tenants is reached.");
+                }
+                String prefix = "receipts.tenants." + tenantId + ".";
+                partition = new TenantPartition(tenantId,
+                        environment.getProperty(prefix + "max-bytes", Long.class, defaultMaxBytes),
+                        environment.getProperty(prefix + "max-concurrent-requests", Integer.class, defaultMaxConcurrentRequests),
+                        parallelThreshold, pointsService, interner, retention, meterRegistry);
+                partitions.put(tenantId, partition);
+            }
+            return partition;
+        }
+    }
+
+    /**
+     * Returns a tenant's partition.
+     *
+     * @param tenantId The tenant ID.
+     * @return The partition, or null if the tenant has not stored anything yet.
+     * @throws IllegalArgumentException if the ID is malformed or reserved.
+     */
+    public TenantPartition get(String tenantId) {
+        if (tenantId == null || !TENANT_ID.matcher(tenantId).matches() || DEFAULT_TENANT.equals(tenantId)) {
+            throw new IllegalArgumentException("Invalid tenant ID: " + tenantId + ". Use 1 to 64 letters, digits, '_' or '-'.");
+        }
+        return partitions.get(tenantId);
+    }
+
+    /**
+     * @return The tenant partitions, ordered by ID.
+     */
+    public List<TenantPartition> getAll() {
+        List<TenantPartition> all = new ArrayList<>(partitions.values());
+        all.sort(Comparator.comparing(TenantPartition::getId));
+        return all;
+    }
+
+    /**
+     * Expires tenant receipts past the retention, one sweep per tenant.
+     */
+    @Scheduled(fixedDelayString = "${receipts.retention.sweep-interval-ms:1000}")
+    public void expireTenantReceipts() {
+        if (retention == null) {
+            return;
+        }
+        for (TenantPartition partition : partitions.values()) {
+            partition.expire();
+        }
+    }
+
+    /**
+     * Removes every receipt of a tenant, releasing its memory quota.
+     *
+     * @param tenantId The tenant ID.
+     * @return The tenant's usage after the purge, with the number of receipts removed, or null if the tenant is unknown.
+     * @throws IllegalArgumentException if the ID is malformed or reserved.
+     */
+    public Map<String, Object> purge(String tenantId) {
+        TenantPartition partition = get(tenantId);
+        if (partition == null) {
+            return null;
+        }
+        int removed = partition.purge();
+        Map<String, Object> result = partition.toMap();
+        result.put("purged", removed);
+        return result;
+    }
+
+    /**
+     * Analytics over the shared store and every tenant, merged from each one's own aggregates.
+     * The receipt with the highest total is reported with its tenant, since receipt IDs are only unique per tenant.
+     *
+     * @return The merged analytics, shaped like {@link AnalyticsService#getAnalytics()}, plus "tenants".
+     */
+    public Map<String, Object> getGlobalAnalytics() {
+        Map<String, Map<String, Object>> byTenant = new LinkedHashMap<>();
+        byTenant.put(DEFAULT_TENANT, analyticsService.getAnalytics());
+        for (TenantPartition partition : getAll()) {
+            byTenant.put(partition.getId(), partition.getAnalyticsService().getAnalytics());
+        }
+        return merge(byTenant);
+    }
+
+    /**
+     * Merges analytics: counts add up, the average is weighted by receipts, and the highest total wins
+     * (the first one on ties).
+     *
+     * @param byTenant The analytics of each tenant, in order.
+     * @return The merged analytics.
+     */
+    private static Map<String, Object> merge(Map<String, Map<String, Object>> byTenant) {
+        long totalReceipts = 0;
+        double totalPoints = 0;
+        Map<String, Object> highest = null;
+        double highestTotal = Double.NEGATIVE_INFINITY;
+        for (Map.Entry<String, Map<String, Object>> tenant : byTenant.entrySet()) {
+            Map<String, Object> analytics = tenant.getValue();
+            int receipts = (int) analytics.get("totalReceipts");
+            totalReceipts += receipts;
+            totalPoints += (double) analytics.get("averagePoints") * receipts;
+            @SuppressWarnings("unchecked")
+            Map<String, Object> candidate = (Map<String, Object>) analytics.get("highestTotalReceipt");
+            if (candidate != null && Double.parseDouble((String) candidate.get("total")) > highestTotal) {
+                highestTotal = Double.parseDouble((String) candidate.get("total"));
+                highest = new LinkedHashMap<>(candidate);
+                highest.put("tenant", tenant.getKey());
+            }
+        }
+
+        Map<String, Object> merged = new HashMap<>();
+        merged.put("totalReceipts", totalReceipts);
+        merged.put("averagePoints", totalReceipts == 0 ? 0.0 : totalPoints / totalReceipts);
+        merged.put("highestTotalReceipt", highest);
+        merged.put("tenants", byTenant.size());
+        return merged;
+    }
+}
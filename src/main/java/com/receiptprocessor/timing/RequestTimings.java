@@ -0,0 +1,97 @@
+package com.receiptprocessor.timing;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Lightweight per-request stage timing.
+ * A recording is bound to the request thread by {@link RequestTimingFilter}; code on that thread marks
+ * stages with {@code try (RequestTimings.Stage stage = RequestTimings.stage("sort")) { ... }}.
+ * Outside a recording (other threads, unit tests) {@link #stage(String)} is a no-op.
+ * Repeated stages with the same name are summed.
+ */
+public final class RequestTimings {
+
+    private static final ThreadLocal<RequestTimings> CURRENT = new ThreadLocal<>();
+    private static final Stage NO_OP = () -> { };
+
+    private final long startNanos = System.nanoTime();
+    private final Map<String, Long> stageNanos = new LinkedHashMap<>();
+
+    /**
+     * A timed stage; closing it records its duration.
+     */
+    @FunctionalInterface
+    public interface Stage extends AutoCloseable {
+        @Override
+        void close();
+    }
+
+    private RequestTimings() {
+    }
+
+    /**
+     * Starts a stage in the current thread's recording, if any.
+     *
+     * @param name The stage name, e.g. "points".
+     * @return The stage to close when it ends.
+     */
+    public static Stage stage(String name) {
+        RequestTimings timings = CURRENT.get();
+        if (timings == null) {
+            return NO_OP;
+        }
+        long start = System.nanoTime();
+        return () -> timings.stageNanos.merge(name, System.nanoTime() - start, Long::sum);
+    }
+
+    /**
+     * Starts a recording bound to the current thread.
+     *
+     * @return The new recording.
+     */
+    static RequestTimings begin() {
+        RequestTimings timings = new RequestTimings();
+        CURRENT.set(timings);
+        return timings;
+    }
+
+    /**
+     * @return The current thread's recording, or null if none is active.
+     */
+    static RequestTimings current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * Unbinds the recording from the current thread.
+     */
+    void end() {
+        CURRENT.remove();
+    }
+
+    long elapsedNanos() {
+        return System.nanoTime() - startNanos;
+    }
+
+    Map<String, Long> getStageNanos() {
+        return Collections.unmodifiableMap(stageNanos);
+    }
+
+    /**
+     * Formats the stages recorded so far as a Server-Timing header value, e.g. {@code sort;dur=12.4, points;dur=3.1}.
+     *
+     * @return The header value.
+     */
+    String toServerTiming() {
+        StringBuilder header = new StringBuilder();
+        stageNanos.forEach((name, nanos) -> {
+            if (header.length() > 0) {
+                header.append(", ");
+            }
+            header.append(name).append(";dur=").append(String.format("%.2f", nanos / 1_000_000.0));
+        });
+        return header.toString();
+    }
+}
@@ -0,0 +1,83 @@
+package com.receiptprocessor.timing;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Bounded in-memory ring of the most recent slow requests with their stage breakdown.
+ */
+@Component
+public class SlowRequestLog {
+
+    /**
+     * A captured slow request.
+     *
+     * @param timestamp When the request finished.
+     * @param method    The HTTP method.
+     * @param uri       The request URI including the query string.
+     * @param status    The response status.
+     * @param totalMs   The total time spent in the request, in milliseconds.
+     * @param stagesMs  Time per recorded stage, in milliseconds; "other" covers time outside any stage, such as
+     *                  filters, request parsing and responses written by the framework instead of the response cache.
+     */
+    public record SlowRequest(Instant timestamp, String method, String uri, int status, double totalMs,
+                              Map<String, Double> stagesMs) {
+    }
+
+    private final SlowRequest[] ring;
+    private final long thresholdNanos;
+    private long next;
+
+    public SlowRequestLog(@Value("${receipts.timing.slow-log-size:100}") int size,
+                          @Value("${receipts.timing.slow-threshold-ms:500}") long thresholdMs) {
+        this.ring = new SlowRequest[size];
+        this.thresholdNanos = thresholdMs * 1_000_000;
+    }
+
+    /**
+     * Captures a finished request if it exceeded the slow-request threshold.
+     *
+     * @param method  The HTTP method.
+     * @param uri     The request URI.
+     * @param status  The response status.
+     * @param timings The request's recording.
+     */
+    void record(String method, String uri, int status, RequestTimings timings) {
+        long totalNanos = timings.elapsedNanos();
+        if (totalNanos < thresholdNanos || ring.length == 0) {
+            return;
+        }
+
+        Map<String, Double> stagesMs = new LinkedHashMap<>();
+        long recordedNanos = 0;
+        for (Map.Entry<String, Long> stage : timings.getStageNanos().entrySet()) {
+            stagesMs.put(stage.getKey(), stage.getValue() / 1_000_000.0);
+            recordedNanos += stage.getValue();
+        }
+        stagesMs.put("other", Math.max(0, totalNanos - recordedNanos) / 1_000_000.0);
+
+        SlowRequest slowRequest = new SlowRequest(Instant.now(), method, uri, status, totalNanos / 1_000_000.0, stagesMs);
+        synchronized (this) {
+            ring[(int) (next++ % ring.length)] = slowRequest;
+        }
+    }
+
+    /**
+     * Returns the captured slow requests, most recent first.
+     *
+     * @return The slow requests.
+     */
+    public synchronized List<SlowRequest> getSlowRequests() {
+        List<SlowRequest> requests = new ArrayList<>();
+        for (long i = next - 1; i >= 0 && i >= next - ring.length; i--) {
+            requests.add(ring[(int) (i % ring.length)]);
+        }
+        return requests;
+    }
+}
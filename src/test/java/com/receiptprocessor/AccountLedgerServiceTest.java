@@ -0,0 +1,129 @@
+package com.receiptprocessor;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import com.receiptprocessor.event.ReceiptChangedEvent;
+import com.receiptprocessor.index.ReceiptIndex;
+import com.receiptprocessor.model.Item;
+import com.receiptprocessor.model.Receipt;
+import com.receiptprocessor.repository.ReceiptRepository;
+import com.receiptprocessor.service.AccountLedgerService;
+import com.receiptprocessor.service.PointsService;
+
+class AccountLedgerServiceTest {
+
+    private final PointsService pointsService = new PointsService();
+    private ReceiptRepository receiptRepository;
+    private AccountLedgerService ledger;
+
+    @BeforeEach
+    void setUp() {
+        receiptRepository = new ReceiptRepository(event -> ledger.onReceiptChanged((ReceiptChangedEvent) event));
+        ledger = new AccountLedgerService(receiptRepository, pointsService);
+    }
+
+    private static Receipt receipt(String accountId, int i) {
+        Receipt receipt = new Receipt();
+        receipt.setRetailer("Retailer " + (i % 13));
+        receipt.setPurchaseDate("2024-01-" + (10 + i % 20));
+        receipt.setPurchaseTime("1" + (i % 10) + ":15");
+        receipt.setTotal((i % 40) + "." + (i % 4 == 0 ? "00" : "25"));
+        receipt.setItems(List.of(new Item("Item " + i, "1.00"), new Item("Gatorade", "2.25")));
+        receipt.setAccountId(accountId);
+        return receipt;
+    }
+
+    /**
+     * Recomputes every account's balance from the store.
+     */
+    private Map<String, AccountLedgerService.Balance> expected() {
+        Map<String, AccountLedgerService.Balance> balances = new HashMap<>();
+        for (Receipt receipt : receiptRepository.getAllReceipts().values()) {
+            String accountId = AccountLedgerService.accountKey(receipt.getAccountId());
+            if (accountId != null) {
+                long cents = ReceiptIndex.parseCents(receipt.getTotal());
+                balances.merge(accountId, new AccountLedgerService.Balance(accountId, pointsService.calculatePoints(receipt), cents, 1),
+                        (a, b) -> new AccountLedgerService.Balance(accountId, a.points() + b.points(),
+                                a.spendCents() + b.spendCents(), a.receipts() + b.receipts()));
+            }
+        }
+        return balances;
+    }
+
+    @Test
+    @DisplayName("Balances follow ingest, inventory updates and removals")
+    void testBalances() {
+        String first = receiptRepository.saveReceipt(receipt("acct-1", 1));
+        receiptRepository.saveReceipt(receipt(" acct-1 ", 2));
+        receiptRepository.saveReceipt(receipt("acct-2", 3));
+        receiptRepository.saveReceipt(receipt(null, 4));
+        receiptRepository.saveReceipt(receipt("  ", 5));
+
+        assertEquals(expected().get("acct-1"), ledger.getBalance("acct-1"));
+        assertEquals(2, ledger.getBalance("acct-1").receipts());
+        assertEquals(2, ledger.getAccountCount());
+
+        receiptRepository.updateReceiptInventory(first, List.of(new Item("Emils Cheese Pizza", "12.25"), new Item("Knorr", "1.26"),
+                new Item("Doritos", "3.35")));
+        assertEquals(expected().get("acct-1"), ledger.getBalance("acct-1"));
+
+        receiptRepository.removeReceipt(first);
+        assertEquals(expected().get("acct-1"), ledger.getBalance("acct-1"));
+        assertEquals(1, ledger.getBalance("acct-1").receipts());
+        assertNull(ledger.getBalance("acct-3"));
+
+        Map<String, Object> map = ledger.getBalance("acct-2").toMap();
+        assertEquals("3.25", map.get("spend"));
+    }
+
+    @Test
+    @DisplayName("Concurrent writes keep balances and the ranking consistent with the store")
+    void testConcurrentWritesAndRanking() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        List<Future<String>> saved = new ArrayList<>();
+        for (int i = 0; i < 2000; i++) {
+            int n = i;
+            saved.add(executor.submit(() -> receiptRepository.saveReceipt(receipt("acct-" + (n % 37), n))));
+        }
+        List<Future<?>> updates = new ArrayList<>();
+        for (int i = 0; i < saved.size(); i += 3) {
+            String id = saved.get(i).get();
+            int n = i;
+            updates.add(executor.submit(() -> receiptRepository.updateReceiptInventory(id,
+                    List.of(new Item("Extra item " + n, "0.99")))));
+        }
+        for (Future<?> update : updates) {
+            update.get();
+        }
+        executor.shutdown();
+        executor.awaitTermination(10, TimeUnit.SECONDS);
+
+        Map<String, AccountLedgerService.Balance> expected = expected();
+        assertEquals(expected.size(), ledger.getAccountCount());
+        expected.forEach((accountId, balance) -> assertEquals(balance, ledger.getBalance(accountId)));
+
+        List<AccountLedgerService.Balance> ranked = expected.values().stream()
+                .sorted(Comparator.comparingLong(AccountLedgerService.Balance::points).reversed()
+                        .thenComparing(AccountLedgerService.Balance::accountId))
+                .toList();
+        assertEquals(ranked.subList(0, 5), ledger.getTopAccounts(5));
+        assertEquals(ranked, ledger.getTopAccounts(AccountLedgerService.MAX_TOP));
+        assertThrows(IllegalArgumentException.class, () -> ledger.getTopAccounts(0));
+    }
+}
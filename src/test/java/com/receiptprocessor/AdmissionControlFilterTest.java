@@ -0,0 +1,135 @@
+package com.receiptprocessor;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.receiptprocessor.admission.AdaptiveLimit;
+import com.receiptprocessor.admission.AdmissionControlFilter;
+import com.receiptprocessor.admission.AdmissionControlFilter.Endpoint;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.FilterChain;
+
+class AdmissionControlFilterTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    private AdmissionControlFilter filter(int initialLimit, int maxLimit) {
+        return new AdmissionControlFilter(initialLimit, 1, maxLimit, 0.5, 100, 500, 2000, 3,
+                new ObjectMapper().registerModule(new JavaTimeModule()), registry);
+    }
+
+    private Future<MockHttpServletResponse> submit(AdmissionControlFilter filter, String method, String uri, FilterChain chain) {
+        return executor.submit(() -> {
+            MockHttpServletResponse response = new MockHttpServletResponse();
+            filter.doFilter(new MockHttpServletRequest(method, uri), response, chain);
+            return response;
+        });
+    }
+
+    @Test
+    @DisplayName("Requests are classified by endpoint and priority")
+    void testClassification() {
+        assertEquals(Endpoint.INGEST, Endpoint.of("POST", "/receipts/process"));
+        assertEquals(Endpoint.POINTS, Endpoint.of("GET", "/receipts/7f1c/points"));
+        assertEquals(Endpoint.SORT, Endpoint.of("GET", "/receipts/sort"));
+        assertEquals(Endpoint.ANALYTICS, Endpoint.of("GET", "/receipts/analytics"));
+        assertEquals(Endpoint.SCORE, Endpoint.of("POST", "/receipts/score"));
+        assertEquals(Endpoint.OTHER, Endpoint.of("GET", "/receipts/search"));
+        assertEquals(Endpoint.OTHER, Endpoint.of("GET", "/receipts/a/b/points"));
+        assertNull(Endpoint.of("GET", "/receipts/analytics/stream"));
+        assertNull(Endpoint.of("GET", "/receipts/changes"));
+        assertNull(Endpoint.of("GET", "/actuator/prometheus"));
+    }
+
+    @Test
+    @DisplayName("Low-priority requests are shed with 503 and Retry-After while critical ones are admitted")
+    void testShedsLowPriorityFirst() throws Exception {
+        AdmissionControlFilter filter = filter(8, 4);
+        CountDownLatch started = new CountDownLatch(2);
+        CountDownLatch release = new CountDownLatch(1);
+        FilterChain blocking = (request, response) -> {
+            started.countDown();
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        };
+
+        // Two sorts fill the low-priority half of the shared limit of 4
+        List<Future<MockHttpServletResponse>> running = new ArrayList<>();
+        running.add(submit(filter, "GET", "/receipts/sort", blocking));
+        running.add(submit(filter, "GET", "/receipts/analytics", blocking));
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+
+        MockHttpServletResponse shed = submit(filter, "GET", "/receipts/sort", (request, response) -> { }).get();
+        assertEquals(503, shed.getStatus());
+        assertEquals("3", shed.getHeader("Retry-After"));
+        assertTrue(shed.getContentAsString().contains("\"status\":503"));
+
+        MockHttpServletResponse ingest = submit(filter, "POST", "/receipts/process", (request, response) -> { }).get();
+        assertEquals(200, ingest.getStatus());
+
+        release.countDown();
+        for (Future<MockHttpServletResponse> response : running) {
+            assertEquals(200, response.get().getStatus());
+        }
+        assertEquals(1.0, registry.get("receipts.admission.shed").tag("endpoint", "sort").tag("priority", "low").counter().count());
+        assertEquals(200, submit(filter, "GET", "/receipts/sort", (request, response) -> { }).get().getStatus());
+    }
+
+    @Test
+    @DisplayName("Limits grow while in use and fast, and back off on slow or failing requests")
+    void testAimd() throws Exception {
+        AdaptiveLimit limit = new AdaptiveLimit(10, 2, 20, 0.5);
+        long target = TimeUnit.MILLISECONDS.toNanos(100);
+
+        assertTrue(limit.tryAcquire(1.0));
+        limit.release(1_000, target, false);
+        assertEquals(10.0, limit.getLimit(), "an idle limit does not grow");
+
+        for (int i = 0; i < 10; i++) {
+            assertTrue(limit.tryAcquire(1.0));
+        }
+        assertEquals(false, limit.tryAcquire(1.0));
+        limit.release(1_000, target, false);
+        assertEquals(10.1, limit.getLimit(), 1e-9);
+
+        Thread.sleep(150);
+        limit.release(target * 2, target, false);
+        limit.release(target * 2, target, false);
+        assertEquals(5.05, limit.getLimit(), 1e-9, "slow completions in one interval back off once");
+
+        Thread.sleep(150);
+        limit.release(1_000, target, true);
+        assertEquals(2.525, limit.getLimit(), 1e-9);
+        Thread.sleep(150);
+        limit.release(1_000, target, true);
+        assertEquals(2.0, limit.getLimit(), 1e-9, "never below the minimum");
+        assertEquals(5, limit.getInFlight());
+    }
+}
@@ -10,7 +10,9 @@ import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.springframework.test.util.ReflectionTestUtils;
 
+import java.util.HashMap;
 import java.util.Map;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -71,4 +73,26 @@ class AnalyticsServiceTest {
         assertEquals("50.00", highestTotalReceipt.get("total"));
         assertEquals(60, highestTotalReceipt.get("points"));
     }
+
+    @Test
+    void testGetAnalytics_ParallelMatchesSequential() {
+        Map<String, Receipt> store = new HashMap<>();
+        for (int i = 0; i < 300; i++) {
+            Receipt receipt = new Receipt();
+            receipt.setRetailer("Store " + i);
+            receipt.setTotal(i % 5 == 0 ? "invalid" : (i % 41) + ".50"); // Several receipts share the highest total
+            store.put("id" + i, receipt);
+            when(pointsService.calculatePoints(receipt)).thenReturn(i % 13);
+            when(receiptRepository.getReceiptId(receipt)).thenReturn("id" + i);
+        }
+        when(receiptRepository.getAllReceipts()).thenReturn(store);
+
+        ReflectionTestUtils.setField(analyticsService, "parallelThreshold", Integer.MAX_VALUE);
+        Map<String, Object> sequential = analyticsService.getAnalytics();
+
+        ReflectionTestUtils.setField(analyticsService, "parallelThreshold", 0);
+        Map<String, Object> parallel = analyticsService.getAnalytics();
+
+        assertEquals(sequential, parallel);
+    }
 }
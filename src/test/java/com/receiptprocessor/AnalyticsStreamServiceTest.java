@@ -0,0 +1,112 @@
+package com.receiptprocessor;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import com.receiptprocessor.event.ReceiptChangedEvent;
+import com.receiptprocessor.model.Receipt;
+import com.receiptprocessor.service.AnalyticsService;
+import com.receiptprocessor.service.AnalyticsStreamService;
+import com.receiptprocessor.sse.AnalyticsSseAdapter;
+
+class AnalyticsStreamServiceTest {
+
+    @Mock
+    private AnalyticsService analyticsService;
+
+    private AnalyticsStreamService analyticsStreamService;
+    private AnalyticsSseAdapter analyticsSseAdapter;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        when(analyticsService.getAnalytics()).thenReturn(Map.of("totalReceipts", 0));
+        analyticsStreamService = new AnalyticsStreamService(analyticsService);
+        analyticsSseAdapter = new AnalyticsSseAdapter(analyticsStreamService, 1, 50);
+    }
+
+    @AfterEach
+    void tearDown() {
+        analyticsSseAdapter.shutdown();
+    }
+
+    private void receiptSaved() {
+        analyticsStreamService.onReceiptChanged(
+                new ReceiptChangedEvent(ReceiptChangedEvent.Type.SAVED, "id", new Receipt(), null));
+    }
+
+    @Test
+    @DisplayName("Bursts of changes are coalesced into one analytics computation")
+    void testChangesAreCoalesced() {
+        analyticsStreamService.subscribe(analytics -> { }); // Initial snapshot
+        analyticsStreamService.publish(); // Nothing changed yet
+
+        receiptSaved();
+        receiptSaved();
+        receiptSaved();
+        analyticsStreamService.publish();
+        analyticsStreamService.publish(); // No new changes
+
+        verify(analyticsService, times(2)).getAnalytics();
+    }
+
+    @Test
+    @DisplayName("No analytics are computed without subscribers")
+    void testNoSubscribers() {
+        receiptSaved();
+        analyticsStreamService.publish();
+
+        verify(analyticsService, times(0)).getAnalytics();
+    }
+
+    @Test
+    @DisplayName("A stalled SSE client is dropped and stops holding the sender back")
+    void testStalledClientIsDropped() throws Exception {
+        CountDownLatch stalledSend = new CountDownLatch(1);
+        CountDownLatch received = new CountDownLatch(1);
+        SseEmitter stalled = new SseEmitter(0L) {
+            @Override
+            public void send(SseEventBuilder builder) throws IOException {
+                stalledSend.countDown();
+                try {
+                    new CountDownLatch(1).await(); // Client never reads
+                } catch (InterruptedException e) {
+                    throw new IOException("Interrupted", e);
+                }
+            }
+        };
+        SseEmitter healthy = new SseEmitter(0L) {
+            @Override
+            public void send(SseEventBuilder builder) {
+                received.countDown();
+            }
+        };
+
+        analyticsSseAdapter.subscribe(stalled);
+        assertTrue(stalledSend.await(1, TimeUnit.SECONDS));
+        analyticsSseAdapter.subscribe(healthy); // Queued behind the stalled send on the only sender thread
+        assertEquals(1, received.getCount());
+
+        Thread.sleep(100);
+        analyticsSseAdapter.dropStalled();
+
+        assertTrue(received.await(1, TimeUnit.SECONDS));
+        assertEquals(1, analyticsSseAdapter.getSubscriberCount());
+    }
+}
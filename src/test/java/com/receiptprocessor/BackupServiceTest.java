@@ -0,0 +1,134 @@
+package com.receiptprocessor;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.BufferedReader;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.zip.GZIPInputStream;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.receiptprocessor.backup.BackupService;
+import com.receiptprocessor.backup.BackupService.Format;
+import com.receiptprocessor.event.ReceiptChangedEvent;
+import com.receiptprocessor.json.ReceiptJsonModule;
+import com.receiptprocessor.metrics.ValidationMetrics;
+import com.receiptprocessor.model.Item;
+import com.receiptprocessor.model.Receipt;
+import com.receiptprocessor.repository.ReceiptRepository;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class BackupServiceTest {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper().registerModule(new ReceiptJsonModule());
+
+    @TempDir
+    Path directory;
+
+    private ReceiptRepository source;
+    private BackupService sourceBackups;
+
+    @BeforeEach
+    void setUp() {
+        source = new ReceiptRepository(event -> { });
+        sourceBackups = new BackupService(source, MAPPER, new ValidationMetrics(new SimpleMeterRegistry()), directory.toString(), 700, 3);
+        for (int i = 0; i < 5000; i++) {
+            Receipt receipt = new Receipt();
+            receipt.setRetailer(i % 11 == 0 ? "M&M \"Corner\" Market ünïcode" : "Retailer " + (i % 40));
+            receipt.setPurchaseDate("2024-0" + (1 + i % 9) + "-1" + (i % 10));
+            receipt.setPurchaseTime("1" + (i % 10) + ":3" + (i % 6));
+            receipt.setTotal((i % 90) + ".25");
+            receipt.setItems(i % 97 == 0 ? List.of() : List.of(new Item("Mountain Dew 12PK", "6.49"), new Item("Item " + i, "1.00")));
+            if (i % 3 == 0) {
+                receipt.addTag("Weekend Shopper");
+            }
+            if (i % 5 == 0) {
+                receipt.setAccountId("acct-" + (i % 13));
+            }
+            source.saveReceipt(receipt);
+        }
+        sourceBackups.exportTo("warmup.ndjson.gz", Format.NDJSON); // Warms up both code paths before the comparisons
+    }
+
+    @AfterEach
+    void tearDown() {
+        sourceBackups.shutdown();
+    }
+
+    private void assertRoundTrip(Format format, String file) throws Exception {
+        Map<String, Object> exported = sourceBackups.exportTo(file, format);
+        assertEquals(5000, exported.get("receipts"));
+        assertEquals(Files.size(directory.resolve(file)), exported.get("bytes"));
+
+        List<ReceiptChangedEvent> events = new CopyOnWriteArrayList<>();
+        ReceiptRepository target = new ReceiptRepository(event -> events.add((ReceiptChangedEvent) event));
+        BackupService targetBackups = new BackupService(target, MAPPER, new ValidationMetrics(new SimpleMeterRegistry()), directory.toString(), 700, 3);
+        try {
+            Map<String, Object> imported = targetBackups.importFrom(file, format);
+            assertEquals(5000, imported.get("receipts"));
+            assertEquals(0, imported.get("skipped"));
+            assertEquals(5000, events.size());
+            assertEquals(5000L, target.getVersion());
+            for (Map.Entry<String, Receipt> entry : source.getAllReceipts().entrySet()) {
+                assertEquals(entry.getValue(), target.getReceipt(entry.getKey()));
+            }
+
+            assertEquals(5000, targetBackups.importFrom(file, format).get("skipped"));
+        } finally {
+            targetBackups.shutdown();
+        }
+    }
+
+    @Test
+    @DisplayName("Gzip NDJSON exports round-trip and are a plain gzip file with one receipt per line")
+    void testNdjsonRoundTrip() throws Exception {
+        assertRoundTrip(Format.NDJSON, "receipts.ndjson.gz");
+
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(
+                new GZIPInputStream(Files.newInputStream(directory.resolve("receipts.ndjson.gz"))), StandardCharsets.UTF_8))) {
+            List<String> lines = reader.lines().toList();
+            assertEquals(5000, lines.size());
+            assertTrue(lines.get(0).startsWith("{\"id\":"));
+        }
+    }
+
+    @Test
+    @DisplayName("Columnar exports round-trip and are smaller than NDJSON")
+    void testColumnarRoundTrip() throws Exception {
+        assertRoundTrip(Format.COLUMNAR, "receipts.rcol");
+        long columnar = Files.size(directory.resolve("receipts.rcol"));
+        long ndjson = (long) sourceBackups.exportTo("compare.ndjson.gz", Format.NDJSON).get("bytes");
+        assertTrue(columnar < ndjson, "columnar " + columnar + " bytes, gzip NDJSON " + ndjson + " bytes");
+    }
+
+    @Test
+    @DisplayName("Files outside the backup directory, unknown formats and malformed files are rejected")
+    void testRejectsInvalidFiles() throws Exception {
+        assertThrows(IllegalArgumentException.class, () -> sourceBackups.exportTo("../escape.ndjson.gz", Format.NDJSON));
+        assertThrows(IllegalArgumentException.class, () -> sourceBackups.exportTo("nested/file.ndjson.gz", Format.NDJSON));
+        assertThrows(IllegalArgumentException.class, () -> sourceBackups.importFrom("/etc/passwd", Format.NDJSON));
+        assertThrows(IllegalArgumentException.class, () -> sourceBackups.importFrom("missing.ndjson.gz", Format.NDJSON));
+        assertThrows(IllegalArgumentException.class, () -> Format.of("parquet"));
+
+        Files.writeString(directory.resolve("plain.txt"), "not gzip");
+        assertThrows(IllegalArgumentException.class, () -> sourceBackups.importFrom("plain.txt", Format.NDJSON));
+        assertThrows(IllegalArgumentException.class, () -> sourceBackups.importFrom("plain.txt", Format.COLUMNAR));
+        assertThrows(IllegalArgumentException.class, () -> sourceBackups.importFrom("warmup.ndjson.gz", Format.COLUMNAR));
+        assertEquals(List.of("plain.txt", "warmup.ndjson.gz"),
+                Files.list(directory).map(path -> path.getFileName().toString()).sorted().toList());
+    }
+}
@@ -0,0 +1,189 @@
+package com.receiptprocessor;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.receiptprocessor.changefeed.ChangeFeedService;
+import com.receiptprocessor.changefeed.ChangeFeedService.Batch;
+import com.receiptprocessor.changefeed.ChangeFeedService.Change;
+import com.receiptprocessor.event.ReceiptChangedEvent;
+import com.receiptprocessor.event.ReceiptChangedEvent.Type;
+import com.receiptprocessor.exception.ChangeOffsetExpiredException;
+import com.receiptprocessor.json.ReceiptJsonModule;
+import com.receiptprocessor.model.Item;
+import com.receiptprocessor.model.Receipt;
+import com.receiptprocessor.repository.ReceiptRepository;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class ChangeFeedServiceTest {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper().registerModule(new ReceiptJsonModule());
+
+    @TempDir
+    Path directory;
+
+    private ChangeFeedService feed;
+    private ReceiptRepository receiptRepository;
+
+    @AfterEach
+    void tearDown() {
+        feed.shutdown();
+    }
+
+    private void createFeed(int capacity, String spillFile, long spillMaxBytes) throws Exception {
+        feed = new ChangeFeedService(MAPPER, new SimpleMeterRegistry(), capacity, spillFile, spillMaxBytes, 5000);
+        receiptRepository = new ReceiptRepository(event -> feed.onReceiptChanged((ReceiptChangedEvent) event));
+    }
+
+    private String save(int i) {
+        Receipt receipt = new Receipt();
+        receipt.setRetailer("Retailer " + i);
+        receipt.setPurchaseDate("2024-03-1" + (i % 10));
+        receipt.setPurchaseTime("14:3" + (i % 6));
+        receipt.setTotal(i + ".00");
+        receipt.setItems(List.of(new Item("Item " + i, i + ".00")));
+        return receiptRepository.saveReceipt(receipt);
+    }
+
+    private List<Change> readAll(long from) {
+        List<Change> changes = new ArrayList<>();
+        Batch batch;
+        do {
+            batch = feed.read(from, 7);
+            changes.addAll(batch.changes());
+            from = batch.nextOffset();
+        } while (!batch.changes().isEmpty());
+        return changes;
+    }
+
+    @Test
+    @DisplayName("Every write gets the next offset and consumers resume from the batch's next offset")
+    void testOffsetsAndResume() throws Exception {
+        createFeed(1024, "", 0);
+        String first = save(1);
+        String second = save(2);
+        receiptRepository.updateReceiptInventory(first, List.of(new Item("Replacement", "9.00")));
+        receiptRepository.addTags(second, List.of("Big Spender"));
+        receiptRepository.removeReceipt(second);
+
+        Batch batch = feed.read(0, 2);
+        assertEquals(List.of(1L, 2L), batch.changes().stream().map(Change::offset).toList());
+        assertEquals(3, batch.nextOffset());
+        assertEquals(5, batch.latestOffset());
+
+        List<Change> rest = feed.read(batch.nextOffset(), 100).changes();
+        assertEquals(List.of(Type.UPDATED, Type.TAGGED, Type.REMOVED), rest.stream().map(Change::type).toList());
+        assertEquals("Replacement", rest.get(0).receipt().getItems().get(0).getShortDescription());
+        assertEquals("Item 1", batch.changes().get(0).receipt().getItems().get(0).getShortDescription(),
+                "changes keep the receipt as it was when they were recorded");
+        assertEquals(List.of("Big Spender"), rest.get(1).receipt().getTags());
+        assertEquals(second, rest.get(2).id());
+        assertNull(rest.get(2).receipt());
+
+        assertTrue(feed.read(6, 100).changes().isEmpty());
+        assertEquals(6, feed.read(6, 100).nextOffset());
+        assertThrows(ChangeOffsetExpiredException.class, () -> feed.read(7, 100));
+        assertThrows(IllegalArgumentException.class, () -> feed.read(1, 0));
+        assertThrows(IllegalArgumentException.class, () -> feed.read(-1, 10));
+        assertThrows(IllegalArgumentException.class, () -> feed.poll(1, 10, 60_000));
+    }
+
+    @Test
+    @DisplayName("Offsets the ring has overwritten are expired when nothing is spilled")
+    void testRingOverflow() throws Exception {
+        createFeed(10, "", 0); // Rounded up to 16
+        for (int i = 0; i < 40; i++) {
+            save(i);
+        }
+        assertThrows(ChangeOffsetExpiredException.class, () -> feed.read(24, 10));
+        assertEquals(25, feed.read(0, 10).changes().get(0).offset());
+        assertEquals(16, readAll(25).size());
+    }
+
+    @Test
+    @DisplayName("Waiting polls complete on the next change, or empty when the wait elapses")
+    void testLongPoll() throws Exception {
+        createFeed(1024, "", 0);
+        save(1);
+
+        CompletableFuture<Batch> waiting = feed.poll(2, 10, 5000);
+        Thread.sleep(50);
+        assertFalse(waiting.isDone());
+        save(2);
+        Batch batch = waiting.get(2, TimeUnit.SECONDS);
+        assertEquals(List.of(2L), batch.changes().stream().map(Change::offset).toList());
+        assertEquals(3, batch.nextOffset());
+
+        assertEquals(1, feed.poll(0, 10, 5000).get(1, TimeUnit.SECONDS).changes().get(0).offset(), "available changes return at once");
+
+        long start = System.nanoTime();
+        Batch empty = feed.poll(3, 10, 100).get(2, TimeUnit.SECONDS);
+        assertTrue(empty.changes().isEmpty());
+        assertEquals(3, empty.nextOffset());
+        assertTrue(System.nanoTime() - start >= TimeUnit.MILLISECONDS.toNanos(100));
+    }
+
+    @Test
+    @DisplayName("Spilled changes outlive the ring, and the spill file stays within its size bound")
+    void testSpill() throws Exception {
+        Path spillFile = directory.resolve("changes.ndjson");
+        createFeed(16, spillFile.toString(), 60_000);
+        List<String> ids = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            ids.add(save(i));
+            if (i % 10 == 9) {
+                feed.spill();
+            }
+        }
+
+        List<Change> changes = readAll(0);
+        long first = changes.get(0).offset();
+        assertTrue(first > 1, "the oldest segment was rolled away");
+        assertTrue(first < 1000 - 16, "changes older than the ring are served from disk");
+        assertEquals(1000 - first + 1, changes.size());
+        for (Change change : changes) {
+            int i = (int) change.offset() - 1;
+            assertEquals(ids.get(i), change.id());
+            assertEquals("Retailer " + i, change.receipt().getRetailer());
+            assertEquals(Type.SAVED, change.type());
+        }
+        assertThrows(ChangeOffsetExpiredException.class, () -> feed.read(first - 1, 10));
+        assertTrue(Files.size(spillFile) + Files.size(directory.resolve("changes.ndjson.1")) <= 60_000 + 1000);
+    }
+
+    @Test
+    @DisplayName("A spill that falls behind the ring starts over without holes")
+    void testSpillFallingBehind() throws Exception {
+        createFeed(16, directory.resolve("changes.ndjson").toString(), 1_000_000);
+        for (int i = 0; i < 100; i++) {
+            save(i);
+        }
+        feed.spill();
+        for (int i = 100; i < 110; i++) {
+            save(i);
+        }
+        feed.spill();
+
+        List<Change> changes = readAll(0);
+        assertEquals(85, changes.get(0).offset());
+        assertEquals(110 - 85 + 1, changes.size());
+        assertEquals(List.of(85L, 86L, 87L), changes.subList(0, 3).stream().map(Change::offset).toList());
+    }
+}
@@ -15,6 +15,7 @@ import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 import org.springframework.http.ResponseEntity;
 
+import com.receiptprocessor.metrics.ValidationMetrics;
 import com.receiptprocessor.model.Item;
 import com.receiptprocessor.model.Receipt;
 import com.receiptprocessor.repository.ReceiptRepository;
@@ -29,6 +30,9 @@ class InventoryManagementTest {
     @Mock
     private PointsService pointsService;
 
+    @Mock
+    private ValidationMetrics validationMetrics;
+
     @InjectMocks
     private ReceiptController receiptController;
 
@@ -0,0 +1,134 @@
+package com.receiptprocessor;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.receiptprocessor.metrics.ValidationMetrics;
+import com.receiptprocessor.model.Item;
+import com.receiptprocessor.model.ItemPatch;
+import com.receiptprocessor.model.Receipt;
+import com.receiptprocessor.repository.ReceiptRepository;
+import com.receiptprocessor.service.InventoryService;
+import com.receiptprocessor.service.PointsService;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class InventoryServiceTest {
+
+    private final PointsService pointsService = new PointsService();
+    private ReceiptRepository receiptRepository;
+    private InventoryService inventoryService;
+    private String id;
+
+    @BeforeEach
+    void setUp() {
+        receiptRepository = new ReceiptRepository(event -> { });
+        inventoryService = new InventoryService(receiptRepository, pointsService,
+                new ValidationMetrics(new SimpleMeterRegistry()));
+
+        Receipt receipt = new Receipt();
+        receipt.setRetailer("M&M Corner Market");
+        receipt.setPurchaseDate("2022-03-21");
+        receipt.setPurchaseTime("14:33");
+        receipt.setTotal("9.00");
+        List<Item> items = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            items.add(new Item("Item " + "x".repeat(i % 7), (i % 30) + ".49"));
+        }
+        receipt.setItems(items);
+        id = receiptRepository.saveReceipt(receipt);
+    }
+
+    private int patch(ItemPatch... ops) {
+        return (int) inventoryService.patchItems(id, List.of(ops)).get("updatedPoints");
+    }
+
+    @Test
+    @DisplayName("Incremental points match a full recalculation after every change")
+    void testIncrementalPoints() {
+        Random random = new Random(42);
+        for (int i = 0; i < 300; i++) {
+            int size = receiptRepository.getReceipt(id).getItems().size();
+            Item item = new Item("  Product " + "y".repeat(random.nextInt(6)), random.nextInt(40) + "." + (10 + random.nextInt(90)));
+            ItemPatch op = switch (random.nextInt(3)) {
+                case 0 -> new ItemPatch("add", random.nextBoolean() ? null : random.nextInt(size + 1), item);
+                case 1 -> new ItemPatch("remove", random.nextInt(size), null);
+                default -> new ItemPatch("replace", random.nextInt(size), item);
+            };
+            int points = patch(op);
+            assertEquals(pointsService.calculatePoints(receiptRepository.getReceipt(id)), points);
+        }
+    }
+
+    @Test
+    @DisplayName("Operations apply in order and the response omits the items")
+    void testPatchResponse() {
+        Map<String, Object> result = inventoryService.patchItems(id, List.of(
+                new ItemPatch("add", 0, new Item("Emils Cheese Pizza", "12.25")),
+                new ItemPatch("replace", 1, new Item("Knorr Creamy Chicken", "1.26")),
+                new ItemPatch("remove", 200, null)));
+
+        List<Item> items = receiptRepository.getReceipt(id).getItems();
+        assertEquals(200, items.size());
+        assertEquals("Emils Cheese Pizza", items.get(0).getShortDescription());
+        assertEquals("Knorr Creamy Chicken", items.get(1).getShortDescription());
+        assertEquals(Map.of("id", id, "itemCount", 200, "updatedPoints", pointsService.calculatePoints(receiptRepository.getReceipt(id))), result);
+    }
+
+    @Test
+    @DisplayName("Invalid operations leave the receipt unchanged")
+    void testInvalidPatch() {
+        List<Item> before = receiptRepository.getReceipt(id).getItems();
+        long version = receiptRepository.getVersion();
+
+        assertThrows(IllegalArgumentException.class, () -> patch(
+                new ItemPatch("add", null, new Item("Gum", "1.00")), new ItemPatch("remove", 201, null)));
+        assertThrows(IllegalArgumentException.class, () -> patch(new ItemPatch("replace", 0, new Item("Gum", "-1.00"))));
+        assertThrows(IllegalArgumentException.class, () -> patch(new ItemPatch("move", 0, null)));
+        assertThrows(IllegalArgumentException.class, () -> inventoryService.patchItems(id, List.of()));
+
+        assertSame(before, receiptRepository.getReceipt(id).getItems());
+        assertEquals(version, receiptRepository.getVersion());
+        assertNull(inventoryService.patchItems("missing", List.of(new ItemPatch("remove", 0, null))));
+    }
+
+    @Test
+    @DisplayName("A full inventory update is picked up by the next patch")
+    void testFullUpdateInvalidatesState() {
+        patch(new ItemPatch("remove", 0, null));
+        receiptRepository.updateReceiptInventory(id, List.of(new Item("Pepsi", "3.00"), new Item("Mountain Dew", "2.00")));
+
+        int points = patch(new ItemPatch("add", null, new Item("Doritos Nacho Cheese", "3.35")));
+        assertEquals(pointsService.calculatePoints(receiptRepository.getReceipt(id)), points);
+    }
+
+    @Test
+    @DisplayName("A receipt removed during a patch is reported as not found and leaves no points breakdown")
+    void testRemovedDuringPatch() {
+        ReceiptRepository racing = new ReceiptRepository(event -> { }) {
+            @Override
+            public Receipt updateReceiptInventory(String id, List<Item> items) {
+                removeReceipt(id);
+                return super.updateReceiptInventory(id, items);
+            }
+        };
+        racing.restoreReceipt(id, receiptRepository.getReceipt(id));
+        InventoryService service = new InventoryService(racing, pointsService, new ValidationMetrics(new SimpleMeterRegistry()));
+
+        assertNull(service.patchItems(id, List.of(new ItemPatch("remove", 0, null))));
+        assertTrue(((Map<?, ?>) ReflectionTestUtils.getField(service, "pointsStates")).isEmpty());
+    }
+}
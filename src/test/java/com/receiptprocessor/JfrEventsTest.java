@@ -0,0 +1,55 @@
+package com.receiptprocessor;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import com.receiptprocessor.model.Item;
+import com.receiptprocessor.model.Receipt;
+import com.receiptprocessor.service.PointsService;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+
+class JfrEventsTest {
+
+    @Test
+    @DisplayName("Points calculation emits a JFR event with the rule breakdown")
+    void testPointsCalculatedEvent() throws Exception {
+        Receipt receipt = new Receipt();
+        receipt.setRetailer("Target");
+        receipt.setTotal("35.00");
+        receipt.setPurchaseDate("2022-01-01");
+        receipt.setPurchaseTime("14:33");
+        receipt.setItems(List.of(new Item("Cheese Pizza", "10.00"), new Item("Milk", "2.00")));
+
+        Path file = Files.createTempFile("points", ".jfr");
+        try (Recording recording = new Recording()) {
+            recording.enable("com.receiptprocessor.PointsCalculated").withThreshold(Duration.ZERO);
+            recording.start();
+            new PointsService().calculatePoints(receipt);
+            recording.stop();
+            recording.dump(file);
+        }
+
+        List<RecordedEvent> events = RecordingFile.readAllEvents(file);
+        Files.delete(file);
+
+        assertEquals(1, events.size());
+        RecordedEvent event = events.get(0);
+        assertEquals(2, event.getInt("itemCount"));
+        assertEquals(6, event.getInt("retailerPoints"));
+        assertEquals(75, event.getInt("totalAmountPoints"));
+        assertEquals(5 + 2, event.getInt("itemPoints"));
+        assertEquals(6, event.getInt("purchaseDayPoints"));
+        assertEquals(10, event.getInt("purchaseTimePoints"));
+        assertEquals(6 + 75 + 7 + 6 + 10, event.getInt("points"));
+    }
+}
@@ -0,0 +1,147 @@
+package com.receiptprocessor;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.http.codec.json.Jackson2JsonDecoder;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import org.springframework.web.reactive.function.server.HandlerStrategies;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.receiptprocessor.changefeed.ChangeFeedService;
+import com.receiptprocessor.index.ReceiptIndex;
+import com.receiptprocessor.json.ReceiptJsonModule;
+import com.receiptprocessor.metrics.ValidationMetrics;
+import com.receiptprocessor.model.Item;
+import com.receiptprocessor.model.Receipt;
+import com.receiptprocessor.reactive.ReactiveReceiptHandler;
+import com.receiptprocessor.reactive.ReactiveReceiptRouter;
+import com.receiptprocessor.repository.ReceiptRepository;
+import com.receiptprocessor.service.AccountLedgerService;
+import com.receiptprocessor.service.AnalyticsService;
+import com.receiptprocessor.service.InventoryService;
+import com.receiptprocessor.service.PointsService;
+import com.receiptprocessor.service.ReceiptSortingService;
+import com.receiptprocessor.service.ScoringService;
+import com.receiptprocessor.service.SearchService;
+import com.receiptprocessor.service.SnapshotService;
+import com.receiptprocessor.service.TaggingService;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class ReactiveReceiptHandlerTest {
+
+    private ReceiptRepository receiptRepository;
+    private WebTestClient client;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        receiptRepository = new ReceiptRepository(event -> { });
+        PointsService pointsService = new PointsService();
+        AnalyticsService analyticsService = new AnalyticsService(receiptRepository, pointsService);
+        ReceiptSortingService sortingService = new ReceiptSortingService(receiptRepository, pointsService);
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        ValidationMetrics validationMetrics = new ValidationMetrics(meterRegistry);
+        ReactiveReceiptHandler handler = new ReactiveReceiptHandler(receiptRepository, pointsService, new TaggingService(),
+                analyticsService, sortingService,
+                new ScoringService(pointsService, new TaggingService(), validationMetrics),
+                new InventoryService(receiptRepository, pointsService, validationMetrics),
+                new SearchService(new ReceiptIndex(receiptRepository, pointsService)),
+                new AccountLedgerService(receiptRepository, pointsService),
+                new SnapshotService(receiptRepository, pointsService, sortingService, analyticsService, meterRegistry, 5000),
+                new ChangeFeedService(new ObjectMapper().registerModule(new ReceiptJsonModule()), meterRegistry, 1024, "", 0, 1000),
+                validationMetrics);
+        // Decode with the streaming module, as the application's codecs do
+        ObjectMapper mapper = new ObjectMapper().registerModule(new ReceiptJsonModule());
+        client = WebTestClient.bindToRouterFunction(new ReactiveReceiptRouter().receiptRoutes(handler))
+                .handlerStrategies(HandlerStrategies.builder()
+                        .codecs(codecs -> codecs.defaultCodecs().jackson2JsonDecoder(new Jackson2JsonDecoder(mapper)))
+                        .build())
+                .build();
+    }
+
+    private Receipt receipt(String retailer, String total) {
+        Receipt receipt = new Receipt();
+        receipt.setRetailer(retailer);
+        receipt.setPurchaseDate("2024-02-01");
+        receipt.setPurchaseTime("14:33");
+        receipt.setTotal(total);
+        receipt.setItems(List.of(new Item("Gatorade", "2.25")));
+        return receipt;
+    }
+
+    @Test
+    @DisplayName("Process and fetch points")
+    void testProcessAndPoints() {
+        String id = (String) client.post().uri("/receipts/process").bodyValue(receipt("Target", "2.25"))
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(Map.class).returnResult().getResponseBody().get("id");
+
+        client.get().uri("/receipts/{id}/points", id).exchange()
+                .expectStatus().isOk()
+                .expectBody().jsonPath("$.points").isEqualTo(6 + 25 + 6 + 10);
+    }
+
+    @Test
+    @DisplayName("Bulk ingest stores valid receipts and reports invalid ones")
+    void testBulkIngest() {
+        Receipt invalid = receipt("Walmart", "1.00");
+        invalid.setItems(List.of(new Item("Refund", "-1.00")));
+
+        client.post().uri("/receipts/process/bulk")
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .bodyValue(List.of(receipt("Target", "2.25"), invalid, receipt("Costco", "9.00")))
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.length()").isEqualTo(3)
+                .jsonPath("$[1].error").isEqualTo("Item price cannot be negative: -1.00");
+
+        assertEquals(2, receiptRepository.getAllReceipts().size());
+    }
+
+    @Test
+    @DisplayName("Sorted export streams receipts in order")
+    void testSortStreaming() {
+        receiptRepository.saveReceipt(receipt("Target", "9.00"));
+        receiptRepository.saveReceipt(receipt("Costco", "3.00"));
+
+        client.get().uri("/receipts/sort?criteria=total").exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$[0].total").isEqualTo("3.00")
+                .jsonPath("$[1].total").isEqualTo("9.00");
+
+        client.get().uri("/receipts/sort?criteria=size").exchange()
+                .expectStatus().isBadRequest();
+    }
+
+    @Test
+    @DisplayName("Scoring previews points and tags without storing")
+    void testScore() {
+        client.post().uri("/receipts/score").bodyValue(receipt("Target", "2.25"))
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.points").isEqualTo(6 + 25 + 6 + 10)
+                .jsonPath("$.tags.length()").isEqualTo(0);
+
+        Receipt negative = receipt("Target", "1.00");
+        negative.setItems(List.of(new Item("Gatorade", "-1.00")));
+        client.post().uri("/receipts/score").bodyValue(List.of(receipt("Target", "2.25"), negative))
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$[0].points").isEqualTo(6 + 25 + 6 + 10)
+                .jsonPath("$[1].error").isEqualTo("Item price cannot be negative: -1.00");
+
+        assertEquals(0, receiptRepository.getAllReceipts().size());
+    }
+}
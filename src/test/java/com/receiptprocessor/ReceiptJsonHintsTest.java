@@ -0,0 +1,28 @@
+package com.receiptprocessor;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.predicate.RuntimeHintsPredicates;
+
+import com.receiptprocessor.json.ReceiptJsonHints;
+import com.receiptprocessor.model.Item;
+import com.receiptprocessor.model.Receipt;
+import com.receiptprocessor.timing.SlowRequestLog;
+
+class ReceiptJsonHintsTest {
+
+    @Test
+    @DisplayName("Jackson-bound types are registered for native image reflection")
+    void testBindingHints() throws Exception {
+        RuntimeHints hints = new RuntimeHints();
+        new ReceiptJsonHints().registerHints(hints, getClass().getClassLoader());
+
+        assertTrue(RuntimeHintsPredicates.reflection().onMethod(Receipt.class.getMethod("getItems")).test(hints));
+        assertTrue(RuntimeHintsPredicates.reflection().onMethod(Receipt.class.getMethod("setTotal", String.class)).test(hints));
+        assertTrue(RuntimeHintsPredicates.reflection().onConstructor(Item.class.getConstructor(String.class, String.class)).test(hints));
+        assertTrue(RuntimeHintsPredicates.reflection().onType(SlowRequestLog.SlowRequest.class).test(hints));
+    }
+}
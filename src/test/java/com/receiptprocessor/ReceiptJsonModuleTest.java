@@ -0,0 +1,113 @@
+package com.receiptprocessor;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.receiptprocessor.format.WireFormat;
+import com.receiptprocessor.json.ReceiptJsonModule;
+import com.receiptprocessor.model.Item;
+import com.receiptprocessor.model.Receipt;
+
+class ReceiptJsonModuleTest {
+
+    private static final Logger log = LoggerFactory.getLogger(ReceiptJsonModuleTest.class);
+
+    private static final int RECEIPTS = 2_000;
+    private static final int ROUNDS = 5;
+
+    private final ObjectMapper reflective = Jackson2ObjectMapperBuilder.json().build();
+    private final ObjectMapper streaming = Jackson2ObjectMapperBuilder.json().modules(new ReceiptJsonModule()).build();
+    private List<Receipt> receipts;
+
+    @BeforeEach
+    void setUp() {
+        receipts = WireFormatBenchmarkTest.sampleReceipts(RECEIPTS);
+        for (int i = 0; i < RECEIPTS; i++) {
+            receipts.get(i).addTag("tag" + (i % 3));
+        }
+    }
+
+    @Test
+    @DisplayName("Streaming binding matches reflective binding")
+    void testMatchesReflective() throws Exception {
+        for (int i = 0; i < RECEIPTS; i += 97) {
+            Receipt receipt = receipts.get(i);
+            byte[] body = streaming.writeValueAsBytes(receipt);
+            assertEquals(reflective.readTree(reflective.writeValueAsBytes(receipt)), reflective.readTree(body));
+            assertEquals(receipt, streaming.readValue(body, Receipt.class));
+            assertEquals(reflective.readValue(body, Receipt.class), streaming.readValue(body, Receipt.class));
+        }
+    }
+
+    @Test
+    @Tag("benchmark")
+    @DisplayName("Decode throughput of reflective and streaming binding")
+    void benchmarkDecode() throws Exception {
+        List<byte[]> encoded = new ArrayList<>(RECEIPTS);
+        for (Receipt receipt : receipts) {
+            encoded.add(streaming.writeValueAsBytes(receipt));
+        }
+
+        log.info("reflective {} receipts/s, streaming {} receipts/s decode (30 items each)",
+                Math.round(decodeRate(reflective, encoded)), Math.round(decodeRate(streaming, encoded)));
+    }
+
+    @Test
+    @DisplayName("Unknown fields are skipped and numeric scalars are read as text")
+    void testLenientFields() throws Exception {
+        String json = """
+                {"retailer":"Target","extra":{"nested":[1,2,{"x":3}]},"purchaseDate":"2022-01-01",
+                 "purchaseTime":"13:01","total":35.35,"items":[{"shortDescription":"Pepsi","price":1.25,"sku":"x"}],
+                 "tags":null}
+                """;
+        Receipt receipt = streaming.readValue(json, Receipt.class);
+
+        assertEquals("Target", receipt.getRetailer());
+        assertEquals("35.35", receipt.getTotal());
+        assertEquals(List.of(new Item("Pepsi", "1.25")), receipt.getItems());
+        assertTrue(receipt.getTags().isEmpty());
+        Receipt withoutLists = streaming.readValue("{\"retailer\":\"Target\",\"items\":null}", Receipt.class);
+        assertTrue(withoutLists.getItems().isEmpty());
+        assertTrue(withoutLists.getTags().isEmpty());
+        assertEquals(List.of(new Item("Gum", "0.50")),
+                streaming.readValue("[{\"price\":\"0.50\",\"shortDescription\":\"Gum\"}]", new TypeReference<List<Item>>() { }));
+        assertThrows(JsonMappingException.class, () -> streaming.readValue("{\"retailer\":{\"a\":1}}", Receipt.class));
+    }
+
+    @Test
+    @DisplayName("Binary formats use the streaming binding too")
+    void testBinaryFormats() throws Exception {
+        Jackson2ObjectMapperBuilder builder = Jackson2ObjectMapperBuilder.json().modules(new ReceiptJsonModule());
+        for (WireFormat format : WireFormat.values()) {
+            ObjectMapper mapper = format.createMapper(builder);
+            assertEquals(receipts.get(7), mapper.readValue(mapper.writeValueAsBytes(receipts.get(7)), Receipt.class));
+        }
+    }
+
+    private static double decodeRate(ObjectMapper mapper, List<byte[]> encoded) throws Exception {
+        long bestNanos = Long.MAX_VALUE;
+        for (int round = 0; round < ROUNDS; round++) {
+            long start = System.nanoTime();
+            for (byte[] body : encoded) {
+                mapper.readValue(body, Receipt.class);
+            }
+            bestNanos = Math.min(bestNanos, System.nanoTime() - start);
+        }
+        return encoded.size() / (bestNanos / 1e9);
+    }
+}
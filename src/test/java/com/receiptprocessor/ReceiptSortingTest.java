@@ -2,6 +2,8 @@ package com.receiptprocessor;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 
@@ -11,7 +13,9 @@ import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.springframework.test.util.ReflectionTestUtils;
 
+import com.receiptprocessor.model.Item;
 import com.receiptprocessor.model.Receipt;
 import com.receiptprocessor.repository.ReceiptRepository;
 import com.receiptprocessor.service.PointsService;
@@ -54,10 +58,6 @@ class ReceiptSortingServiceTest {
             "id3", receipt3
         ));
 
-        when(receiptRepository.getReceiptId(receipt1)).thenReturn("id1");
-        when(receiptRepository.getReceiptId(receipt2)).thenReturn("id2");
-        when(receiptRepository.getReceiptId(receipt3)).thenReturn("id3");
-
         when(pointsService.calculatePoints(receipt1)).thenReturn(90);
         when(pointsService.calculatePoints(receipt2)).thenReturn(75);
         when(pointsService.calculatePoints(receipt3)).thenReturn(80);
@@ -92,4 +92,55 @@ class ReceiptSortingServiceTest {
         assertEquals("id3", sortedReceipts.get(1).get("id")); // (80)
         assertEquals("id2", sortedReceipts.get(2).get("id")); // Lowest points last (75)
     }
-}
\ No newline at end of file
+
+    @Test
+    @DisplayName("Test Parallel Sorting Matches Sequential Sorting")
+    void testParallelSortMatchesSequential() {
+        PointsService realPointsService = new PointsService();
+        Map<String, Receipt> store = new HashMap<>();
+        for (int i = 0; i < 500; i++) {
+            Receipt receipt = new Receipt();
+            receipt.setRetailer("Store " + i);
+            receipt.setPurchaseDate("2024-0" + (1 + i % 9) + "-1" + (i % 10)); // Many equal dates
+            receipt.setPurchaseTime("1" + (i % 10) + ":30");
+            receipt.setTotal((i % 37) + "." + (i % 4 == 0 ? "00" : "25")); // Many equal totals
+            receipt.setItems(List.of(new Item("Item " + (i % 7), "1" + (i % 5) + ".00")));
+            store.put("id" + i, receipt);
+        }
+        when(receiptRepository.getAllReceipts()).thenReturn(store);
+        when(pointsService.calculatePoints(any())).thenAnswer(inv -> realPointsService.calculatePoints(inv.getArgument(0)));
+
+        for (String criteria : List.of("total", "date", "points")) {
+            ReflectionTestUtils.setField(receiptSortingService, "parallelThreshold", Integer.MAX_VALUE);
+            List<Map<String, Object>> sequential = receiptSortingService.getSortedReceipts(criteria);
+
+            ReflectionTestUtils.setField(receiptSortingService, "parallelThreshold", 0);
+            List<Map<String, Object>> parallel = receiptSortingService.getSortedReceipts(criteria);
+
+            assertEquals(sequential, parallel, "Parallel result differs for criteria " + criteria);
+            assertEquals(sequential, receiptSortingService.streamSortedReceipts(criteria).toList(),
+                    "Streamed result differs for criteria " + criteria);
+        }
+    }
+
+    @Test
+    @DisplayName("Test Identical Receipts Keep Their Own IDs")
+    void testIdenticalReceiptsKeepTheirIds() {
+        Map<String, Receipt> store = new LinkedHashMap<>();
+        for (String id : List.of("a", "b")) {
+            Receipt receipt = new Receipt();
+            receipt.setPurchaseDate("2024-05-01");
+            receipt.setTotal("12.00");
+            store.put(id, receipt);
+        }
+        when(receiptRepository.getAllReceipts()).thenReturn(store);
+        when(receiptRepository.getReceiptId(any())).thenReturn("a"); // The reverse lookup cannot tell them apart
+
+        for (int threshold : List.of(Integer.MAX_VALUE, 0)) {
+            ReflectionTestUtils.setField(receiptSortingService, "parallelThreshold", threshold);
+            List<Map<String, Object>> sorted = receiptSortingService.getSortedReceipts("total");
+
+            assertEquals(List.of("a", "b"), sorted.stream().map(row -> row.get("id")).toList());
+        }
+    }
+}
@@ -1,5 +1,6 @@
 package com.receiptprocessor;
 
+import com.receiptprocessor.exception.ReceiptValidationException;
 import com.receiptprocessor.model.Item;
 import com.receiptprocessor.model.Receipt;
 import org.junit.jupiter.api.BeforeEach;
@@ -49,4 +50,12 @@ class ReceiptValidationTest {
         Exception exception = assertThrows(IllegalArgumentException.class, receipt::validatePurchaseDate);
         assertEquals("Purchase date cannot be in the future: " + LocalDate.now().plusDays(1), exception.getMessage());
     }
-}
\ No newline at end of file
+
+    @Test
+    void testMalformedPurchaseDateThrowsException() {
+        receipt.setPurchaseDate("02/01/2024");
+        ReceiptValidationException exception = assertThrows(ReceiptValidationException.class, receipt::validatePurchaseDate);
+        assertEquals("Invalid purchase date format: 02/01/2024", exception.getMessage());
+        assertEquals("invalid_date", exception.getReason());
+    }
+}
@@ -0,0 +1,77 @@
+package com.receiptprocessor;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import com.receiptprocessor.cache.ResponseCache;
+import com.receiptprocessor.format.WireFormat;
+
+class ResponseCacheTest {
+
+    private ResponseCache responseCache;
+    private AtomicInteger computations;
+
+    @BeforeEach
+    void setUp() {
+        responseCache = new ResponseCache(Jackson2ObjectMapperBuilder.json(), 2);
+        computations = new AtomicInteger();
+    }
+
+    private Object compute() {
+        return Map.of("count", computations.incrementAndGet());
+    }
+
+    @Test
+    @DisplayName("Same version is served from cache")
+    void testSameVersionIsCached() {
+        ResponseCache.CachedResponse first = responseCache.get("analytics", WireFormat.JSON, 1, this::compute);
+        ResponseCache.CachedResponse second = responseCache.get("analytics", WireFormat.JSON, 1, this::compute);
+
+        assertSame(first, second);
+        assertEquals(1, computations.get());
+        assertEquals("{\"count\":1}", new String(first.body()));
+    }
+
+    @Test
+    @DisplayName("New version recomputes and changes the ETag")
+    void testNewVersionRecomputes() {
+        ResponseCache.CachedResponse first = responseCache.get("analytics", WireFormat.JSON, 1, this::compute);
+        ResponseCache.CachedResponse second = responseCache.get("analytics", WireFormat.JSON, 2, this::compute);
+
+        assertEquals(2, computations.get());
+        assertNotEquals(first.etag(), second.etag());
+        assertEquals(responseCache.etag("analytics", WireFormat.JSON, 2), second.etag());
+    }
+
+    @Test
+    @DisplayName("Cache stays bounded")
+    void testCacheIsBounded() {
+        responseCache.get("sort:total", WireFormat.JSON, 1, this::compute);
+        responseCache.get("sort:date", WireFormat.JSON, 1, this::compute);
+        responseCache.get("sort:points", WireFormat.JSON, 1, this::compute);
+        responseCache.get("sort:total", WireFormat.JSON, 1, this::compute);
+
+        assertEquals(4, computations.get()); // "sort:total" was the least recently used when the third key arrived
+    }
+
+    @Test
+    @DisplayName("A full cache evicts the least recently used entry")
+    void testEvictsLeastRecentlyUsed() {
+        responseCache.get("analytics", WireFormat.JSON, 1, this::compute);
+        responseCache.get("points:a", WireFormat.JSON, 1, this::compute);
+        responseCache.get("analytics", WireFormat.JSON, 1, this::compute);
+        responseCache.get("points:b", WireFormat.JSON, 1, this::compute);
+        responseCache.get("analytics", WireFormat.JSON, 1, this::compute);
+
+        assertEquals(3, computations.get()); // "points:a" was evicted, "analytics" stayed cached
+    }
+}
@@ -0,0 +1,107 @@
+package com.receiptprocessor;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.receiptprocessor.event.ReceiptChangedEvent;
+import com.receiptprocessor.model.Item;
+import com.receiptprocessor.model.Receipt;
+import com.receiptprocessor.repository.ReceiptRepository;
+import com.receiptprocessor.service.RetentionService;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class RetentionServiceTest {
+
+    private static final Instant NOW = Instant.parse("2024-03-10T12:00:00Z");
+
+    private final List<ReceiptChangedEvent> events = new ArrayList<>();
+    private RetentionService retentionService;
+    private ReceiptRepository receiptRepository;
+
+    private void setUp(RetentionService.Basis basis, int batchSize) {
+        receiptRepository = new ReceiptRepository(event -> {
+            events.add((ReceiptChangedEvent) event);
+            retentionService.onReceiptChanged((ReceiptChangedEvent) event);
+        });
+        retentionService = new RetentionService(receiptRepository, new SimpleMeterRegistry(), Duration.ofDays(7), basis, batchSize, 1_000);
+        setNow(NOW);
+    }
+
+    private void setNow(Instant now) {
+        ReflectionTestUtils.setField(retentionService, "clock", Clock.fixed(now, ZoneOffset.UTC));
+    }
+
+    private String save(String purchaseDate) {
+        Receipt receipt = new Receipt();
+        receipt.setRetailer("Target");
+        receipt.setPurchaseDate(purchaseDate);
+        receipt.setPurchaseTime("13:01");
+        receipt.setTotal("1.25");
+        receipt.setItems(List.of(new Item("Pepsi", "1.25")));
+        return receiptRepository.saveReceipt(receipt);
+    }
+
+    @Test
+    @DisplayName("Receipts expire by ingest time and removals are published")
+    void testIngestTimeExpiry() {
+        setUp(RetentionService.Basis.INGEST_TIME, 1000);
+        String old = save("2024-03-01");
+        setNow(NOW.plus(Duration.ofDays(2)));
+        String recent = save("2024-03-01");
+
+        setNow(NOW.plus(Duration.ofDays(7)));
+        assertEquals(1, retentionService.sweep());
+        assertNull(receiptRepository.getReceipt(old));
+        assertNotNull(receiptRepository.getReceipt(recent));
+        assertEquals(ReceiptChangedEvent.Type.REMOVED, events.get(events.size() - 1).type());
+        assertEquals(old, events.get(events.size() - 1).id());
+
+        setNow(NOW.plus(Duration.ofDays(9)));
+        assertEquals(1, retentionService.sweep());
+        assertEquals(0, receiptRepository.getAllReceipts().size());
+        assertEquals(0, retentionService.getIndexSize());
+    }
+
+    @Test
+    @DisplayName("Receipts expire by purchase date")
+    void testPurchaseDateExpiry() {
+        setUp(RetentionService.Basis.PURCHASE_DATE, 1000);
+        String expired = save("2024-03-02");
+        String kept = save("2024-03-05");
+
+        assertEquals(1, retentionService.sweep());
+        assertNull(receiptRepository.getReceipt(expired));
+        assertNotNull(receiptRepository.getReceipt(kept));
+        assertEquals(0, retentionService.sweep());
+    }
+
+    @Test
+    @DisplayName("A sweep skips receipts already removed and covers every due batch")
+    void testBatchedSweep() {
+        setUp(RetentionService.Basis.INGEST_TIME, 10);
+        List<String> ids = new ArrayList<>();
+        for (int i = 0; i < 95; i++) {
+            ids.add(save("2024-03-01"));
+        }
+        receiptRepository.removeReceipt(ids.get(0));
+        long version = receiptRepository.getVersion();
+
+        setNow(NOW.plus(Duration.ofDays(8)));
+        assertEquals(94, retentionService.sweep());
+        assertEquals(0, receiptRepository.getAllReceipts().size());
+        assertEquals(version + 94, receiptRepository.getVersion());
+    }
+}
@@ -0,0 +1,110 @@
+package com.receiptprocessor;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.receiptprocessor.json.ReceiptJsonModule;
+import com.receiptprocessor.metrics.ValidationMetrics;
+import com.receiptprocessor.model.Item;
+import com.receiptprocessor.model.Receipt;
+import com.receiptprocessor.model.ScoreRequest;
+import com.receiptprocessor.service.PointsService;
+import com.receiptprocessor.service.ScoringService;
+import com.receiptprocessor.service.TaggingService;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class ScoringServiceTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper().registerModule(new ReceiptJsonModule());
+    private final PointsService pointsService = new PointsService();
+    private ScoringService scoringService;
+
+    @BeforeEach
+    void setUp() {
+        scoringService = new ScoringService(pointsService, new TaggingService(), new ValidationMetrics(new SimpleMeterRegistry()));
+    }
+
+    private ScoreRequest request(Object body) throws Exception {
+        return objectMapper.readValue(objectMapper.writeValueAsBytes(body), ScoreRequest.class);
+    }
+
+    private Receipt receipt(String retailer, String total, String price) {
+        Receipt receipt = new Receipt();
+        receipt.setRetailer(retailer);
+        receipt.setPurchaseDate("2024-02-03");
+        receipt.setPurchaseTime("14:33");
+        receipt.setTotal(total);
+        receipt.setItems(List.of(new Item("Gatorade", price)));
+        return receipt;
+    }
+
+    @Test
+    @DisplayName("A single receipt is scored with points and tags")
+    void testScoreSingle() throws Exception {
+        ScoreRequest body = request(receipt("Walmart Supercenter", "120.00", "2.25"));
+
+        @SuppressWarnings("unchecked")
+        Map<String, Object> result = (Map<String, Object>) scoringService.score(body);
+
+        assertEquals(pointsService.calculatePoints(receipt("Walmart Supercenter", "120.00", "2.25")), result.get("points"));
+        assertEquals(List.of("Loyal Customer", "Big Spender", "Weekend Shopper"), result.get("tags"));
+    }
+
+    @Test
+    @DisplayName("An invalid single receipt is rejected")
+    void testScoreSingleInvalid() throws Exception {
+        ScoreRequest body = request(receipt("Target", "1.00", "-1.00"));
+
+        assertThrows(IllegalArgumentException.class, () -> scoringService.score(body));
+        assertThrows(IllegalArgumentException.class, () -> scoringService.score(request(null)));
+    }
+
+    @Test
+    @DisplayName("Bulk scoring keeps request order, reports invalid entries, and matches on the parallel path")
+    void testScoreBulk() throws Exception {
+        List<Object> receipts = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            receipts.add(i % 50 == 7 ? receipt("Target", "1.00", "-1.00") : receipt("Retailer " + i, i + ".25", "1.25"));
+        }
+        receipts.add(null);
+        ScoreRequest body = request(receipts);
+
+        ReflectionTestUtils.setField(scoringService, "parallelThreshold", Integer.MAX_VALUE);
+        Object sequential = scoringService.score(body);
+        ReflectionTestUtils.setField(scoringService, "parallelThreshold", 1);
+        Object parallel = scoringService.score(body);
+
+        assertEquals(sequential, parallel);
+        List<?> results = (List<?>) parallel;
+        assertEquals(201, results.size());
+        assertEquals(pointsService.calculatePoints((Receipt) receipts.get(3)), ((Map<?, ?>) results.get(3)).get("points"));
+        assertEquals("Item price cannot be negative: -1.00", ((Map<?, ?>) results.get(57)).get("error"));
+        assertEquals("Invalid request. Receipt cannot be null.", ((Map<?, ?>) results.get(200)).get("error"));
+    }
+
+    @Test
+    @DisplayName("A batch element that cannot be bound is reported without failing the rest of the batch")
+    void testScoreBulkMalformedElement() throws Exception {
+        String json = "[{\"retailer\":{\"name\":[\"Target\"]},\"total\":\"1.00\"}, 7, "
+                + objectMapper.writeValueAsString(receipt("Target", "1.00", "1.00")) + "]";
+        ScoreRequest body = objectMapper.readValue(json, ScoreRequest.class);
+
+        List<?> results = (List<?>) scoringService.score(body);
+        assertEquals(3, results.size());
+        assertTrue(((String) ((Map<?, ?>) results.get(0)).get("error")).startsWith("Invalid receipt: "));
+        assertTrue(((String) ((Map<?, ?>) results.get(1)).get("error")).startsWith("Invalid receipt: "));
+        assertEquals(pointsService.calculatePoints(receipt("Target", "1.00", "1.00")), ((Map<?, ?>) results.get(2)).get("points"));
+    }
+}
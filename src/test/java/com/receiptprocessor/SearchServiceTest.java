@@ -0,0 +1,200 @@
+package com.receiptprocessor;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import org.roaringbitmap.RoaringBitmap;
+
+import com.receiptprocessor.event.ReceiptChangedEvent;
+import com.receiptprocessor.index.ReceiptIndex;
+import com.receiptprocessor.model.Item;
+import com.receiptprocessor.model.Receipt;
+import com.receiptprocessor.model.SearchQuery;
+import com.receiptprocessor.repository.ReceiptRepository;
+import com.receiptprocessor.service.PointsService;
+import com.receiptprocessor.service.SearchService;
+
+class SearchServiceTest {
+
+    private final PointsService pointsService = new PointsService();
+    private ReceiptRepository receiptRepository;
+    private ReceiptIndex receiptIndex;
+    private SearchService searchService;
+
+    @BeforeEach
+    void setUp() {
+        receiptRepository = new ReceiptRepository(event -> receiptIndex.onReceiptChanged((ReceiptChangedEvent) event));
+        receiptIndex = new ReceiptIndex(receiptRepository, pointsService);
+        searchService = new SearchService(receiptIndex);
+
+        LocalDate start = LocalDate.of(2024, 1, 1);
+        for (int i = 0; i < 500; i++) {
+            Receipt receipt = new Receipt();
+            receipt.setRetailer(i % 100 == 0 ? "Corner Market" : "Retailer " + (i % 20));
+            receipt.setPurchaseDate(start.plusDays(i % 60).toString());
+            receipt.setPurchaseTime("14:3" + (i % 10));
+            receipt.setTotal((i % 50) + "." + (i % 4 == 0 ? "00" : "35"));
+            receipt.setItems(List.of(new Item(i % 7 == 0 ? "Mountain Dew 12PK" : "Pepsi", "2.25")));
+            if (i % 3 == 0) {
+                receipt.addTag("Weekend Shopper");
+            }
+            receiptRepository.saveReceipt(receipt);
+        }
+    }
+
+    private Map<String, Object> search(String minTotal, String maxTotal, String fromDate, String toDate, String retailer,
+                                       String tag, String item, String minPoints, String sort, String limit) {
+        return searchService.search(SearchQuery.of(minTotal, maxTotal, fromDate, toDate, retailer, tag, item, minPoints, sort, limit));
+    }
+
+    @SuppressWarnings("unchecked")
+    private static List<Map<String, Object>> receipts(Map<String, Object> result) {
+        return (List<Map<String, Object>>) result.get("receipts");
+    }
+
+    @Test
+    @DisplayName("The planner picks the most selective index")
+    void testPlanner() {
+        assertEquals(Map.of("index", "retailer", "candidates", 5),
+                search(null, null, "2024-01-01", "2024-01-30", "corner market", null, null, null, null, null).get("plan"));
+        assertEquals(Map.of("index", "date", "candidates", 18),
+                search(null, null, "2024-01-01", "2024-01-02", "Retailer 3", null, null, null, null, null).get("plan"));
+        assertEquals(Map.of("index", "scan", "candidates", 500),
+                search("10", null, null, null, null, null, null, null, null, null).get("plan"));
+    }
+
+    @Test
+    @DisplayName("Results match a brute-force filter of the store")
+    void testFilters() {
+        Map<String, Object> result = search("5.00", "30", "2024-01-10", "2024-02-10", null, "weekend shopper", "dew", "20", "total", "1000");
+
+        long expected = receiptRepository.getAllReceipts().values().stream()
+                .filter(r -> Double.parseDouble(r.getTotal()) >= 5 && Double.parseDouble(r.getTotal()) <= 30)
+                .filter(r -> r.getPurchaseDate().compareTo("2024-01-10") >= 0 && r.getPurchaseDate().compareTo("2024-02-10") <= 0)
+                .filter(r -> r.getTags().contains("Weekend Shopper"))
+                .filter(r -> r.getItems().get(0).getShortDescription().startsWith("Mountain"))
+                .filter(r -> pointsService.calculatePoints(r) >= 20)
+                .count();
+        assertEquals((int) expected, result.get("count"));
+        assertEquals((int) expected, receipts(result).size());
+
+        List<Map<String, Object>> sorted = receipts(result);
+        for (int i = 1; i < sorted.size(); i++) {
+            double previous = Double.parseDouble((String) sorted.get(i - 1).get("total"));
+            assertEquals(true, previous <= Double.parseDouble((String) sorted.get(i).get("total")));
+        }
+    }
+
+    @Test
+    @DisplayName("Limits, removals and malformed parameters")
+    void testLimitAndRemoval() {
+        Map<String, Object> result = search(null, null, null, null, "Corner Market", null, null, null, "date", "2");
+        assertEquals(5, result.get("count"));
+        assertEquals(2, receipts(result).size());
+        assertEquals("2024-02-10", receipts(result).get(0).get("date"));
+
+        receiptRepository.removeReceipt((String) receipts(result).get(0).get("id"));
+        assertEquals(4, search(null, null, null, null, "Corner Market", null, null, null, null, null).get("count"));
+
+        assertThrows(IllegalArgumentException.class, () -> search("abc", null, null, null, null, null, null, null, null, null));
+        assertThrows(IllegalArgumentException.class, () -> search(null, null, "01/02/2024", null, null, null, null, null, null, null));
+        assertThrows(IllegalArgumentException.class, () -> search(null, null, null, null, null, null, null, null, null, "0"));
+        assertThrows(IllegalArgumentException.class, () -> search(null, null, null, null, null, null, null, null, "size", null));
+
+        SearchQuery subCent = SearchQuery.of("10.005", "10.005", null, null, null, null, null, null, null, null);
+        assertEquals(1001L, subCent.minTotal());
+        assertEquals(1000L, subCent.maxTotal());
+        assertThrows(IllegalArgumentException.class, () -> search("1e30", null, null, null, null, null, null, null, null, null));
+    }
+
+    @Test
+    @DisplayName("Product lookup counts receipts and spend from the item index, following updates and removals")
+    void testProductLookup() {
+        Map<String, Object> result = searchService.lookupProducts("dew");
+        assertEquals(72, result.get("receipts"));
+        assertEquals("162.00", result.get("spend"));
+        assertEquals(List.of(Map.of("description", "Mountain Dew 12PK", "receipts", 72, "items", 72, "spend", "162.00")),
+                result.get("products"));
+
+        String id = receiptRepository.getAllReceipts().entrySet().stream()
+                .filter(entry -> entry.getValue().getItems().get(0).getShortDescription().equals("Pepsi"))
+                .findFirst().orElseThrow().getKey();
+        receiptRepository.updateReceiptInventory(id, List.of(new Item("mountain  DEW 12pk", "1.75"), new Item("Dew Drops", "3.00")));
+        result = searchService.lookupProducts("Mountain-Dew");
+        assertEquals(73, result.get("receipts"));
+        assertEquals("163.75", result.get("spend"));
+        assertEquals(0, searchService.lookupProducts("pepsi mountain").get("receipts"));
+
+        receiptRepository.removeReceipt(id);
+        assertEquals(72, searchService.lookupProducts("12pk dew").get("receipts"));
+        assertEquals(0, searchService.lookupProducts("drops").get("receipts"));
+        assertThrows(IllegalArgumentException.class, () -> searchService.lookupProducts(" - "));
+    }
+
+    @Test
+    @DisplayName("Item updates are diffed against the tokens the index recorded, not the event's previous items")
+    void testUpdateUsesIndexedTokens() {
+        RoaringBitmap pepsi = receiptIndex.findByItemTokens(List.of("pepsi"));
+        String id = receiptIndex.getByOrdinal(pepsi.first()).id();
+        Receipt receipt = receiptRepository.getReceipt(id);
+        receipt.setItems(List.of(new Item("Dew Drops", "3.00")));
+
+        // A stale event naming items the receipt never had, delivered twice
+        ReceiptChangedEvent stale = new ReceiptChangedEvent(ReceiptChangedEvent.Type.UPDATED, id, receipt,
+                List.of(new Item("Gatorade", "2.25")));
+        receiptIndex.onReceiptChanged(stale);
+        receiptIndex.onReceiptChanged(stale);
+
+        assertEquals(pepsi.getCardinality() - 1, receiptIndex.findByItemTokens(List.of("pepsi")).getCardinality());
+        assertEquals(1, receiptIndex.findByItemTokens(List.of("drops")).getCardinality());
+        assertEquals(0, receiptIndex.findByItemTokens(List.of("gatorade")).getCardinality());
+    }
+
+    @Test
+    @DisplayName("Tag segments are answered from bitmaps and follow case-insensitive tagging, date ranges and removals")
+    void testTagSegments() {
+        assertEquals(Map.of("Weekend Shopper", 167), searchService.getTagCounts());
+
+        receiptRepository.getAllReceipts().forEach((id, receipt) -> {
+            if (Double.parseDouble(receipt.getTotal()) >= 40) {
+                receiptRepository.addTags(id, List.of("Big Spender", "big spender "));
+            }
+        });
+        long bigSpenders = receiptRepository.getAllReceipts().values().stream()
+                .filter(r -> Double.parseDouble(r.getTotal()) >= 40).count();
+        long both = receiptRepository.getAllReceipts().values().stream()
+                .filter(r -> r.getTags().contains("Weekend Shopper") && r.getTags().contains("Big Spender")).count();
+        long inJanuary = receiptRepository.getAllReceipts().values().stream()
+                .filter(r -> r.getTags().contains("Weekend Shopper") && r.getTags().contains("Big Spender"))
+                .filter(r -> r.getPurchaseDate().compareTo("2024-01-31") <= 0).count();
+
+        assertEquals(Map.of("Big Spender", (int) bigSpenders, "Weekend Shopper", 167), searchService.getTagCounts());
+        Map<String, Object> result = searchService.querySegment(List.of("weekend shopper", "BIG SPENDER"), true, null, null, 1000);
+        assertEquals((int) both, result.get("count"));
+        assertEquals((int) both, ((List<?>) result.get("ids")).size());
+        assertEquals((int) (167 + bigSpenders - both),
+                searchService.querySegment(List.of("Weekend Shopper", "Big Spender"), false, null, null, 10).get("count"));
+        assertEquals((int) inJanuary, searchService.querySegment(List.of("Weekend Shopper", "Big Spender"), true,
+                null, LocalDate.of(2024, 1, 31), 10).get("count"));
+        assertEquals(Map.of("index", "tag", "candidates", (int) bigSpenders),
+                search(null, null, "2024-01-01", "2024-02-29", null, "big spender", null, null, null, null).get("plan"));
+
+        String id = (String) ((List<?>) result.get("ids")).get(0);
+        receiptRepository.addTags(id, List.of(" Padded Tag "));
+        assertEquals(1, search(null, null, null, null, null, "padded tag", null, null, null, null).get("count"));
+        receiptRepository.addTags(id, List.of("WEEKEND SHOPPER"));
+        assertEquals(3, receiptRepository.getReceipt(id).getTags().size());
+        receiptRepository.removeReceipt(id);
+        assertEquals((int) both - 1, searchService.querySegment(List.of("Weekend Shopper", "Big Spender"), true, null, null, 10).get("count"));
+        assertEquals(0, searchService.querySegment(List.of("Unknown"), false, null, null, 10).get("count"));
+        assertThrows(IllegalArgumentException.class, () -> searchService.querySegment(List.of(" "), true, null, null, 10));
+    }
+}
@@ -0,0 +1,84 @@
+package com.receiptprocessor;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import com.receiptprocessor.timing.RequestTimingFilter;
+import com.receiptprocessor.timing.RequestTimings;
+import com.receiptprocessor.timing.SlowRequestLog;
+
+import jakarta.servlet.http.HttpServlet;
+
+class SlowRequestLogTest {
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void request(RequestTimingFilter filter, String uri, long stageMillis) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", uri);
+        HttpServlet servlet = new HttpServlet() {
+            @Override
+            protected void service(jakarta.servlet.http.HttpServletRequest req, jakarta.servlet.http.HttpServletResponse res) {
+                try (RequestTimings.Stage stage = RequestTimings.stage("sort")) {
+                    sleep(stageMillis);
+                }
+            }
+        };
+        filter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain(servlet));
+    }
+
+    /**
+     * Runs one request on a throwaway log, so class loading on the first request does not push
+     * the fast request of the threshold test over its 20 ms.
+     */
+    @BeforeAll
+    static void warmUp() throws Exception {
+        request(new RequestTimingFilter(new SlowRequestLog(1, 0)), "/receipts/sort", 0);
+    }
+
+    @Test
+    @DisplayName("Only requests above the threshold are captured, with their stages")
+    void testSlowRequestsCaptured() throws Exception {
+        SlowRequestLog slowRequestLog = new SlowRequestLog(2, 20);
+        RequestTimingFilter filter = new RequestTimingFilter(slowRequestLog);
+
+        request(filter, "/receipts/sort", 0);
+        request(filter, "/receipts/analytics", 30);
+
+        List<SlowRequestLog.SlowRequest> slowRequests = slowRequestLog.getSlowRequests();
+        assertEquals(1, slowRequests.size());
+        assertEquals("/receipts/analytics", slowRequests.get(0).uri());
+        assertTrue(slowRequests.get(0).stagesMs().get("sort") >= 30);
+        assertTrue(slowRequests.get(0).stagesMs().containsKey("other"));
+    }
+
+    @Test
+    @DisplayName("The ring keeps only the most recent slow requests")
+    void testRingIsBounded() throws Exception {
+        SlowRequestLog slowRequestLog = new SlowRequestLog(2, 0);
+        RequestTimingFilter filter = new RequestTimingFilter(slowRequestLog);
+
+        request(filter, "/receipts/1/points", 0);
+        request(filter, "/receipts/2/points", 0);
+        request(filter, "/receipts/3/points", 0);
+
+        List<SlowRequestLog.SlowRequest> slowRequests = slowRequestLog.getSlowRequests();
+        assertEquals(2, slowRequests.size());
+        assertEquals("/receipts/3/points", slowRequests.get(0).uri());
+        assertEquals("/receipts/2/points", slowRequests.get(1).uri());
+    }
+}
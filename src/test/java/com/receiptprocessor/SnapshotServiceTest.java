@@ -0,0 +1,111 @@
+package com.receiptprocessor;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.receiptprocessor.model.Item;
+import com.receiptprocessor.model.Receipt;
+import com.receiptprocessor.repository.ReceiptRepository;
+import com.receiptprocessor.service.AnalyticsService;
+import com.receiptprocessor.service.PointsService;
+import com.receiptprocessor.service.ReceiptSortingService;
+import com.receiptprocessor.service.SnapshotService;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class SnapshotServiceTest {
+
+    private final Instant start = Instant.parse("2025-01-01T00:00:00Z");
+    private ReceiptRepository receiptRepository;
+    private ReceiptSortingService sortingService;
+    private AnalyticsService analyticsService;
+    private SnapshotService snapshotService;
+
+    @BeforeEach
+    void setUp() {
+        receiptRepository = new ReceiptRepository(event -> { });
+        PointsService pointsService = new PointsService();
+        sortingService = new ReceiptSortingService(receiptRepository, pointsService);
+        analyticsService = new AnalyticsService(receiptRepository, pointsService);
+        snapshotService = new SnapshotService(receiptRepository, pointsService, sortingService, analyticsService,
+                new SimpleMeterRegistry(), 5000);
+        setClock(start);
+        for (int i = 0; i < 300; i++) {
+            save(i);
+        }
+    }
+
+    private void setClock(Instant now) {
+        ReflectionTestUtils.setField(snapshotService, "clock", Clock.fixed(now, ZoneOffset.UTC));
+    }
+
+    private void save(int i) {
+        Receipt receipt = new Receipt();
+        receipt.setRetailer("Retailer " + (i % 17));
+        receipt.setPurchaseDate("2024-0" + (1 + i % 9) + "-1" + (i % 10));
+        receipt.setPurchaseTime("1" + (i % 10) + ":0" + (i % 6));
+        receipt.setTotal(i % 25 == 0 ? "abc" : (i % 70) + "." + (i % 3 == 0 ? "00" : "75"));
+        receipt.setItems(List.of(new Item("Item " + i, "1.00")));
+        receiptRepository.saveReceipt(receipt);
+    }
+
+    @Test
+    @DisplayName("Snapshot views match the live sort and analytics")
+    void testViewsMatchLive() {
+        snapshotService.refresh();
+        SnapshotService.Snapshot snapshot = snapshotService.getSnapshot("max-stale");
+
+        assertNotNull(snapshot);
+        for (String criteria : List.of("total", "date", "points")) {
+            assertEquals(sortingService.getSortedReceipts(criteria), snapshot.sorted(criteria));
+        }
+        assertEquals(snapshot.sorted("total"), snapshot.sorted("TOTAL"));
+        assertEquals(analyticsService.getAnalytics(), snapshot.analytics());
+        assertThrows(IllegalArgumentException.class, () -> snapshot.sorted("size"));
+        assertThrows(UnsupportedOperationException.class, () -> snapshot.sorted("total").clear());
+    }
+
+    @Test
+    @DisplayName("Snapshots are only served to clients that opt in, within the staleness bounds")
+    void testStaleness() {
+        assertNull(snapshotService.getSnapshot("max-stale"));
+        snapshotService.refresh();
+        SnapshotService.Snapshot snapshot = snapshotService.getSnapshot("max-stale");
+
+        assertNull(snapshotService.getSnapshot(null));
+        assertNull(snapshotService.getSnapshot("no-cache"));
+        assertSame(snapshot, snapshotService.getSnapshot("no-cache, max-stale=1"));
+
+        save(300);
+        setClock(start.plus(Duration.ofSeconds(3)));
+        assertEquals(3000, snapshotService.ageMillis(snapshot));
+        assertNull(snapshotService.getSnapshot("max-stale=2"));
+        assertSame(snapshot, snapshotService.getSnapshot("max-stale=10"));
+
+        setClock(start.plus(Duration.ofSeconds(6)));
+        assertNull(snapshotService.getSnapshot("max-stale"), "the configured bound caps what clients accept");
+
+        snapshotService.refresh();
+        SnapshotService.Snapshot rebuilt = snapshotService.getSnapshot("max-stale=0");
+        assertEquals(301, rebuilt.analytics().get("totalReceipts"));
+
+        setClock(start.plus(Duration.ofSeconds(20)));
+        snapshotService.refresh(); // Store unchanged: the snapshot is only marked as current again
+        assertEquals(0, snapshotService.ageMillis(snapshotService.getSnapshot("max-stale=0")));
+        assertSame(rebuilt.sorted(), snapshotService.getSnapshot("max-stale=0").sorted());
+    }
+}
@@ -0,0 +1,113 @@
+package com.receiptprocessor;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import com.receiptprocessor.event.ReceiptChangedEvent;
+import com.receiptprocessor.index.ReceiptIndex;
+import com.receiptprocessor.intern.ReceiptInterner;
+import com.receiptprocessor.intern.StringDictionary;
+import com.receiptprocessor.metrics.ReceiptMetrics;
+import com.receiptprocessor.model.Item;
+import com.receiptprocessor.model.Receipt;
+import com.receiptprocessor.repository.ReceiptRepository;
+import com.receiptprocessor.service.PointsService;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class StringDictionaryTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+    private static Receipt receipt(String retailer, String description) {
+        Receipt receipt = new Receipt();
+        receipt.setRetailer(retailer);
+        receipt.setPurchaseDate("2024-03-01");
+        receipt.setPurchaseTime("14:33");
+        receipt.setTotal("6.49");
+        receipt.setItems(List.of(new Item(description, "6.49")));
+        return receipt;
+    }
+
+    @Test
+    @DisplayName("Stored receipts share one instance of each retailer name and item description")
+    void testReceiptsShareStrings() {
+        ReceiptInterner[] interner = new ReceiptInterner[1];
+        ReceiptIndex[] index = new ReceiptIndex[1];
+        ReceiptRepository repository = new ReceiptRepository(event -> {
+            interner[0].onReceiptChanged((ReceiptChangedEvent) event); // First, as with @Order in the application
+            index[0].onReceiptChanged((ReceiptChangedEvent) event);
+        });
+        interner[0] = new ReceiptInterner(repository, registry, 100, 100);
+        index[0] = new ReceiptIndex(repository, new PointsService());
+
+        String first = repository.saveReceipt(receipt(new String("Target"), new String("Mountain Dew 12PK")));
+        String second = repository.saveReceipt(receipt(new String("Target"), new String("Mountain Dew 12PK")));
+        String third = repository.saveReceipt(receipt(new String(" TARGET"), "Emils Cheese Pizza"));
+        Receipt a = repository.getReceipt(first);
+        Receipt b = repository.getReceipt(second);
+        assertSame(a.getRetailer(), b.getRetailer());
+        assertSame(a.getItems().get(0).getShortDescription(), b.getItems().get(0).getShortDescription());
+
+        repository.updateReceiptInventory(second, List.of(new Item(new String("Emils Cheese Pizza"), "12.25")));
+        assertSame(repository.getReceipt(third).getItems().get(0).getShortDescription(),
+                repository.getReceipt(second).getItems().get(0).getShortDescription());
+        assertEquals(2, interner[0].getRetailers().size());
+        assertEquals(2, interner[0].getDescriptions().size());
+
+        // The index groups case-insensitively by retailer ID and shares the normalized name
+        int targetId = index[0].getRetailerId("target");
+        assertEquals(targetId, index[0].get(first).retailerId());
+        assertEquals(targetId, index[0].get(third).retailerId());
+        assertSame(index[0].get(first).retailerKey(), index[0].get(third).retailerKey());
+        assertEquals(-1, index[0].getRetailerId("Walgreens"));
+    }
+
+    @Test
+    @DisplayName("A full dictionary evicts rarely seen strings and keeps frequent ones")
+    void testEvictsRareEntries() {
+        StringDictionary dictionary = new StringDictionary("test", 10, registry);
+        String hot = "Walgreens";
+        assertSame(hot, dictionary.intern(hot));
+        for (int i = 0; i < 5; i++) {
+            assertSame(hot, dictionary.intern(new String(hot)));
+        }
+        for (int i = 0; i < 100; i++) {
+            dictionary.intern("Retailer " + i);
+        }
+        assertTrue(dictionary.size() <= 10);
+        assertSame(hot, dictionary.intern(new String(hot)));
+
+        String rare = "Retailer 0";
+        assertNotSame(rare, dictionary.intern(new String(rare)), "evicted strings are no longer canonical");
+        assertNull(dictionary.intern(null));
+
+        StringDictionary disabled = new StringDictionary("disabled", 0, registry);
+        String value = new String(hot);
+        assertSame(value, disabled.intern(value));
+        assertEquals(0, disabled.size());
+    }
+
+    @Test
+    @DisplayName("Lookups and the heap saved by deduplication are reported per dictionary")
+    void testMetrics() {
+        StringDictionary dictionary = new StringDictionary("metrics", 100, registry);
+        dictionary.intern("Target");
+        dictionary.intern(new String("Target"));
+        dictionary.intern(new String("Target"));
+
+        assertEquals(2.0, registry.get("receipts.intern.lookups").tag("dictionary", "metrics").tag("result", "hit").counter().count());
+        assertEquals(1.0, registry.get("receipts.intern.lookups").tag("dictionary", "metrics").tag("result", "miss").counter().count());
+        assertEquals(2.0 * ReceiptMetrics.estimateBytes("Target"),
+                registry.get("receipts.intern.deduplicated.bytes").tag("dictionary", "metrics").counter().count());
+        assertEquals(1.0, registry.get("receipts.intern.entries").tag("dictionary", "metrics").gauge().value());
+    }
+}
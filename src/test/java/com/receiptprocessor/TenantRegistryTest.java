@@ -0,0 +1,256 @@
+package com.receiptprocessor;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.mock.env.MockEnvironment;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.receiptprocessor.exception.TenantQuotaExceededException;
+import com.receiptprocessor.metrics.ReceiptMetrics;
+import com.receiptprocessor.model.Item;
+import com.receiptprocessor.model.Receipt;
+import com.receiptprocessor.model.SearchQuery;
+import com.receiptprocessor.repository.ReceiptRepository;
+import com.receiptprocessor.service.AnalyticsService;
+import com.receiptprocessor.service.PointsService;
+import com.receiptprocessor.service.RetentionService;
+import com.receiptprocessor.tenant.TenantContext;
+import com.receiptprocessor.tenant.TenantFilter;
+import com.receiptprocessor.tenant.TenantPartition;
+import com.receiptprocessor.tenant.TenantRegistry;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.FilterChain;
+
+class TenantRegistryTest {
+
+    private final PointsService pointsService = new PointsService();
+    private final MockEnvironment environment = new MockEnvironment();
+    private ReceiptRepository sharedRepository;
+    private TenantRegistry registry;
+
+    @BeforeEach
+    void setUp() {
+        sharedRepository = new ReceiptRepository(event -> { });
+        registry = registry(3, 1 << 20, 2);
+    }
+
+    private TenantRegistry registry(int maxTenants, long maxBytes, int maxConcurrentRequests) {
+        return registry(maxTenants, maxBytes, maxConcurrentRequests, null);
+    }
+
+    private TenantRegistry registry(int maxTenants, long maxBytes, int maxConcurrentRequests, RetentionService retention) {
+        StaticListableBeanFactory beans = new StaticListableBeanFactory();
+        if (retention != null) {
+            beans.addBean("retentionService", retention);
+        }
+        return new TenantRegistry(pointsService, null, new AnalyticsService(sharedRepository, pointsService),
+                beans.getBeanProvider(RetentionService.class), environment, new SimpleMeterRegistry(),
+                maxTenants, maxBytes, maxConcurrentRequests, 10_000);
+    }
+
+    private static Receipt receipt(String retailer, String total, String accountId) {
+        Receipt receipt = new Receipt();
+        receipt.setRetailer(retailer);
+        receipt.setPurchaseDate("2024-01-13");
+        receipt.setPurchaseTime("14:15");
+        receipt.setTotal(total);
+        receipt.setItems(List.of(new Item("Gatorade", "2.25"), new Item("Emils Cheese Pizza", "12.25")));
+        receipt.setAccountId(accountId);
+        return receipt;
+    }
+
+    @Test
+    @DisplayName("Tenants have their own store, indexes and ledger, apart from the shared store")
+    void testIsolation() {
+        TenantPartition acme = registry.getOrCreate("acme");
+        TenantPartition globex = registry.getOrCreate("globex");
+        assertSame(acme, registry.getOrCreate("acme"));
+
+        String acmeId = acme.saveReceipt(receipt("Target", "14.50", "alice"));
+        globex.saveReceipt(receipt("Walgreens", "20.00", "alice"));
+        globex.saveReceipt(receipt("Walgreens", "30.00", "bob"));
+        sharedRepository.saveReceipt(receipt("Target", "99.00", "alice"));
+
+        assertEquals(1, acme.getRepository().getAllReceipts().size());
+        assertEquals(2, globex.getRepository().getAllReceipts().size());
+        assertNull(globex.getRepository().getReceipt(acmeId));
+        assertEquals(1, acme.getAccountLedgerService().getBalance("alice").receipts());
+        assertNull(acme.getAccountLedgerService().getBalance("bob"));
+        assertEquals(1450, acme.getAccountLedgerService().getBalance("alice").spendCents());
+        assertEquals(2, globex.getAccountLedgerService().getTopAccounts(10).size());
+        SearchQuery walgreens = SearchQuery.of(null, null, null, null, "walgreens", null, null, null, null, null);
+        assertEquals(2, globex.getSearchService().search(walgreens).get("count"));
+        assertEquals(0, acme.getSearchService().search(walgreens).get("count"));
+        assertEquals(1, acme.getAnalyticsService().getAnalytics().get("totalReceipts"));
+        assertTrue(acme.getEstimatedBytes() > 0);
+    }
+
+    @Test
+    @DisplayName("Writes past a tenant's memory quota are rejected, with per-tenant overrides")
+    void testQuota() {
+        long oneReceipt = ReceiptMetrics.estimateBytes(receipt("Target", "14.50", null));
+        environment.setProperty("receipts.tenants.big.max-bytes", Long.toString(10 * oneReceipt));
+        registry = registry(3, 2 * oneReceipt, 2);
+
+        TenantPartition small = registry.getOrCreate("small");
+        small.saveReceipt(receipt("Target", "14.50", null));
+        small.saveReceipt(receipt("Target", "14.50", null));
+        assertThrows(TenantQuotaExceededException.class, () -> small.saveReceipt(receipt("Target", "14.50", null)));
+        assertEquals(2, small.getRepository().getAllReceipts().size());
+        assertEquals(2 * oneReceipt, small.getEstimatedBytes());
+
+        TenantPartition big = registry.getOrCreate("big");
+        for (int i = 0; i < 10; i++) {
+            big.saveReceipt(receipt("Target", "14.50", null));
+        }
+        assertEquals(10 * oneReceipt, big.toMap().get("maxBytes"));
+        assertThrows(TenantQuotaExceededException.class, () -> big.saveReceipt(receipt("Target", "14.50", null)));
+    }
+
+    @Test
+    @DisplayName("Expired and purged receipts release the tenant's quota")
+    void testRetentionAndPurge() {
+        long oneReceipt = ReceiptMetrics.estimateBytes(receipt("Target", "14.50", null));
+        RetentionService retention = new RetentionService(sharedRepository, new SimpleMeterRegistry(), Duration.ZERO,
+                RetentionService.Basis.INGEST_TIME, 100, 1000);
+        registry = registry(3, 2 * oneReceipt, 2, retention);
+
+        TenantPartition acme = registry.getOrCreate("acme");
+        acme.saveReceipt(receipt("Target", "14.50", null));
+        acme.saveReceipt(receipt("Target", "14.50", null));
+        assertThrows(TenantQuotaExceededException.class, () -> acme.saveReceipt(receipt("Target", "14.50", null)));
+        registry.expireTenantReceipts();
+        assertEquals(0, acme.getRepository().getAllReceipts().size());
+        assertEquals(0, acme.getEstimatedBytes());
+        acme.saveReceipt(receipt("Target", "14.50", null));
+
+        // Without retention, an operator purge frees a tenant stuck at its quota
+        registry = registry(3, oneReceipt, 2);
+        TenantPartition globex = registry.getOrCreate("globex");
+        globex.saveReceipt(receipt("Target", "14.50", null));
+        assertThrows(TenantQuotaExceededException.class, () -> globex.saveReceipt(receipt("Target", "14.50", null)));
+        registry.expireTenantReceipts();
+        assertEquals(1, globex.getRepository().getAllReceipts().size());
+
+        Map<String, Object> purged = registry.purge("globex");
+        assertEquals(1, purged.get("purged"));
+        assertEquals(0L, purged.get("estimatedBytes"));
+        assertEquals(0, globex.getSearchService().search(
+                SearchQuery.of(null, null, null, null, "target", null, null, null, null, null)).get("count"));
+        globex.saveReceipt(receipt("Target", "14.50", null));
+        assertNull(registry.purge("unknown"));
+    }
+
+    @Test
+    @DisplayName("Tenant IDs are validated and the number of tenants is bounded")
+    void testTenantLimitAndIds() {
+        assertThrows(IllegalArgumentException.class, () -> registry.getOrCreate("default"));
+        assertThrows(IllegalArgumentException.class, () -> registry.getOrCreate("a b"));
+        assertThrows(IllegalArgumentException.class, () -> registry.get(""));
+        assertNull(registry.get("unknown"));
+
+        registry.getOrCreate("t1");
+        registry.getOrCreate("t2");
+        registry.getOrCreate("t3");
+        assertThrows(IllegalArgumentException.class, () -> registry.getOrCreate("t4"));
+        assertEquals(List.of("t1", "t2", "t3"), registry.getAll().stream().map(TenantPartition::getId).toList());
+    }
+
+    @Test
+    @DisplayName("Global analytics merged from tenant aggregates match analytics over all receipts")
+    void testGlobalAnalytics() {
+        ReceiptRepository combined = new ReceiptRepository(event -> { });
+        String[][] data = {
+                {null, "Target", "35.35"}, {null, "M&M Corner Market", "9.00"},
+                {"acme", "Walgreens", "2.65"}, {"acme", "Target", "120.00"}, {"acme", "Target", "1.25"},
+                {"globex", "Walgreens", "18.74"},
+        };
+        for (String[] row : data) {
+            Receipt receipt = receipt(row[1], row[2], null);
+            if (row[0] == null) {
+                sharedRepository.saveReceipt(receipt);
+            } else {
+                registry.getOrCreate(row[0]).saveReceipt(receipt);
+            }
+            combined.saveReceipt(receipt(row[1], row[2], null));
+        }
+
+        Map<String, Object> global = registry.getGlobalAnalytics();
+        Map<String, Object> expected = new AnalyticsService(combined, pointsService).getAnalytics();
+        assertEquals(6L, global.get("totalReceipts"));
+        assertEquals((double) expected.get("averagePoints"), (double) global.get("averagePoints"), 1e-9);
+        @SuppressWarnings("unchecked")
+        Map<String, Object> highest = (Map<String, Object>) global.get("highestTotalReceipt");
+        assertEquals("120.00", highest.get("total"));
+        assertEquals("acme", highest.get("tenant"));
+        assertNotNull(registry.get("acme").getRepository().getReceipt((String) highest.get("id")));
+        assertEquals(3, global.get("tenants"));
+    }
+
+    @Test
+    @DisplayName("The filter binds the tenant and enforces its concurrency budget")
+    void testFilter() throws Exception {
+        TenantFilter filter = new TenantFilter(registry, "X-Tenant-Id", 1, new ObjectMapper().registerModule(new JavaTimeModule()),
+                new SimpleMeterRegistry());
+        AtomicReference<TenantPartition> bound = new AtomicReference<>();
+        AtomicReference<MockHttpServletResponse> nested = new AtomicReference<>();
+
+        // Without a header the shared store is used
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(new MockHttpServletRequest("GET", "/receipts/tags"), response,
+                (req, res) -> bound.set(TenantContext.current()));
+        assertEquals(200, response.getStatus());
+        assertNull(bound.get());
+
+        // Reads of a tenant that never stored anything, and unpartitioned endpoints, are refused
+        assertEquals(404, send(filter, "GET", "/receipts/analytics", "acme", (req, res) -> { }).getStatus());
+        assertEquals(400, send(filter, "GET", "/receipts/tags", "acme", (req, res) -> { }).getStatus());
+        assertEquals(400, send(filter, "POST", "/receipts/process", "not valid", (req, res) -> { }).getStatus());
+        assertTrue(registry.getAll().isEmpty());
+
+        // The first write creates the tenant; the third concurrent request of a tenant with two slots is rejected
+        response = send(filter, "POST", "/receipts/process", "acme", (req, res) -> {
+            bound.set(TenantContext.current());
+            MockHttpServletResponse second = send(filter, "GET", "/receipts/sort", "acme", (req2, res2) ->
+                    nested.set(send(filter, "GET", "/receipts/acme-id/points", "acme", (req3, res3) -> { })));
+            assertEquals(200, second.getStatus());
+        });
+        assertEquals(200, response.getStatus());
+        assertSame(registry.get("acme"), bound.get());
+        assertEquals(429, nested.get().getStatus());
+        assertEquals("1", nested.get().getHeader("Retry-After"));
+        assertEquals(0, registry.get("acme").getInFlight());
+        assertNull(TenantContext.current());
+    }
+
+    private static MockHttpServletResponse send(TenantFilter filter, String method, String uri, String tenant,
+                                                FilterChain chain) {
+        MockHttpServletRequest request = new MockHttpServletRequest(method, uri);
+        request.addHeader("X-Tenant-Id", tenant);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        try {
+            filter.doFilter(request, response, chain);
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+        return response;
+    }
+}
@@ -0,0 +1,124 @@
+package com.receiptprocessor;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.receiptprocessor.format.WireFormat;
+import com.receiptprocessor.model.Item;
+import com.receiptprocessor.model.Receipt;
+
+class WireFormatBenchmarkTest {
+
+    private static final Logger log = LoggerFactory.getLogger(WireFormatBenchmarkTest.class);
+
+    private static final int RECEIPTS = 2_000;
+    private static final int ROUNDS = 5;
+
+    private final Map<WireFormat, ObjectMapper> mappers = new EnumMap<>(WireFormat.class);
+    private List<Receipt> receipts;
+
+    @BeforeEach
+    void setUp() {
+        for (WireFormat format : WireFormat.values()) {
+            mappers.put(format, format.createMapper(Jackson2ObjectMapperBuilder.json()));
+        }
+
+        receipts = sampleReceipts(RECEIPTS);
+    }
+
+    /**
+     * @param count How many receipts to build.
+     * @return Receipts from 50 retailers with 30 items each, as used by the encoding benchmarks.
+     */
+    static List<Receipt> sampleReceipts(int count) {
+        List<Receipt> receipts = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            Receipt receipt = new Receipt();
+            receipt.setRetailer("Retailer " + (i % 50));
+            receipt.setPurchaseDate("2024-03-" + (10 + i % 18));
+            receipt.setPurchaseTime("1" + (i % 10) + ":15");
+            receipt.setTotal((i % 300) + ".25");
+            List<Item> items = new ArrayList<>();
+            for (int j = 0; j < 30; j++) {
+                items.add(new Item("Product " + (j * 7 % 40), (j % 20) + ".49"));
+            }
+            receipt.setItems(items);
+            receipts.add(receipt);
+        }
+        return receipts;
+    }
+
+    private List<byte[]> encode(WireFormat format) throws Exception {
+        ObjectMapper mapper = mappers.get(format);
+        List<byte[]> encoded = new ArrayList<>(RECEIPTS);
+        for (Receipt receipt : receipts) {
+            encoded.add(mapper.writeValueAsBytes(receipt));
+        }
+        return encoded;
+    }
+
+    @Test
+    @DisplayName("Binary formats round-trip receipts and are smaller than JSON")
+    void testWireFormats() throws Exception {
+        Map<WireFormat, Long> sizes = new EnumMap<>(WireFormat.class);
+
+        for (WireFormat format : WireFormat.values()) {
+            List<byte[]> encoded = encode(format);
+            for (int i = 0; i < RECEIPTS; i += 97) {
+                assertEquals(receipts.get(i), mappers.get(format).readValue(encoded.get(i), Receipt.class));
+            }
+            sizes.put(format, encoded.stream().mapToLong(body -> body.length).sum() / RECEIPTS);
+        }
+
+        assertTrue(sizes.get(WireFormat.CBOR) < sizes.get(WireFormat.JSON));
+        assertTrue(sizes.get(WireFormat.SMILE) < sizes.get(WireFormat.JSON));
+    }
+
+    @Test
+    @Tag("benchmark")
+    @DisplayName("Decode throughput per wire format")
+    void benchmarkDecode() throws Exception {
+        for (WireFormat format : WireFormat.values()) {
+            ObjectMapper mapper = mappers.get(format);
+            List<byte[]> encoded = encode(format);
+            long bytes = encoded.stream().mapToLong(body -> body.length).sum();
+
+            long bestNanos = Long.MAX_VALUE;
+            for (int round = 0; round < ROUNDS; round++) {
+                long start = System.nanoTime();
+                for (byte[] body : encoded) {
+                    mapper.readValue(body, Receipt.class);
+                }
+                bestNanos = Math.min(bestNanos, System.nanoTime() - start);
+            }
+
+            log.info("{} {} bytes/receipt, {} receipts/s decode", format, bytes / RECEIPTS,
+                    Math.round(RECEIPTS / (bestNanos / 1e9)));
+        }
+    }
+
+    @Test
+    @DisplayName("Accept header negotiation")
+    void testFromAccept() {
+        assertEquals(WireFormat.JSON, WireFormat.fromAccept(null));
+        assertEquals(WireFormat.JSON, WireFormat.fromAccept("*/*"));
+        assertEquals(WireFormat.CBOR, WireFormat.fromAccept("application/cbor"));
+        assertEquals(WireFormat.SMILE, WireFormat.fromAccept("application/json;q=0.5, application/x-jackson-smile"));
+        assertEquals(WireFormat.JSON, WireFormat.fromAccept("application/cbor;q=0.2, application/json"));
+        assertEquals(WireFormat.JSON, WireFormat.fromAccept("not a media type"));
+    }
+}
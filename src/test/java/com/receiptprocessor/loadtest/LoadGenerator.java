@@ -0,0 +1,269 @@
+package com.receiptprocessor.loadtest;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Open-loop load generator for a running receipt-processor instance.
+ * - Requests are issued on a fixed schedule ({@code --rate} per second) by {@code --concurrency} workers.
+ *   Latency is measured from each request's scheduled start, so a stalled server shows up in the
+ *   percentiles instead of silently lowering the offered load.
+ * - The endpoint mix is weighted ({@code --mix}); point, tag and inventory requests target receipts ingested
+ *   earlier in the run.
+ * - Receipt bodies come from {@code --traffic}, an NDJSON file with one recorded receipt per line,
+ *   or are generated when no file is given.
+ * - At the end, throughput and HDR latency percentiles are printed per endpoint.
+ *
+ * Run with: {@code mvn -Ploadtest test-compile exec:java -Dexec.args="--rate=500 --duration=60"}
+ */
+public class LoadGenerator {
+
+    enum Operation {
+        PROCESS, POINTS, TAG, SORT, INVENTORY, ANALYTICS
+    }
+
+    private static final String DEFAULT_MIX = "process:40,points:25,tag:5,sort:5,inventory:10,analytics:15";
+    private static final int ID_POOL_SIZE = 4096;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final HttpClient client;
+    private final String baseUrl;
+    private final int rate;
+    private final int concurrency;
+    private final Duration duration;
+    private final Operation[] weightedOperations;
+    private final List<String> recordedReceipts;
+
+    private final Map<Operation, Histogram> latencies = new EnumMap<>(Operation.class);
+    private final Map<Operation, LongAdder> errors = new EnumMap<>(Operation.class);
+    private final AtomicReferenceArray<String> ids = new AtomicReferenceArray<>(ID_POOL_SIZE);
+    private final AtomicLong idsWritten = new AtomicLong();
+    private final AtomicLong tickets = new AtomicLong();
+
+    LoadGenerator(Map<String, String> options) throws IOException {
+        this.baseUrl = options.getOrDefault("base-url", "http://localhost:8080");
+        this.rate = Integer.parseInt(options.getOrDefault("rate", "200"));
+        this.concurrency = Integer.parseInt(options.getOrDefault("concurrency", "16"));
+        this.duration = Duration.ofSeconds(Long.parseLong(options.getOrDefault("duration", "30")));
+        this.weightedOperations = parseMix(options.getOrDefault("mix", DEFAULT_MIX));
+        this.recordedReceipts = options.containsKey("traffic")
+                ? Files.readAllLines(Path.of(options.get("traffic"))).stream().filter(line -> !line.isBlank()).toList()
+                : List.of();
+        this.client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+        for (Operation operation : Operation.values()) {
+            latencies.put(operation, new ConcurrentHistogram(Duration.ofMinutes(1).toNanos(), 3));
+            errors.put(operation, new LongAdder());
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            if (!arg.startsWith("--") || !arg.contains("=")) {
+                throw new IllegalArgumentException("Expected --name=value, got: " + arg);
+            }
+            options.put(arg.substring(2, arg.indexOf('=')), arg.substring(arg.indexOf('=') + 1));
+        }
+        new LoadGenerator(options).run();
+    }
+
+    private static Operation[] parseMix(String mix) {
+        List<Operation> weighted = new ArrayList<>();
+        for (String part : mix.split(",")) {
+            String[] nameAndWeight = part.trim().split(":");
+            Operation operation = Operation.valueOf(nameAndWeight[0].trim().toUpperCase());
+            for (int i = 0; i < Integer.parseInt(nameAndWeight[1].trim()); i++) {
+                weighted.add(operation);
+            }
+        }
+        if (weighted.isEmpty()) {
+            throw new IllegalArgumentException("Empty traffic mix: " + mix);
+        }
+        return weighted.toArray(new Operation[0]);
+    }
+
+    void run() throws InterruptedException {
+        System.out.printf("Offering %d req/s to %s for %ds with %d workers%n", rate, baseUrl, duration.toSeconds(), concurrency);
+        long intervalNanos = 1_000_000_000L / rate;
+        long start = System.nanoTime();
+        long end = start + duration.toNanos();
+
+        CountDownLatch done = new CountDownLatch(concurrency);
+        for (int i = 0; i < concurrency; i++) {
+            Thread worker = new Thread(() -> {
+                try {
+                    while (true) {
+                        long intended = start + tickets.getAndIncrement() * intervalNanos;
+                        if (intended >= end) {
+                            return;
+                        }
+                        long wait = intended - System.nanoTime();
+                        if (wait > 0) {
+                            LockSupport.parkNanos(wait);
+                        }
+                        execute(weightedOperations[ThreadLocalRandom.current().nextInt(weightedOperations.length)], intended);
+                    }
+                } finally {
+                    done.countDown();
+                }
+            }, "load-" + i);
+            worker.setDaemon(true);
+            worker.start();
+        }
+        done.await();
+        report(System.nanoTime() - start);
+    }
+
+    private void execute(Operation operation, long intended) {
+        String id = randomId();
+        if (id == null && operation != Operation.SORT && operation != Operation.ANALYTICS) {
+            operation = Operation.PROCESS; // Nothing ingested yet to look up
+        }
+
+        HttpRequest request = switch (operation) {
+            case PROCESS -> post("/receipts/process", nextReceipt());
+            case POINTS -> HttpRequest.newBuilder(uri("/receipts/" + id + "/points")).GET().build();
+            case TAG -> post("/receipts/" + id + "/tag", "");
+            case SORT -> HttpRequest.newBuilder(uri("/receipts/sort?criteria=" + randomCriteria())).GET().build();
+            case INVENTORY -> HttpRequest.newBuilder(uri("/receipts/" + id + "/inventory/update"))
+                    .header("Content-Type", "application/json")
+                    .PUT(HttpRequest.BodyPublishers.ofString(randomItems().toString()))
+                    .build();
+            case ANALYTICS -> HttpRequest.newBuilder(uri("/receipts/analytics")).GET().build();
+        };
+
+        try {
+            HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+            if (response.statusCode() >= 400) {
+                errors.get(operation).increment();
+            } else if (operation == Operation.PROCESS) {
+                rememberId(objectMapper.readTree(response.body()).path("id").asText(null));
+            }
+        } catch (IOException e) {
+            errors.get(operation).increment();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        latencies.get(operation).recordValue(Math.min(System.nanoTime() - intended, latencies.get(operation).getHighestTrackableValue()));
+    }
+
+    private HttpRequest post(String path, String body) {
+        return HttpRequest.newBuilder(uri(path))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(body))
+                .build();
+    }
+
+    private URI uri(String path) {
+        return URI.create(baseUrl + path);
+    }
+
+    private void rememberId(String id) {
+        if (id != null) {
+            ids.set((int) (idsWritten.getAndIncrement() % ID_POOL_SIZE), id);
+        }
+    }
+
+    private String randomId() {
+        long written = idsWritten.get();
+        if (written == 0) {
+            return null;
+        }
+        return ids.get(ThreadLocalRandom.current().nextInt((int) Math.min(written, ID_POOL_SIZE)));
+    }
+
+    private String randomCriteria() {
+        return switch (ThreadLocalRandom.current().nextInt(3)) {
+            case 0 -> "total";
+            case 1 -> "date";
+            default -> "points";
+        };
+    }
+
+    private String nextReceipt() {
+        if (!recordedReceipts.isEmpty()) {
+            return recordedReceipts.get((int) (tickets.get() % recordedReceipts.size()));
+        }
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        Map<String, Object> receipt = new HashMap<>();
+        receipt.put("retailer", "Retailer " + random.nextInt(300));
+        receipt.put("purchaseDate", LocalDate.now().minusDays(random.nextInt(365)).toString());
+        receipt.put("purchaseTime", String.format("%02d:%02d", random.nextInt(24), random.nextInt(60)));
+        receipt.put("total", String.format("%d.%02d", random.nextInt(300), random.nextInt(4) * 25));
+        receipt.put("items", randomItemList());
+        try {
+            return objectMapper.writeValueAsString(receipt);
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private JsonNode randomItems() {
+        return objectMapper.valueToTree(randomItemList());
+    }
+
+    private List<Map<String, String>> randomItemList() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        List<Map<String, String>> items = new ArrayList<>();
+        for (int i = 0, count = 1 + random.nextInt(30); i < count; i++) {
+            items.add(Map.of(
+                    "shortDescription", "Product " + random.nextInt(3000),
+                    "price", String.format("%d.%02d", random.nextInt(50), random.nextInt(100))));
+        }
+        return items;
+    }
+
+    private void report(long elapsedNanos) {
+        double seconds = elapsedNanos / 1e9;
+        Histogram all = new Histogram(Duration.ofMinutes(1).toNanos(), 3);
+        long allErrors = 0;
+
+        System.out.printf("%n%-10s %9s %8s %9s %9s %9s %9s %9s %9s%n",
+                "endpoint", "requests", "errors", "req/s", "p50 ms", "p90 ms", "p99 ms", "p99.9 ms", "max ms");
+        for (Operation operation : Operation.values()) {
+            Histogram histogram = latencies.get(operation);
+            all.add(histogram);
+            allErrors += errors.get(operation).sum();
+            print(operation.name().toLowerCase(), histogram, errors.get(operation).sum(), seconds);
+        }
+        print("all", all, allErrors, seconds);
+    }
+
+    private void print(String name, Histogram histogram, long errorCount, double seconds) {
+        if (histogram.getTotalCount() == 0) {
+            return;
+        }
+        System.out.printf("%-10s %9d %8d %9.1f %9.2f %9.2f %9.2f %9.2f %9.2f%n",
+                name, histogram.getTotalCount(), errorCount, histogram.getTotalCount() / seconds,
+                histogram.getValueAtPercentile(50) / 1e6, histogram.getValueAtPercentile(90) / 1e6,
+                histogram.getValueAtPercentile(99) / 1e6, histogram.getValueAtPercentile(99.9) / 1e6,
+                histogram.getMaxValue() / 1e6);
+    }
+}